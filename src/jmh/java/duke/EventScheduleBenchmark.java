@@ -0,0 +1,91 @@
+package duke;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures scheduling events with a clash check for each one, and {@code free} queries over busy lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EventScheduleBenchmark {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    private static final int DAY_SPREAD = 730;
+
+    @Param({"1000", "100000"})
+    public int events;
+
+    private LocalDateTime[] froms;
+    private LocalDateTime[] tos;
+    private Suu suu;
+    private String[] freeCommands;
+    private int nextDay;
+
+    /**
+     * Generates {@code events} event times over two years, and a Suu instance over a saved list of them.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        SplittableRandom random = new SplittableRandom(42);
+        froms = new LocalDateTime[events];
+        tos = new LocalDateTime[events];
+        ArrayList<Task> saved = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            froms[i] = FIRST_DAY.plusDays(random.nextInt(DAY_SPREAD)).atTime(8 + random.nextInt(12),
+                    15 * random.nextInt(4));
+            tos[i] = froms[i].plusMinutes(30 + 15 * random.nextInt(10));
+            saved.add(new Event("meeting " + i, froms[i], tos[i]));
+        }
+
+        Path dir = Files.createTempDirectory("suu-bench");
+        dir.toFile().deleteOnExit();
+        Storage storage = new Storage(dir.toString(), "Suu.txt");
+        storage.save(saved);
+        suu = new Suu(storage, false);
+        freeCommands = new String[DAY_SPREAD];
+        for (int i = 0; i < DAY_SPREAD; i++) {
+            freeCommands[i] = "free " + FIRST_DAY.plusDays(i);
+        }
+    }
+
+    /**
+     * Adds every event to an empty list, first looking up the events it clashes with, as the
+     * {@code event} command does.
+     */
+    @Benchmark
+    public int addWithClashCheck() {
+        TaskList tasks = new TaskList();
+        int clashes = 0;
+        for (int i = 0; i < events; i++) {
+            clashes += tasks.overlapping(froms[i], tos[i]).size();
+            tasks.add(new Event("meeting " + i, froms[i], tos[i]));
+        }
+        return clashes;
+    }
+
+    /**
+     * Answers {@code free} for one whole day, moving on to the next day on every call.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String freeWholeDay() {
+        String command = freeCommands[nextDay];
+        nextDay = (nextDay + 1) % freeCommands.length;
+        return suu.getResponse(command);
+    }
+}
@@ -0,0 +1,84 @@
+package duke;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the per-command work that does not depend on the list size: classifying and parsing command
+ * lines, and formatting dates for display.
+ *
+ * <p>{@link #dispatch()} and {@link #splitEvent()} reuse one {@link ParsedCommand}, as {@link Suu} does;
+ * with {@code -prof gc} their {@code gc.alloc.rate.norm} should be 0 bytes per operation.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParserBenchmark {
+    private static final int LINE_COUNT = 1024;
+
+    private String[] commands;
+    private String[] deadlines;
+    private String[] events;
+    private final ParsedCommand command = new ParsedCommand();
+    private int next;
+    private LocalDateTime when;
+
+    /**
+     * Generates the command lines to cycle through.
+     */
+    @Setup
+    public void setUp() {
+        TaskGenerator generator = new TaskGenerator(42);
+        commands = generator.addCommands(LINE_COUNT);
+        deadlines = new String[LINE_COUNT];
+        events = new String[LINE_COUNT];
+        for (int i = 0; i < LINE_COUNT; i++) {
+            deadlines[i] = "deadline " + generator.word() + " " + generator.word() + " /by 2025-10-15";
+            events[i] = "event " + generator.word() + " /from 2025-10-15 0900 /to 2025-10-15 1030";
+        }
+        when = LocalDateTime.of(2025, 10, 15, 18, 30);
+    }
+
+    private int nextLine() {
+        next = (next + 1) & (LINE_COUNT - 1);
+        return next;
+    }
+
+    @Benchmark
+    public CommandType commandTypeFrom() {
+        return CommandType.from(commands[nextLine()]);
+    }
+
+    @Benchmark
+    public CommandType dispatch() {
+        return command.parse(commands[nextLine()]).getType();
+    }
+
+    @Benchmark
+    public int splitEvent() {
+        return command.parse(events[nextLine()]).split(" /from ", " /to ");
+    }
+
+    @Benchmark
+    public String[] parseDeadline() throws SuuException {
+        return Parser.parseDeadline(deadlines[nextLine()]);
+    }
+
+    @Benchmark
+    public String[] parseEvent() throws SuuException {
+        return Parser.parseEvent(events[nextLine()]);
+    }
+
+    @Benchmark
+    public String formatDateTime() {
+        return DateTimeUtil.formatDateTime(when);
+    }
+}
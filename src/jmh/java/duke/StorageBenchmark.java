@@ -0,0 +1,66 @@
+package duke;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures loading and saving whole task lists in each storage format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StorageBenchmark {
+    @Param({"100", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"TEXT", "BINARY", "COMPRESSED"})
+    public StorageFormat format;
+
+    private Path dir;
+    private Storage storage;
+    private ArrayList<Task> tasks;
+
+    /**
+     * Writes a save file with {@code size} generated tasks in the chosen format.
+     */
+    @Setup
+    public void setUp() throws IOException, SuuException {
+        dir = Files.createTempDirectory("suu-bench");
+        storage = new Storage(dir.toString(), "Suu.txt");
+        tasks = new TaskGenerator(42).tasks(size);
+        storage.save(tasks);
+        storage.convertTo(format);
+    }
+
+    /**
+     * Deletes the save file.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dir.resolve("Suu.txt"));
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public ArrayList<Task> load() throws SuuException {
+        return storage.load();
+    }
+
+    @Benchmark
+    public void save() throws SuuException {
+        storage.save(tasks);
+    }
+}
@@ -0,0 +1,67 @@
+package duke;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures what each durability level costs for full saves and for single journal appends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StorageDurabilityBenchmark {
+    @Param({"NONE", "INTERVAL", "EVERY_COMMIT"})
+    public Durability durability;
+
+    private Path dir;
+    private Storage storage;
+    private ArrayList<Task> tasks;
+    private int next;
+
+    /**
+     * Creates a journaled storage at the chosen level and saves 100,000 generated tasks into it.
+     */
+    @Setup
+    public void setUp() throws IOException, SuuException {
+        dir = Files.createTempDirectory("suu-bench");
+        storage = new Storage(dir.toString(), "Suu.txt", Integer.MAX_VALUE);
+        storage.setDurability(durability);
+        tasks = new TaskGenerator(42).tasks(100_000);
+        storage.save(tasks);
+    }
+
+    /**
+     * Deletes the save and journal files.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        for (File file : dir.toFile().listFiles()) {
+            Files.deleteIfExists(file.toPath());
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public void save() throws SuuException {
+        storage.save(tasks);
+    }
+
+    @Benchmark
+    public void commit() throws SuuException {
+        storage.commit(tasks, Journal.mark(next++ % tasks.size()));
+    }
+}
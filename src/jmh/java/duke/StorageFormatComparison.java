@@ -0,0 +1,61 @@
+package duke;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * Prints the file size of a generated task list in each {@link StorageFormat}, its compression ratio
+ * against the text format, and how long one save and one load take.
+ *
+ * <p>Run with {@code gradlew storageFormats --args="[size]"}; the default size is one million tasks. The
+ * times are single cold runs after a warm-up round, meant as a quick comparison; use
+ * {@link StorageBenchmark} for careful measurements.</p>
+ */
+public class StorageFormatComparison {
+    private static final int DEFAULT_SIZE = 1_000_000;
+
+    /**
+     * Saves and loads the same tasks in every format and prints the results.
+     *
+     * @param args Optional number of tasks to generate.
+     * @throws IOException If the temporary folder cannot be used.
+     * @throws SuuException If the tasks cannot be saved or loaded.
+     */
+    public static void main(String[] args) throws IOException, SuuException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        ArrayList<Task> tasks = new TaskGenerator(42).tasks(size);
+        Path dir = Files.createTempDirectory("suu-formats");
+        Storage storage = new Storage(dir.toString(), "Suu.txt");
+        storage.setDurability(Durability.NONE);
+        try {
+            long textBytes = 0;
+            for (int round = 0; round < 2; round++) {
+                for (StorageFormat format : StorageFormat.values()) {
+                    storage.convertTo(format);
+
+                    long start = System.nanoTime();
+                    storage.save(tasks);
+                    long saveNanos = System.nanoTime() - start;
+                    start = System.nanoTime();
+                    int loaded = storage.load().size();
+                    long loadNanos = System.nanoTime() - start;
+                    assert loaded == size : "Every saved task must be loaded";
+
+                    long bytes = Files.size(dir.resolve("Suu.txt"));
+                    if (format == StorageFormat.TEXT) {
+                        textBytes = bytes;
+                    }
+                    if (round == 1) {
+                        System.out.printf("%-10s %,14d bytes (%5.1fx)  save %,6d ms  load %,6d ms%n", format, bytes,
+                                (double) textBytes / bytes, saveNanos / 1_000_000, loadNanos / 1_000_000);
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(dir.resolve("Suu.txt"));
+            Files.deleteIfExists(dir);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package duke;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+/**
+ * Generates reproducible synthetic tasks and command lines for the benchmarks.
+ *
+ * <p>Tasks are half todos, 30% deadlines and 20% events, with two to five words from a small vocabulary,
+ * dates spread over two years and a quarter of them marked as done.</p>
+ */
+public class TaskGenerator {
+    private static final String[] WORDS = {
+        "read", "book", "write", "report", "return", "library", "buy", "groceries", "call", "mom",
+        "project", "meeting", "submit", "assignment", "lecture", "review", "notes", "gym", "dentist",
+        "team", "lunch", "fix", "bug", "deploy", "release", "plan", "trip", "pay", "rent", "tutorial",
+    };
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    private static final int DAY_SPREAD = 730;
+
+    private final SplittableRandom random;
+
+    /**
+     * Creates a generator whose output is fully determined by the seed.
+     *
+     * @param seed Random seed.
+     */
+    public TaskGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Returns {@code count} new tasks with the standard type mix.
+     *
+     * @param count Number of tasks.
+     * @return Generated tasks.
+     */
+    public ArrayList<Task> tasks(int count) {
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Task t;
+            int kind = random.nextInt(10);
+            if (kind < 5) {
+                t = new Todo(description());
+            } else if (kind < 8) {
+                t = new Deadline(description(), day());
+            } else {
+                LocalDateTime from = day().atTime(8 + random.nextInt(10), random.nextBoolean() ? 0 : 30);
+                t = new Event(description(), from, from.plusMinutes(30 + 30 * random.nextInt(6)));
+            }
+            if (random.nextInt(4) == 0) {
+                t.setMarked();
+            }
+            tasks.add(t);
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns {@code count} add-command lines ({@code todo}, {@code deadline}, {@code event}) with the
+     * standard type mix.
+     *
+     * @param count Number of lines.
+     * @return Generated command lines.
+     */
+    public String[] addCommands(int count) {
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(10);
+            if (kind < 5) {
+                lines[i] = "todo " + description();
+            } else if (kind < 8) {
+                lines[i] = "deadline " + description() + " /by " + day();
+            } else {
+                lines[i] = "event " + description() + " /from " + day() + " 0900 /to " + day() + " 1030";
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Returns a random word from the vocabulary.
+     *
+     * @return Word.
+     */
+    public String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private String description() {
+        StringBuilder sb = new StringBuilder(word());
+        int words = 2 + random.nextInt(4);
+        for (int i = 1; i < words; i++) {
+            sb.append(' ').append(word());
+        }
+        return sb.toString();
+    }
+
+    private LocalDate day() {
+        return FIRST_DAY.plusDays(random.nextInt(DAY_SPREAD));
+    }
+}
@@ -0,0 +1,78 @@
+package duke;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures searching and rendering task lists of different sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskListBenchmark {
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private TaskList tasks;
+    private Suu suu;
+    private String lastPage;
+
+    /**
+     * Builds a list of {@code size} generated tasks, and a Suu instance over a saved copy of it.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        ArrayList<Task> generated = new TaskGenerator(42).tasks(size);
+        tasks = new TaskList(generated);
+        // warm the search index so find measures the query, not the first build
+        tasks.find("book");
+
+        Path dir = Files.createTempDirectory("suu-bench");
+        dir.toFile().deleteOnExit();
+        Storage storage = new Storage(dir.toString(), "Suu.txt");
+        storage.save(new TaskGenerator(42).tasks(size));
+        suu = new Suu(storage, false);
+        lastPage = "list " + ((size + ListRenderer.PAGE_SIZE - 1) / ListRenderer.PAGE_SIZE);
+    }
+
+    @Benchmark
+    public ArrayList<Task> findCommonWord() {
+        return tasks.find("book");
+    }
+
+    @Benchmark
+    public ArrayList<Task> findRarePhrase() {
+        return tasks.find("rent tutorial gym");
+    }
+
+    /**
+     * Renders every task, as a plain {@code list} did before paging.
+     */
+    @Benchmark
+    public String renderWholeList() {
+        StringBuilder sb = new StringBuilder(ListRenderer.header(0, tasks.size(), tasks.size()));
+        ListRenderer.render(tasks, 0, tasks.size(), sb);
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String listCommand() {
+        return suu.getResponse("list");
+    }
+
+    @Benchmark
+    public String listLastPage() {
+        return suu.getResponse(lastPage);
+    }
+}
@@ -0,0 +1,90 @@
+package duke;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures one writer marking tasks while three other threads read the same {@link TaskList}.
+ *
+ * <p>In {@code snapshots} the readers take {@link TaskList#snapshot()}s; in {@code queries} they run
+ * {@link TaskList#find(String)} under the read lock. Comparing the writer's score with {@code writerAlone}
+ * shows how much the readers hold it up.</p>
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskListContentionBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    private TaskList tasks;
+    private int next;
+
+    /**
+     * Builds a list of {@code size} generated tasks with its search index in place.
+     */
+    @Setup
+    public void setUp() {
+        ArrayList<Task> generated = new TaskGenerator(42).tasks(size);
+        tasks = new TaskList(generated);
+        tasks.find("book");
+    }
+
+    @Benchmark
+    @Group("writerAlone")
+    public void writeAlone() {
+        toggleNext();
+    }
+
+    @Benchmark
+    @Group("snapshots")
+    @GroupThreads(1)
+    public void writeWhileSnapshotting() {
+        toggleNext();
+    }
+
+    @Benchmark
+    @Group("snapshots")
+    @GroupThreads(3)
+    public TaskList.Snapshot readSnapshot() {
+        return tasks.snapshot();
+    }
+
+    @Benchmark
+    @Group("queries")
+    @GroupThreads(1)
+    public void writeWhileQuerying() {
+        toggleNext();
+    }
+
+    @Benchmark
+    @Group("queries")
+    @GroupThreads(3)
+    public ArrayList<Task> readFind() {
+        return tasks.find("book");
+    }
+
+    /**
+     * Flips the completion status of the next task; only the writer thread calls this.
+     */
+    private void toggleNext() {
+        Task t = tasks.get(next);
+        if (t.isMarked()) {
+            t.unmark();
+        } else {
+            t.setMarked();
+        }
+        next = next + 1 == size ? 0 : next + 1;
+    }
+}
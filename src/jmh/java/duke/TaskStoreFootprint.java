@@ -0,0 +1,38 @@
+package duke;
+
+import java.util.ArrayList;
+
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Prints the retained heap size of a generated task list held as {@link Task} objects and as a
+ * {@link ColumnarTaskStore}, measured with JOL.
+ *
+ * <p>Run with {@code gradlew footprint --args="[size]"}; the default size is one million tasks. The
+ * footprint of each class in both object graphs is printed too, as a heap histogram would show it.</p>
+ */
+public class TaskStoreFootprint {
+    private static final int DEFAULT_SIZE = 1_000_000;
+
+    /**
+     * Builds both representations of the same tasks and prints their sizes.
+     *
+     * @param args Optional number of tasks to generate.
+     * @throws SuuException If a generated task cannot be stored.
+     */
+    public static void main(String[] args) throws SuuException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        ArrayList<Task> objects = new TaskGenerator(42).tasks(size);
+        ColumnarTaskStore columns = new ColumnarTaskStore(objects);
+
+        GraphLayout objectLayout = GraphLayout.parseInstance(objects);
+        GraphLayout columnLayout = GraphLayout.parseInstance(columns);
+        System.out.println(objectLayout.toFootprint());
+        System.out.println(columnLayout.toFootprint());
+
+        long objectBytes = objectLayout.totalSize();
+        long columnBytes = columnLayout.totalSize();
+        System.out.printf("%d tasks: %,d bytes as objects, %,d bytes as columns (%.1fx smaller)%n",
+                size, objectBytes, columnBytes, (double) objectBytes / columnBytes);
+    }
+}
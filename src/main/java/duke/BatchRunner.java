@@ -0,0 +1,184 @@
+package duke;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * Runs Suu without a GUI, reading commands from a file or standard input and writing the responses to
+ * standard output.
+ *
+ * <p>Changes are saved once at the end, or every {@code N} commands with {@code --commit-every N}, instead
+ * of after every command. If a save fails, every change since the previous save is undone and the run
+ * stops. Usage: {@code BatchRunner [--commit-every N] [--durability none|interval|every-commit] [script-file]}.</p>
+ *
+ * <p>With {@code --convert text|binary|compressed}, it instead rewrites the saved tasks in the given
+ * {@link StorageFormat}, folding in the journal, and exits without running a script. With
+ * {@code --mark-all}, it likewise marks every saved task as done and exits.</p>
+ */
+public class BatchRunner {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Suu suu;
+    private final int commitEvery;
+
+    /**
+     * Creates a runner for the given Suu instance.
+     *
+     * @param suu Suu instance to send commands to; must not use a {@link GroupCommitWriter}.
+     * @param commitEvery Number of commands between saves, or {@code 0} to save only at the end.
+     */
+    public BatchRunner(Suu suu, int commitEvery) {
+        assert suu != null : "Suu must not be null";
+        assert commitEvery >= 0 : "Commit interval must not be negative";
+        this.suu = suu;
+        this.commitEvery = commitEvery;
+    }
+
+    /**
+     * Runs a script from the file named in the arguments, or from standard input if none is given.
+     *
+     * @param args Optional {@code --commit-every N} and {@code --durability level}, followed by an optional
+     *     script file, or {@code --convert format} or {@code --mark-all} to change the saved tasks instead.
+     */
+    public static void main(String[] args) {
+        int commitEvery = 0;
+        Durability durability = Storage.DEFAULT_DURABILITY;
+        StorageFormat convertTo = null;
+        boolean isMarkingAll = false;
+        String scriptFile = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--commit-every") && i + 1 < args.length) {
+                commitEvery = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--durability") && i + 1 < args.length) {
+                try {
+                    durability = Durability.fromWord(args[++i]);
+                } catch (SuuException e) {
+                    System.err.println("Oops! " + e.getMessage());
+                    System.exit(1);
+                }
+            } else if (args[i].equals("--convert") && i + 1 < args.length) {
+                try {
+                    convertTo = StorageFormat.fromWord(args[++i]);
+                } catch (SuuException e) {
+                    System.err.println("Oops! " + e.getMessage());
+                    System.exit(1);
+                }
+            } else if (args[i].equals("--mark-all")) {
+                isMarkingAll = true;
+            } else {
+                scriptFile = args[i];
+            }
+        }
+
+        Storage storage = new Storage("data", "Suu.txt", Storage.DEFAULT_COMPACT_THRESHOLD);
+        storage.setDurability(durability);
+        if (convertTo != null || isMarkingAll) {
+            try {
+                System.out.println(convertTo != null ? convert(storage, convertTo) : markAll(storage));
+            } catch (SuuException e) {
+                System.err.println("Oops! " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+        Suu suu = new Suu(storage, false);
+        boolean isSuccess;
+        try (InputStream in = scriptFile == null ? System.in : new FileInputStream(scriptFile)) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, Charset.defaultCharset()),
+                    BUFFER_SIZE);
+            // not closed, as that would close System.out
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()),
+                    BUFFER_SIZE);
+            isSuccess = new BatchRunner(suu, commitEvery).run(reader, out);
+        } catch (IOException e) {
+            System.err.println("Oops! I had trouble reading the script: " + e.getMessage());
+            isSuccess = false;
+        }
+        suu.close();
+        if (!isSuccess) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Rewrites the tasks saved in the given storage in another format, folding in its journal, and forces
+     * them to the device.
+     *
+     * @param storage Storage holding the tasks.
+     * @param format Format to convert to.
+     * @return Message confirming the conversion.
+     * @throws SuuException If the tasks could not be loaded or saved.
+     */
+    static String convert(Storage storage, StorageFormat format) throws SuuException {
+        storage.convertTo(format);
+        storage.sync();
+        return "Saved your tasks in the " + format.getWord() + " format.";
+    }
+
+    /**
+     * Marks every task saved in the given storage as done, folding in its journal, and forces the result to
+     * the device.
+     *
+     * <p>The tasks are held in a {@link ColumnarTaskStore} rather than a {@link TaskList} while they are marked
+     * and saved, so a list of millions of tasks does not stay in memory as millions of task objects.</p>
+     *
+     * @param storage Storage holding the tasks.
+     * @return Message confirming how many tasks were marked.
+     * @throws SuuException If there are no tasks, or the tasks could not be loaded or saved.
+     */
+    static String markAll(Storage storage) throws SuuException {
+        ColumnarTaskStore store = new ColumnarTaskStore(storage.load());
+        if (store.size() == 0) {
+            throw new SuuException("You have no tasks to mark yet.");
+        }
+        for (int i = 0; i < store.size(); i++) {
+            store.setStatus(i, true);
+        }
+        storage.save(store.asList());
+        storage.sync();
+        return "Marked all " + store.size() + " saved tasks as done.";
+    }
+
+    /**
+     * Sends each non-empty line to Suu and writes each response followed by a line break, until the input
+     * ends or a {@code bye} command is processed. Changes are saved as configured and once more at the end.
+     *
+     * @param in Commands, one per line.
+     * @param out Target for the responses; flushed before returning.
+     * @return {@code true} if every save succeeded, {@code false} if the run stopped after a failed save.
+     * @throws IOException If reading the commands or writing the responses fails.
+     */
+    public boolean run(BufferedReader in, Writer out) throws IOException {
+        suu.beginBatch();
+        try {
+            String line;
+            int sinceCommit = 0;
+            while (!suu.isExit() && (line = in.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                out.write(suu.getResponse(line));
+                out.write('\n');
+                sinceCommit++;
+                if (commitEvery > 0 && sinceCommit == commitEvery) {
+                    suu.commitBatch();
+                    sinceCommit = 0;
+                }
+            }
+            suu.commitBatch();
+            return true;
+        } catch (SuuException e) {
+            out.write("Oops! " + e.getMessage() + "\n");
+            return false;
+        } finally {
+            out.flush();
+        }
+    }
+}
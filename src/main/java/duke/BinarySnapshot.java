@@ -0,0 +1,258 @@
+package duke;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads and writes the binary snapshot format of the task list.
+ *
+ * <p>Layout (big-endian): a header of magic bytes {@code SUUB}, a format version ({@code int}), the snapshot
+ * generation ({@code long}, see {@link Storage}) and the task count
+ * ({@code int}), followed by one record per task:</p>
+ * <ul>
+ *   <li>a flags byte: task type in the low two bits ({@code 0} todo, {@code 1} deadline, {@code 2} event),
+ *       and the done flag in the high bit</li>
+ *   <li>the task ID ({@code long}, {@code 0} if none)</li>
+ *   <li>for a deadline, the epoch day of {@code by} ({@code long})</li>
+ *   <li>for an event, the epoch minutes (UTC) of {@code from} and {@code to} ({@code long} each)</li>
+ *   <li>the description as a length-prefixed ({@code int}) UTF-8 string</li>
+ * </ul>
+ *
+ * <p>Snapshots are read into memory with one bulk read and decoded from a {@link ByteBuffer}, so no per-line
+ * parsing is needed on startup. The file is not memory-mapped, as a mapped file cannot be replaced on
+ * Windows until the mapping is garbage collected. Counts and lengths are checked against the bytes left
+ * before anything is allocated for them, so a damaged file cannot run Suu out of memory.</p>
+ */
+public class BinarySnapshot {
+    private static final byte[] MAGIC = {'S', 'U', 'U', 'B'};
+    private static final int VERSION = 1;
+
+    private static final int TYPE_TODO = 0;
+    private static final int TYPE_DEADLINE = 1;
+    private static final int TYPE_EVENT = 2;
+    private static final int TYPE_MASK = 0x03;
+    private static final int DONE_FLAG = 0x80;
+
+    /**
+     * Size of the smallest record: a todo with an empty description (flags, ID and description length).
+     */
+    private static final int MIN_RECORD_BYTES = 1 + Long.BYTES + Integer.BYTES;
+
+    /**
+     * Returns whether the given file starts with the binary snapshot magic bytes.
+     *
+     * @param file File to check.
+     * @return {@code true} if the file is a binary snapshot, {@code false} otherwise.
+     * @throws SuuException If the file cannot be read.
+     */
+    public static boolean isBinary(File file) throws SuuException {
+        byte[] head = new byte[MAGIC.length];
+        try (InputStream in = new FileInputStream(file)) {
+            int read = in.readNBytes(head, 0, head.length);
+            return read == head.length && Arrays.equals(head, MAGIC);
+        } catch (IOException e) {
+            throw new SuuException("I had trouble reading the save file.");
+        }
+    }
+
+    /**
+     * Returns the generation a binary snapshot file was saved as.
+     *
+     * @param file Binary snapshot file.
+     * @return Snapshot generation.
+     * @throws SuuException If the file cannot be read, its header is cut short or its version is not
+     *     supported.
+     */
+    static long readGeneration(File file) throws SuuException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            // skip the magic bytes, which isBinary has checked
+            in.readInt();
+            checkVersion(in.readInt());
+            return in.readLong();
+        } catch (EOFException e) {
+            throw new SuuException("Save file is corrupted: unexpected end of binary snapshot.");
+        } catch (IOException e) {
+            throw new SuuException("I had trouble reading the save file.");
+        }
+    }
+
+    /**
+     * Reads all tasks from a binary snapshot file.
+     *
+     * @param file Binary snapshot file.
+     * @return Tasks stored in the snapshot, in order.
+     * @throws SuuException If the file cannot be read or is corrupted.
+     */
+    public static ArrayList<Task> read(File file) throws SuuException {
+        ByteBuffer buf = ByteBuffer.wrap(BulkLoader.readAll(file));
+        try {
+            return decode(buf);
+        } catch (BufferUnderflowException | DateTimeException e) {
+            throw new SuuException("Save file is corrupted: unexpected end of binary snapshot.");
+        }
+    }
+
+    /**
+     * Writes the given tasks to a binary snapshot file, overwriting any existing content.
+     *
+     * @param tasks Tasks to write.
+     * @param generation Generation of the snapshot.
+     * @param file Destination file.
+     * @throws SuuException If the file cannot be written or a task type is not recognized.
+     */
+    public static void write(List<Task> tasks, long generation, File file) throws SuuException {
+        assert tasks != null : "Tasks to save must not be null";
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file, false)))) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.writeInt(tasks.size());
+            for (Task t : tasks) {
+                writeTask(out, t);
+            }
+        } catch (IOException e) {
+            throw new SuuException("I had trouble saving your tasks.");
+        }
+    }
+
+    /**
+     * Decodes a whole snapshot (header and records) from the given buffer.
+     *
+     * @param buf Buffer positioned at the start of the snapshot.
+     * @return Decoded tasks.
+     * @throws SuuException If the header or a record is invalid.
+     */
+    private static ArrayList<Task> decode(ByteBuffer buf) throws SuuException {
+        byte[] magic = new byte[MAGIC.length];
+        buf.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new SuuException("Save file is not a binary snapshot.");
+        }
+        checkVersion(buf.getInt());
+        // the generation, which Storage reads with readGeneration
+        buf.getLong();
+
+        int count = buf.getInt();
+        if (count < 0) {
+            throw new SuuException("Save file is corrupted: negative task count.");
+        }
+        if (count > buf.remaining() / MIN_RECORD_BYTES) {
+            throw new SuuException("Save file is corrupted: task count " + count + " does not fit in the file.");
+        }
+
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(readTask(buf));
+        }
+        return tasks;
+    }
+
+    /**
+     * Decodes a single task record from the given buffer.
+     *
+     * @param buf Buffer positioned at the start of a record.
+     * @return Decoded task.
+     * @throws SuuException If the record has an unknown task type, a negative ID or a bad description length.
+     */
+    private static Task readTask(ByteBuffer buf) throws SuuException {
+        int flags = buf.get() & 0xFF;
+        long id = buf.getLong();
+        if (id < 0) {
+            throw new SuuException("Save file is corrupted: negative task ID.");
+        }
+
+        Task task;
+        switch (flags & TYPE_MASK) {
+        case TYPE_TODO:
+            task = new Todo(readString(buf));
+            break;
+
+        case TYPE_DEADLINE:
+            LocalDate by = LocalDate.ofEpochDay(buf.getLong());
+            task = new Deadline(readString(buf), by);
+            break;
+
+        case TYPE_EVENT:
+            LocalDateTime from = DateTimeUtil.ofEpochMinute(buf.getLong());
+            LocalDateTime to = DateTimeUtil.ofEpochMinute(buf.getLong());
+            task = new Event(readString(buf), from, to);
+            break;
+
+        default:
+            throw new SuuException("Save file has unknown task type: " + (flags & TYPE_MASK));
+        }
+
+        if ((flags & DONE_FLAG) != 0) {
+            task.setMarked();
+        }
+        task.id = id;
+        return task;
+    }
+
+    /**
+     * Encodes a single task record to the given stream.
+     *
+     * @param out Destination stream.
+     * @param task Task to encode.
+     * @throws IOException If writing fails.
+     * @throws SuuException If the task type is not recognized.
+     */
+    private static void writeTask(DataOutputStream out, Task task) throws IOException, SuuException {
+        int done = task.isMarked() ? DONE_FLAG : 0;
+
+        if (task instanceof Todo) {
+            out.writeByte(TYPE_TODO | done);
+            out.writeLong(task.getId());
+        } else if (task instanceof Deadline) {
+            out.writeByte(TYPE_DEADLINE | done);
+            out.writeLong(task.getId());
+            out.writeLong(((Deadline) task).getBy().toEpochDay());
+        } else if (task instanceof Event) {
+            Event e = (Event) task;
+            out.writeByte(TYPE_EVENT | done);
+            out.writeLong(task.getId());
+            out.writeLong(DateTimeUtil.toEpochMinute(e.getFrom()));
+            out.writeLong(DateTimeUtil.toEpochMinute(e.getTo()));
+        } else {
+            throw new SuuException("Unknown task type, cannot save.");
+        }
+
+        byte[] desc = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(desc.length);
+        out.write(desc);
+    }
+
+    private static void checkVersion(int version) throws SuuException {
+        if (version != VERSION) {
+            throw new SuuException("Save file has unsupported snapshot version: " + version);
+        }
+    }
+
+    private static String readString(ByteBuffer buf) throws SuuException {
+        int length = buf.getInt();
+        if (length < 0 || length > buf.remaining()) {
+            throw new SuuException("Save file is corrupted: description length " + length
+                    + " does not fit in the file.");
+        }
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
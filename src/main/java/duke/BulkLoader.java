@@ -0,0 +1,370 @@
+package duke;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Loads large text save files by decoding newline-aligned chunks of the file in parallel.
+ *
+ * <p>The file is read as bytes through a {@link FileChannel} and each line is split into fields by a
+ * hand-written {@code |} scanner, so no regular expressions or intermediate split arrays are involved.
+ * The accepted format and the error messages are the same as {@link Storage#parseLine(String)}. A first line
+ * that holds the snapshot generation (e.g. {@code G | 12}) is skipped.</p>
+ */
+public class BulkLoader {
+    /**
+     * Files smaller than this are decoded on the calling thread.
+     */
+    private static final int MIN_PARALLEL_BYTES = 1 << 20;
+    private static final int MAX_FIELDS = 6;
+
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    /**
+     * Loads all tasks from the given text save file.
+     *
+     * @param file Text save file.
+     * @return Tasks in file order.
+     * @throws SuuException If the file cannot be read, or a line is empty or corrupted.
+     */
+    public static ArrayList<Task> load(File file) throws SuuException {
+        byte[] data = readAll(file);
+
+        int start = 0;
+        if (data.length > 0 && data[0] == Storage.GENERATION_TYPE.charAt(0)) {
+            while (start < data.length && data[start] != '\n') {
+                start++;
+            }
+            start++;
+        }
+        int chunkCount = data.length < MIN_PARALLEL_BYTES ? 1 : ForkJoinPool.getCommonPoolParallelism() * 4;
+        List<ChunkDecoder> chunks = split(data, start, chunkCount);
+        if (chunks.size() == 1) {
+            chunks.get(0).run();
+        } else {
+            List<ForkJoinTask<?>> decoders = new ArrayList<>(chunks.size());
+            for (ChunkDecoder chunk : chunks) {
+                decoders.add(ForkJoinTask.adapt(chunk));
+            }
+            ForkJoinTask.invokeAll(decoders);
+        }
+
+        int total = 0;
+        for (ChunkDecoder chunk : chunks) {
+            if (chunk.error != null) {
+                throw chunk.error;
+            }
+            total += chunk.tasks.size();
+        }
+
+        ArrayList<Task> loaded = new ArrayList<>(total);
+        for (ChunkDecoder chunk : chunks) {
+            loaded.addAll(chunk.tasks);
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the generation a text save file was saved as, read from its first line.
+     *
+     * @param file Text save file.
+     * @return Snapshot generation, or {@code 0} if the file does not start with one.
+     * @throws SuuException If the file cannot be read or the generation line is corrupted.
+     */
+    static long readGeneration(File file) throws SuuException {
+        try (BufferedReader br = new BufferedReader(new FileReader(file, CHARSET))) {
+            String first = br.readLine();
+            if (first == null || !first.startsWith(Storage.GENERATION_TYPE)) {
+                return 0;
+            }
+            return Storage.parseGeneration(first);
+        } catch (IOException e) {
+            throw new SuuException("I had trouble reading the save file.");
+        }
+    }
+
+    /**
+     * Decodes the text lines in {@code [start, end)} of the given bytes on the calling thread.
+     *
+     * @param data Bytes holding save file lines.
+     * @param start Offset of the first line.
+     * @param end Offset just past the last line.
+     * @param charset Charset the lines are encoded in.
+     * @return Tasks in line order.
+     * @throws SuuException If a line is empty or corrupted.
+     */
+    static ArrayList<Task> decode(byte[] data, int start, int end, Charset charset) throws SuuException {
+        ChunkDecoder chunk = new ChunkDecoder(data, start, end, charset);
+        chunk.run();
+        if (chunk.error != null) {
+            throw chunk.error;
+        }
+        return chunk.tasks;
+    }
+
+    /**
+     * Reads the whole file into memory.
+     *
+     * @param file File to read.
+     * @return File contents.
+     * @throws SuuException If the file cannot be read or is too large for an array.
+     */
+    static byte[] readAll(File file) throws SuuException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new SuuException("Save file is too large to load.");
+            }
+            ByteBuffer buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining() && channel.read(buf) >= 0) {
+                // keep reading until the buffer is full or the file ends
+            }
+            if (buf.position() == buf.capacity()) {
+                return buf.array();
+            }
+            byte[] data = new byte[buf.position()];
+            System.arraycopy(buf.array(), 0, data, 0, data.length);
+            return data;
+        } catch (IOException e) {
+            throw new SuuException("I had trouble reading the save file.");
+        }
+    }
+
+    /**
+     * Splits the data from {@code from} on into roughly equal chunks whose boundaries fall right after a
+     * newline.
+     */
+    private static List<ChunkDecoder> split(byte[] data, int from, int chunkCount) {
+        List<ChunkDecoder> chunks = new ArrayList<>(chunkCount);
+        int target = Math.max(1, (data.length - from) / chunkCount);
+        int start = from;
+        while (start < data.length) {
+            int end = Math.min(data.length, start + target);
+            while (end < data.length && data[end - 1] != '\n') {
+                end++;
+            }
+            chunks.add(new ChunkDecoder(data, start, end, CHARSET));
+            start = end;
+        }
+        if (chunks.isEmpty()) {
+            chunks.add(new ChunkDecoder(data, 0, 0, CHARSET));
+        }
+        return chunks;
+    }
+
+    /**
+     * Decodes the lines of one chunk of the file, stopping at the first bad line.
+     */
+    private static class ChunkDecoder implements Runnable {
+        private final byte[] data;
+        private final int start;
+        private final int end;
+        private final Charset charset;
+        private final ArrayList<Task> tasks = new ArrayList<>();
+        private final int[] fieldStarts = new int[MAX_FIELDS + 1];
+        private final int[] fieldEnds = new int[MAX_FIELDS + 1];
+        private SuuException error;
+
+        ChunkDecoder(byte[] data, int start, int end, Charset charset) {
+            this.data = data;
+            this.start = start;
+            this.end = end;
+            this.charset = charset;
+        }
+
+        @Override
+        public void run() {
+            int lineStart = start;
+            while (lineStart < end) {
+                int lineEnd = lineStart;
+                while (lineEnd < end && data[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                try {
+                    tasks.add(decodeLine(lineStart, lineEnd));
+                } catch (SuuException e) {
+                    error = e;
+                    return;
+                }
+                lineStart = lineEnd + 1;
+            }
+        }
+
+        private Task decodeLine(int from, int to) throws SuuException {
+            int lo = from;
+            int hi = to;
+            while (lo < hi && isBlank(data[lo])) {
+                lo++;
+            }
+            while (hi > lo && isBlank(data[hi - 1])) {
+                hi--;
+            }
+            if (lo == hi) {
+                throw new SuuException("Save file has an empty line.");
+            }
+
+            int fieldCount = scanFields(lo, hi);
+            long id = 0;
+            if (fieldCount > 3 && fieldCount <= MAX_FIELDS && data[fieldStarts[fieldCount - 1]] == '#') {
+                id = Storage.parseId(field(fieldCount - 1), lineText(from, to));
+                fieldCount--;
+            }
+            if (fieldCount < 3) {
+                throw corrupted(from, to);
+            }
+
+            boolean isDone = fieldEquals(1, '1');
+            String desc = field(2);
+
+            Task task;
+            try {
+                if (fieldEquals(0, 'T')) {
+                    task = new Todo(desc);
+                } else if (fieldEquals(0, 'D')) {
+                    if (fieldCount != 4) {
+                        throw corrupted(from, to);
+                    }
+                    task = new Deadline(desc, parseDate(3));
+                } else if (fieldEquals(0, 'E')) {
+                    if (fieldCount != 5) {
+                        throw corrupted(from, to);
+                    }
+                    task = new Event(desc, parseDateTime(3), parseDateTime(4));
+                } else {
+                    throw new SuuException("Save file has unknown task type: " + field(0));
+                }
+            } catch (DateTimeException e) {
+                throw corrupted(from, to);
+            }
+
+            if (isDone) {
+                task.setMarked();
+            }
+            task.id = id;
+            return task;
+        }
+
+        /**
+         * Splits {@code [lo, hi)} at each {@code |}, trimming blanks around it, and records the bounds of the
+         * first fields. Like {@code String.split}, trailing empty fields are not counted.
+         *
+         * @return Number of fields.
+         */
+        private int scanFields(int lo, int hi) {
+            int count = 0;
+            int nonEmptyCount = 0;
+            int fieldStart = lo;
+            for (int i = lo; i <= hi; i++) {
+                if (i < hi && data[i] != '|') {
+                    continue;
+                }
+                int s = fieldStart;
+                int e = i;
+                while (s < e && isBlank(data[s])) {
+                    s++;
+                }
+                while (e > s && isBlank(data[e - 1])) {
+                    e--;
+                }
+                if (count < fieldStarts.length) {
+                    fieldStarts[count] = s;
+                    fieldEnds[count] = e;
+                }
+                count++;
+                if (s < e) {
+                    nonEmptyCount = count;
+                }
+                fieldStart = i + 1;
+            }
+            return nonEmptyCount;
+        }
+
+        private boolean fieldEquals(int index, char c) {
+            return fieldEnds[index] - fieldStarts[index] == 1 && data[fieldStarts[index]] == c;
+        }
+
+        private String field(int index) {
+            return new String(data, fieldStarts[index], fieldEnds[index] - fieldStarts[index], charset);
+        }
+
+        /**
+         * Parses an ISO date ({@code 2019-10-15}), falling back to {@link LocalDate#parse} for other layouts.
+         */
+        private LocalDate parseDate(int index) {
+            int s = fieldStarts[index];
+            if (fieldEnds[index] - s == 10 && data[s + 4] == '-' && data[s + 7] == '-') {
+                int year = digits(s, 4);
+                int month = digits(s + 5, 2);
+                int day = digits(s + 8, 2);
+                if (year >= 0 && month >= 0 && day >= 0) {
+                    return LocalDate.of(year, month, day);
+                }
+            }
+            return LocalDate.parse(field(index));
+        }
+
+        /**
+         * Parses an ISO date-time ({@code 2019-12-02T14:00}), falling back to {@link LocalDateTime#parse}
+         * for other layouts (e.g. with seconds).
+         */
+        private LocalDateTime parseDateTime(int index) {
+            int s = fieldStarts[index];
+            if (fieldEnds[index] - s == 16 && data[s + 4] == '-' && data[s + 7] == '-'
+                    && data[s + 10] == 'T' && data[s + 13] == ':') {
+                int year = digits(s, 4);
+                int month = digits(s + 5, 2);
+                int day = digits(s + 8, 2);
+                int hour = digits(s + 11, 2);
+                int minute = digits(s + 14, 2);
+                if (year >= 0 && month >= 0 && day >= 0 && hour >= 0 && minute >= 0) {
+                    return LocalDateTime.of(year, month, day, hour, minute);
+                }
+            }
+            return LocalDateTime.parse(field(index));
+        }
+
+        /**
+         * Returns the value of {@code len} ASCII digits starting at {@code at}, or {@code -1} if any is not a digit.
+         */
+        private int digits(int at, int len) {
+            int value = 0;
+            for (int i = at; i < at + len; i++) {
+                int d = data[i] - '0';
+                if (d < 0 || d > 9) {
+                    return -1;
+                }
+                value = value * 10 + d;
+            }
+            return value;
+        }
+
+        private SuuException corrupted(int from, int to) {
+            return new SuuException("Save file is corrupted: " + lineText(from, to));
+        }
+
+        private String lineText(int from, int to) {
+            int e = to;
+            if (e > from && data[e - 1] == '\r') {
+                e--;
+            }
+            return new String(data, from, e - from, charset);
+        }
+
+        private static boolean isBlank(byte b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package duke;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Compact in-memory store of a task list, kept as one array per field instead of one object per task.
+ *
+ * <p>The task types are a {@code byte[]} ({@code 0} todo, {@code 1} deadline, {@code 2} event, as in
+ * {@link BinarySnapshot}), the done flags a {@link BitSet}, the task IDs a {@code long[]} ({@code 0} if
+ * none), and the dates two {@code long[]} columns: the epoch day of a deadline's {@code by}, or the epoch
+ * minutes of an event's {@code from} and {@code to}.
+ * Descriptions are UTF-8 bytes in one shared arena, found through a {@code long[]} of packed offset and
+ * length. A million tasks thus take a handful of arrays rather than millions of small objects, which is
+ * why {@link BatchRunner} holds saved tasks in one while it changes them all.</p>
+ *
+ * <p>{@link Task} objects are only created when a task is read, by {@link #get(int)}. They are detached
+ * views: marking one does not change the store; use {@link #setStatus(int, boolean)} instead.</p>
+ */
+public class ColumnarTaskStore {
+    private static final byte TYPE_TODO = 0;
+    private static final byte TYPE_DEADLINE = 1;
+    private static final byte TYPE_EVENT = 2;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int INITIAL_ARENA_BYTES = 256;
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] firstDates = new long[INITIAL_CAPACITY];
+    private long[] secondDates = new long[INITIAL_CAPACITY];
+    private long[] descriptions = new long[INITIAL_CAPACITY];
+    private BitSet done = new BitSet();
+    private int size;
+
+    private byte[] arena = new byte[INITIAL_ARENA_BYTES];
+    private int arenaUsed;
+    private int arenaLive;
+
+    /**
+     * Creates an empty store.
+     */
+    public ColumnarTaskStore() {
+    }
+
+    /**
+     * Creates a store holding the given tasks, in order, with their IDs and completion status.
+     *
+     * @param tasks Tasks to store.
+     * @throws SuuException If a task type is not recognized.
+     */
+    public ColumnarTaskStore(List<Task> tasks) throws SuuException {
+        assert tasks != null : "Tasks must not be null";
+        ensureCapacity(tasks.size());
+        for (Task t : tasks) {
+            add(t);
+        }
+    }
+
+    /**
+     * Returns the number of stored tasks.
+     *
+     * @return Task count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends a task to the end of the store.
+     *
+     * @param t Task to store; only its fields are kept, not the object.
+     * @throws SuuException If the task type is not recognized.
+     */
+    public void add(Task t) throws SuuException {
+        add(size, t);
+    }
+
+    /**
+     * Inserts a task at the given index, shifting later tasks back.
+     *
+     * @param index 0-based index to insert at.
+     * @param t Task to store; only its fields are kept, not the object.
+     * @throws SuuException If the task type is not recognized.
+     */
+    public void add(int index, Task t) throws SuuException {
+        assert t != null : "Cannot add null task";
+        assert index >= 0 && index <= size : "Index out of bounds for add";
+        byte type;
+        long first = 0;
+        long second = 0;
+        if (t instanceof Todo) {
+            type = TYPE_TODO;
+        } else if (t instanceof Deadline) {
+            type = TYPE_DEADLINE;
+            first = ((Deadline) t).getBy().toEpochDay();
+        } else if (t instanceof Event) {
+            type = TYPE_EVENT;
+            first = DateTimeUtil.toEpochMinute(((Event) t).getFrom());
+            second = DateTimeUtil.toEpochMinute(((Event) t).getTo());
+        } else {
+            throw new SuuException("Unknown task type, cannot save.");
+        }
+
+        // stored before shifting, as storing may compact the arena, which walks the columns
+        long desc = store(t.getDescription());
+        ensureCapacity(size + 1);
+        int moved = size - index;
+        System.arraycopy(types, index, types, index + 1, moved);
+        System.arraycopy(ids, index, ids, index + 1, moved);
+        System.arraycopy(firstDates, index, firstDates, index + 1, moved);
+        System.arraycopy(secondDates, index, secondDates, index + 1, moved);
+        System.arraycopy(descriptions, index, descriptions, index + 1, moved);
+        shiftDone(index, 1);
+
+        types[index] = type;
+        ids[index] = t.getId();
+        firstDates[index] = first;
+        secondDates[index] = second;
+        descriptions[index] = desc;
+        done.set(index, t.isMarked());
+        size++;
+    }
+
+    /**
+     * Removes the task at the given index, shifting later tasks forward.
+     *
+     * @param index 0-based index of the task.
+     */
+    public void remove(int index) {
+        assert index >= 0 && index < size : "Index out of bounds for remove";
+        arenaLive -= length(descriptions[index]);
+        int moved = size - index - 1;
+        System.arraycopy(types, index + 1, types, index, moved);
+        System.arraycopy(ids, index + 1, ids, index, moved);
+        System.arraycopy(firstDates, index + 1, firstDates, index, moved);
+        System.arraycopy(secondDates, index + 1, secondDates, index, moved);
+        System.arraycopy(descriptions, index + 1, descriptions, index, moved);
+        done.clear(index);
+        shiftDone(index + 1, -1);
+        size--;
+    }
+
+    /**
+     * Returns a new {@link Task} holding the stored fields of the task at the given index.
+     *
+     * @param index 0-based index of the task.
+     * @return Detached task view.
+     */
+    public Task get(int index) {
+        assert index >= 0 && index < size : "Index out of bounds for get";
+        long desc = descriptions[index];
+        String description = new String(arena, offset(desc), length(desc), StandardCharsets.UTF_8);
+        Task t;
+        switch (types[index]) {
+        case TYPE_DEADLINE:
+            t = new Deadline(description, LocalDate.ofEpochDay(firstDates[index]));
+            break;
+        case TYPE_EVENT:
+            t = new Event(description, DateTimeUtil.ofEpochMinute(firstDates[index]),
+                    DateTimeUtil.ofEpochMinute(secondDates[index]));
+            break;
+        default:
+            t = new Todo(description);
+            break;
+        }
+        if (done.get(index)) {
+            t.setMarked();
+        }
+        t.id = ids[index];
+        return t;
+    }
+
+    /**
+     * Returns the ID of the task at the given index, without creating a view of it.
+     *
+     * @param index 0-based index of the task.
+     * @return Task ID, or {@code 0} if the task had none.
+     */
+    public long getId(int index) {
+        assert index >= 0 && index < size : "Index out of bounds for getId";
+        return ids[index];
+    }
+
+    /**
+     * Returns whether the task at the given index is done, without creating a view of it.
+     *
+     * @param index 0-based index of the task.
+     * @return {@code true} if the task is marked as done.
+     */
+    public boolean isMarked(int index) {
+        assert index >= 0 && index < size : "Index out of bounds for isMarked";
+        return done.get(index);
+    }
+
+    /**
+     * Marks or unmarks the task at the given index.
+     *
+     * @param index 0-based index of the task.
+     * @param isMarked New completion status.
+     */
+    public void setStatus(int index, boolean isMarked) {
+        assert index >= 0 && index < size : "Index out of bounds for setStatus";
+        done.set(index, isMarked);
+    }
+
+    /**
+     * Returns the number of tasks marked as done.
+     *
+     * @return Done count.
+     */
+    public int getDoneCount() {
+        return done.cardinality();
+    }
+
+    /**
+     * Returns a read-only list over this store that creates a task view for each element read,
+     * e.g. to hand the store to {@link Storage#save(List)}.
+     *
+     * @return Live, unmodifiable list view.
+     */
+    public List<Task> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return ColumnarTaskStore.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= types.length) {
+            return;
+        }
+        int capacity = Math.max(needed, types.length + (types.length >> 1));
+        types = Arrays.copyOf(types, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        firstDates = Arrays.copyOf(firstDates, capacity);
+        secondDates = Arrays.copyOf(secondDates, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+    }
+
+    /**
+     * Moves the done flags of tasks {@code [from, size)} by {@code distance} places.
+     */
+    private void shiftDone(int from, int distance) {
+        if (from >= size) {
+            return;
+        }
+        BitSet moved = done.get(from, size);
+        done.clear(from, size);
+        for (int i = moved.nextSetBit(0); i >= 0; i = moved.nextSetBit(i + 1)) {
+            done.set(from + distance + i);
+        }
+    }
+
+    /**
+     * Copies a description into the arena, compacting the arena first if most of it is garbage.
+     *
+     * @return Packed offset and length of the stored bytes.
+     */
+    private long store(String description) {
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        if (arenaUsed + bytes.length > arena.length) {
+            if (arenaLive < arenaUsed / 2) {
+                compactArena();
+            }
+            if (arenaUsed + bytes.length > arena.length) {
+                long grown = Math.max((long) arenaUsed + bytes.length, (long) arena.length * 2);
+                if (grown > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Task descriptions do not fit in one arena");
+                }
+                arena = Arrays.copyOf(arena, (int) grown);
+            }
+        }
+
+        int offset = arenaUsed;
+        System.arraycopy(bytes, 0, arena, offset, bytes.length);
+        arenaUsed += bytes.length;
+        arenaLive += bytes.length;
+        return ((long) offset << 32) | bytes.length;
+    }
+
+    /**
+     * Drops the bytes of removed descriptions by copying the live ones to the front of a new arena.
+     */
+    private void compactArena() {
+        byte[] compacted = new byte[Math.max(INITIAL_ARENA_BYTES, arena.length)];
+        int used = 0;
+        for (int i = 0; i < size; i++) {
+            long desc = descriptions[i];
+            int length = length(desc);
+            System.arraycopy(arena, offset(desc), compacted, used, length);
+            descriptions[i] = ((long) used << 32) | length;
+            used += length;
+        }
+        arena = compacted;
+        arenaUsed = used;
+    }
+
+    private static int offset(long desc) {
+        return (int) (desc >>> 32);
+    }
+
+    private static int length(long desc) {
+        return (int) desc;
+    }
+}
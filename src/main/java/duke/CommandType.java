@@ -1,5 +1,7 @@
 package duke;
 
+import java.util.Arrays;
+
 /**
  * Represents the supported command types of the chatbot.
  * Each command type is mapped to a command word (e.g. {@code "list"}, {@code "todo"}).
@@ -15,8 +17,20 @@ public enum CommandType {
     DELETE("delete"),
     FIND("find"),
     STATS("stats"),
+    DUE("due"),
+    BETWEEN("between"),
+    FREE("free"),
+    UNDO("undo"),
+    REDO("redo"),
+    METRICS("metrics"),
     UNKNOWN("");
 
+    /**
+     * Command types grouped by the length of their command word, so that a lookup only compares words
+     * of the right length.
+     */
+    private static final CommandType[][] BY_LENGTH = groupByLength();
+
     private final String word;
 
     /**
@@ -45,23 +59,53 @@ public enum CommandType {
      * @return Matching {@code CommandType}, or {@link #UNKNOWN} if no match is found.
      */
     public static CommandType from(String input) {
-        if (input == null) {
-            return UNKNOWN;
-        }
+        return ParsedCommand.of(input).getType();
+    }
 
-        String trimmed = input.trim();
-        if (trimmed.isEmpty()) {
+    /**
+     * Returns the command type whose word matches {@code s[from, to)}, ignoring case, without copying it.
+     *
+     * @param s Text holding the command word.
+     * @param from Index of the first character of the word.
+     * @param to Index one past the last character of the word.
+     * @return Matching {@code CommandType}, or {@link #UNKNOWN} if no match is found.
+     */
+    static CommandType lookup(CharSequence s, int from, int to) {
+        int length = to - from;
+        if (length == 0 || length >= BY_LENGTH.length) {
             return UNKNOWN;
         }
-
-        // first word determines command type
-        String firstWord = trimmed.split("\\s+", 2)[0].toLowerCase();
-
-        for (CommandType type : CommandType.values()) {
-            if (type.word.equals(firstWord)) {
+        for (CommandType type : BY_LENGTH[length]) {
+            if (matches(type.word, s, from)) {
                 return type;
             }
         }
         return UNKNOWN;
     }
+
+    private static boolean matches(String word, CharSequence s, int from) {
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toLowerCase(s.charAt(from + i)) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static CommandType[][] groupByLength() {
+        int maxLength = 0;
+        for (CommandType type : values()) {
+            maxLength = Math.max(maxLength, type.word.length());
+        }
+        CommandType[][] groups = new CommandType[maxLength + 1][0];
+        for (CommandType type : values()) {
+            if (type != UNKNOWN) {
+                CommandType[] group = groups[type.word.length()];
+                group = Arrays.copyOf(group, group.length + 1);
+                group[group.length - 1] = type;
+                groups[type.word.length()] = group;
+            }
+        }
+        return groups;
+    }
 }
@@ -0,0 +1,283 @@
+package duke;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Reads and writes the compressed snapshot format of the task list, meant for very large lists.
+ *
+ * <p>Layout (big-endian): a header of magic bytes {@code SUUZ}, a format version ({@code int}) and the
+ * snapshot generation ({@code long}, see {@link Storage}), followed by blocks that each hold whole lines
+ * of the {@link StorageFormat#TEXT} format in UTF-8, about {@link #BLOCK_BYTES} of them, compressed with
+ * {@link Deflater}. Each block starts with its uncompressed and compressed lengths ({@code int} each); a
+ * block with both lengths {@code 0} ends the snapshot, so a truncated file is detected rather than read
+ * as a shorter list.</p>
+ *
+ * <p>No block may be larger than {@link #MAX_BLOCK_BYTES} uncompressed, so that a damaged length cannot
+ * make the loader allocate more memory than a real block needs.</p>
+ *
+ * <p>The text format repeats a lot ({@code T | 0 | }, ISO dates, ascending IDs), so it compresses several
+ * times over. Blocks are independent of each other, so they are inflated and decoded in parallel when
+ * loading, like the chunks of a text file in {@link BulkLoader}.</p>
+ */
+public class CompressedSnapshot {
+    /**
+     * Uncompressed size after which a block is closed.
+     */
+    static final int BLOCK_BYTES = 1 << 18;
+
+    /**
+     * Largest uncompressed size of a block, which only a task with a huge description comes near.
+     */
+    static final int MAX_BLOCK_BYTES = 1 << 26;
+
+    private static final byte[] MAGIC = {'S', 'U', 'U', 'Z'};
+    private static final int VERSION = 1;
+    private static final int LEVEL = Deflater.BEST_SPEED;
+
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    /**
+     * Returns whether the given file starts with the compressed snapshot magic bytes.
+     *
+     * @param file File to check.
+     * @return {@code true} if the file is a compressed snapshot, {@code false} otherwise.
+     * @throws SuuException If the file cannot be read.
+     */
+    public static boolean isCompressed(File file) throws SuuException {
+        byte[] head = new byte[MAGIC.length];
+        try (InputStream in = new FileInputStream(file)) {
+            int read = in.readNBytes(head, 0, head.length);
+            return read == head.length && Arrays.equals(head, MAGIC);
+        } catch (IOException e) {
+            throw new SuuException("I had trouble reading the save file.");
+        }
+    }
+
+    /**
+     * Returns the generation a compressed snapshot file was saved as.
+     *
+     * @param file Compressed snapshot file.
+     * @return Snapshot generation.
+     * @throws SuuException If the file cannot be read, its header is cut short or its version is not
+     *     supported.
+     */
+    static long readGeneration(File file) throws SuuException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            // skip the magic bytes, which isCompressed has checked
+            in.readInt();
+            checkVersion(in.readInt());
+            return in.readLong();
+        } catch (EOFException e) {
+            throw new SuuException("Save file is corrupted: unexpected end of compressed snapshot.");
+        } catch (IOException e) {
+            throw new SuuException("I had trouble reading the save file.");
+        }
+    }
+
+    /**
+     * Reads all tasks from a compressed snapshot file.
+     *
+     * @param file Compressed snapshot file.
+     * @return Tasks stored in the snapshot, in order.
+     * @throws SuuException If the file cannot be read or is corrupted.
+     */
+    public static ArrayList<Task> read(File file) throws SuuException {
+        List<BlockDecoder> blocks = split(BulkLoader.readAll(file));
+        if (blocks.size() == 1) {
+            blocks.get(0).run();
+        } else if (!blocks.isEmpty()) {
+            List<ForkJoinTask<?>> decoders = new ArrayList<>(blocks.size());
+            for (BlockDecoder block : blocks) {
+                decoders.add(ForkJoinTask.adapt(block));
+            }
+            ForkJoinTask.invokeAll(decoders);
+        }
+
+        int total = 0;
+        for (BlockDecoder block : blocks) {
+            if (block.error != null) {
+                throw block.error;
+            }
+            total += block.tasks.size();
+        }
+
+        ArrayList<Task> loaded = new ArrayList<>(total);
+        for (BlockDecoder block : blocks) {
+            loaded.addAll(block.tasks);
+        }
+        return loaded;
+    }
+
+    /**
+     * Writes the given tasks to a compressed snapshot file, overwriting any existing content.
+     *
+     * @param tasks Tasks to write.
+     * @param generation Generation of the snapshot.
+     * @param file Destination file.
+     * @throws SuuException If the file cannot be written, a task type is not recognized or a task is longer
+     *     than {@link #MAX_BLOCK_BYTES}.
+     */
+    public static void write(List<Task> tasks, long generation, File file) throws SuuException {
+        assert tasks != null : "Tasks to save must not be null";
+        Deflater deflater = new Deflater(LEVEL);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file, false)))) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+
+            ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_BYTES + 1024);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(BLOCK_BYTES / 4);
+            byte[] chunk = new byte[8192];
+            for (Task t : tasks) {
+                block.write(Storage.encodeTask(t).getBytes(CHARSET));
+                block.write('\n');
+                if (block.size() > MAX_BLOCK_BYTES) {
+                    throw new SuuException("A task is too long to save in the compressed format.");
+                }
+                if (block.size() >= BLOCK_BYTES) {
+                    writeBlock(out, deflater, block, compressed, chunk);
+                }
+            }
+            if (block.size() > 0) {
+                writeBlock(out, deflater, block, compressed, chunk);
+            }
+            out.writeInt(0);
+            out.writeInt(0);
+        } catch (IOException e) {
+            throw new SuuException("I had trouble saving your tasks.");
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Compresses the pending lines as one block, writes it out and empties the buffers for the next block.
+     */
+    private static void writeBlock(DataOutputStream out, Deflater deflater, ByteArrayOutputStream block,
+            ByteArrayOutputStream compressed, byte[] chunk) throws IOException {
+        deflater.reset();
+        deflater.setInput(block.toByteArray());
+        deflater.finish();
+        while (!deflater.finished()) {
+            int n = deflater.deflate(chunk);
+            compressed.write(chunk, 0, n);
+        }
+        out.writeInt(block.size());
+        out.writeInt(compressed.size());
+        compressed.writeTo(out);
+        block.reset();
+        compressed.reset();
+    }
+
+    /**
+     * Checks the header and finds the bounds of every block, without inflating any of them.
+     */
+    private static List<BlockDecoder> split(byte[] data) throws SuuException {
+        List<BlockDecoder> blocks = new ArrayList<>();
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            buf.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new SuuException("Save file is not a compressed snapshot.");
+            }
+            checkVersion(buf.getInt());
+            // the generation, which Storage reads with readGeneration
+            buf.getLong();
+
+            while (true) {
+                int rawLength = buf.getInt();
+                int length = buf.getInt();
+                if (rawLength == 0 && length == 0) {
+                    return blocks;
+                }
+                if (rawLength <= 0 || rawLength > MAX_BLOCK_BYTES || length <= 0 || length > buf.remaining()) {
+                    throw corrupted();
+                }
+                blocks.add(new BlockDecoder(data, buf.position(), length, rawLength));
+                buf.position(buf.position() + length);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new SuuException("Save file is corrupted: unexpected end of compressed snapshot.");
+        }
+    }
+
+    private static void checkVersion(int version) throws SuuException {
+        if (version != VERSION) {
+            throw new SuuException("Save file has unsupported snapshot version: " + version);
+        }
+    }
+
+    private static SuuException corrupted() {
+        return new SuuException("Save file is corrupted: bad block in compressed snapshot.");
+    }
+
+    /**
+     * Inflates one block and decodes its lines, stopping at the first error.
+     */
+    private static class BlockDecoder implements Runnable {
+        private final byte[] data;
+        private final int offset;
+        private final int length;
+        private final int rawLength;
+        private ArrayList<Task> tasks = new ArrayList<>();
+        private SuuException error;
+
+        BlockDecoder(byte[] data, int offset, int length, int rawLength) {
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+            this.rawLength = rawLength;
+        }
+
+        @Override
+        public void run() {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data, offset, length);
+                // one spare byte, so that a block longer than its header says is caught
+                byte[] raw = new byte[rawLength + 1];
+                int filled = 0;
+                while (!inflater.finished()) {
+                    int n = inflater.inflate(raw, filled, raw.length - filled);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary() || filled == raw.length)) {
+                        break;
+                    }
+                    filled += n;
+                }
+                if (filled != rawLength || !inflater.finished()) {
+                    error = corrupted();
+                    return;
+                }
+                tasks = BulkLoader.decode(raw, 0, rawLength, CHARSET);
+            } catch (DataFormatException e) {
+                error = corrupted();
+            } catch (SuuException e) {
+                error = e;
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+}
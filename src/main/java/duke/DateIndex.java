@@ -0,0 +1,119 @@
+package duke;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Sorted secondary index over the dates of {@link Deadline} and {@link Event} tasks.
+ *
+ * <p>Deadlines are keyed by the epoch day of their due date and events by the epoch minute (UTC) of
+ * their start, so date range queries take {@code O(log n + k)} for {@code k} results.
+ * {@link Todo} tasks are ignored.</p>
+ */
+public class DateIndex {
+    private static final Comparator<Task> LIST_ORDER = Comparator.comparingLong(t -> t.orderKey);
+
+    private final TreeMap<Long, Set<Task>> deadlinesByDay = new TreeMap<>();
+    private final TreeMap<Long, Set<Task>> eventsByStart = new TreeMap<>();
+
+    /**
+     * Adds a task to the index if it has a date.
+     *
+     * @param t Task to index.
+     */
+    public void add(Task t) {
+        if (t instanceof Deadline) {
+            deadlinesByDay.computeIfAbsent(dayKey((Deadline) t), k -> new HashSet<>()).add(t);
+        } else if (t instanceof Event) {
+            eventsByStart.computeIfAbsent(startKey((Event) t), k -> new HashSet<>()).add(t);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param t Task to remove.
+     */
+    public void remove(Task t) {
+        if (t instanceof Deadline) {
+            removeFrom(deadlinesByDay, dayKey((Deadline) t), t);
+        } else if (t instanceof Event) {
+            removeFrom(eventsByStart, startKey((Event) t), t);
+        }
+    }
+
+    /**
+     * Returns deadlines due on or before the given date, earliest first.
+     *
+     * @param date Last due date to include.
+     * @return Matching deadlines, ordered by due date, then by list position.
+     */
+    public ArrayList<Task> dueBy(LocalDate date) {
+        return collect(deadlinesByDay.headMap(date.toEpochDay(), true));
+    }
+
+    /**
+     * Returns deadlines due and events starting within the given dates (inclusive), earliest first.
+     *
+     * @param from First date to include.
+     * @param to Last date to include.
+     * @return Matching tasks, ordered by date, then by list position.
+     */
+    public ArrayList<Task> between(LocalDate from, LocalDate to) {
+        assert !from.isAfter(to) : "Range start must not be after its end";
+        ArrayList<Task> deadlines = collect(deadlinesByDay.subMap(from.toEpochDay(), true, to.toEpochDay(), true));
+        long firstMinute = DateTimeUtil.toEpochMinute(from.atStartOfDay());
+        long endMinute = DateTimeUtil.toEpochMinute(to.plusDays(1).atStartOfDay());
+        ArrayList<Task> events = collect(eventsByStart.subMap(firstMinute, true, endMinute, false));
+
+        // merge the two date-sorted lists; a deadline counts as the start of its day
+        ArrayList<Task> merged = new ArrayList<>(deadlines.size() + events.size());
+        int d = 0;
+        int e = 0;
+        while (d < deadlines.size() || e < events.size()) {
+            boolean isDeadlineNext = e == events.size() || (d < deadlines.size()
+                    && DateTimeUtil.toEpochMinute(((Deadline) deadlines.get(d)).getBy().atStartOfDay())
+                    <= startKey((Event) events.get(e)));
+            merged.add(isDeadlineNext ? deadlines.get(d++) : events.get(e++));
+        }
+        return merged;
+    }
+
+    private static ArrayList<Task> collect(NavigableMap<Long, Set<Task>> range) {
+        ArrayList<Task> result = new ArrayList<>();
+        for (Map.Entry<Long, Set<Task>> entry : range.entrySet()) {
+            Collection<Task> sameDate = entry.getValue();
+            int start = result.size();
+            result.addAll(sameDate);
+            if (sameDate.size() > 1) {
+                result.subList(start, result.size()).sort(LIST_ORDER);
+            }
+        }
+        return result;
+    }
+
+    private static void removeFrom(TreeMap<Long, Set<Task>> map, long key, Task t) {
+        Set<Task> bucket = map.get(key);
+        if (bucket != null) {
+            bucket.remove(t);
+            if (bucket.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+
+    private static long dayKey(Deadline d) {
+        return d.getBy().toEpochDay();
+    }
+
+    private static long startKey(Event e) {
+        return DateTimeUtil.toEpochMinute(e.getFrom());
+    }
+}
@@ -2,6 +2,8 @@ package duke;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
 
@@ -30,6 +32,52 @@ public class DateTimeUtil {
      */
     public static final DateTimeFormatter OUTPUT_DATE_TIME = DateTimeFormatter.ofPattern("MMM d yyyy, h:mma");
 
+    /**
+     * Output time format used for displaying times of day (e.g. {@code 6:00pm}).
+     */
+    public static final DateTimeFormatter OUTPUT_TIME = DateTimeFormatter.ofPattern("h:mma");
+
+    /**
+     * Output month format used for displaying months (e.g. {@code Oct 2019}).
+     */
+    public static final DateTimeFormatter OUTPUT_MONTH = DateTimeFormatter.ofPattern("MMM yyyy");
+
+    /**
+     * Number of bits in a slot number of the formatted-date cache (4096 slots, about 11 years of days).
+     */
+    private static final int DATE_CACHE_BITS = 12;
+
+    /**
+     * Number of bits in a slot number of the formatted date-time cache (16384 slots).
+     */
+    private static final int DATE_TIME_CACHE_BITS = 14;
+
+    /**
+     * Formatted dates, each stored in the slot picked by hashing its epoch day. A newer date that hashes to the
+     * same slot replaces the older one. Entries are immutable, so the cache can be shared between threads
+     * without locking; a lost update only means a date is formatted again.
+     */
+    private static final Formatted[] dateCache = new Formatted[1 << DATE_CACHE_BITS];
+
+    /**
+     * Formatted date-times keyed by epoch minute, organised like {@link #dateCache}.
+     * {@link #OUTPUT_DATE_TIME} has no seconds, so every date-time in the same minute formats the same way.
+     */
+    private static final Formatted[] dateTimeCache = new Formatted[1 << DATE_TIME_CACHE_BITS];
+
+    /**
+     * A formatted string and the epoch day or minute it was formatted from.
+     */
+    private static final class Formatted {
+        private final long key;
+        private final String text;
+
+        private Formatted(long key, String text) {
+            this.key = key;
+            this.text = text;
+        }
+    }
+
     /**
      * Parses a date string using {@link #INPUT_DATE}.
      *
@@ -60,7 +108,26 @@ public class DateTimeUtil {
      */
     public static String formatDate(LocalDate d) {
         assert d != null : "Date must not be null";
-        return d.format(OUTPUT_DATE);
+        long day = d.toEpochDay();
+        int slot = slot(day, DATE_CACHE_BITS);
+        Formatted cached = dateCache[slot];
+        if (cached != null && cached.key == day) {
+            return cached.text;
+        }
+        String text = d.format(OUTPUT_DATE);
+        dateCache[slot] = new Formatted(day, text);
+        return text;
+    }
+
+    /**
+     * Formats a {@link YearMonth} for display using {@link #OUTPUT_MONTH}.
+     *
+     * @param m Month to format.
+     * @return Formatted month string.
+     */
+    public static String formatMonth(YearMonth m) {
+        assert m != null : "Month must not be null";
+        return m.format(OUTPUT_MONTH);
     }
 
     /**
@@ -71,10 +138,59 @@ public class DateTimeUtil {
      */
     public static String formatDateTime(LocalDateTime dt) {
         assert dt != null : "Date-time must not be null";
+        long minute = toEpochMinute(dt);
+        int slot = slot(minute, DATE_TIME_CACHE_BITS);
+        Formatted cached = dateTimeCache[slot];
+        if (cached != null && cached.key == minute) {
+            return cached.text;
+        }
         String s = dt.format(OUTPUT_DATE_TIME);
         assert s.length() >= 2 : "Formatted date-time string unexpectedly short";
+        String text = s.substring(0, s.length() - 2)
+                + s.substring(s.length() - 2).toLowerCase(Locale.ENGLISH);
+        dateTimeCache[slot] = new Formatted(minute, text);
+        return text;
+    }
+
+    /**
+     * Converts a {@link LocalDateTime} to minutes since the epoch, treating it as UTC.
+     * Seconds are dropped.
+     *
+     * @param dt Date-time to convert.
+     * @return Epoch minute.
+     */
+    public static long toEpochMinute(LocalDateTime dt) {
+        assert dt != null : "Date-time must not be null";
+        return Math.floorDiv(dt.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Converts minutes since the epoch (UTC) back to a {@link LocalDateTime}.
+     *
+     * @param minutes Epoch minute.
+     * @return Corresponding date-time.
+     */
+    public static LocalDateTime ofEpochMinute(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Formats the time of day of a {@link LocalDateTime} for display using {@link #OUTPUT_TIME}.
+     *
+     * @param dt Date-time whose time of day to format.
+     * @return Formatted time string (e.g. {@code 6:00pm}).
+     */
+    public static String formatTime(LocalDateTime dt) {
+        assert dt != null : "Date-time must not be null";
+        String s = dt.format(OUTPUT_TIME);
         return s.substring(0, s.length() - 2)
                 + s.substring(s.length() - 2).toLowerCase(Locale.ENGLISH);
     }
 
+    /**
+     * Picks a cache slot for the key, mixing it so that evenly spaced keys (e.g. whole hours) do not collide.
+     */
+    private static int slot(long key, int bits) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - bits));
+    }
 }
@@ -30,13 +30,18 @@ public class Deadline extends Task {
         return by;
     }
 
+    @Override
+    public Task copy() {
+        return copyStatusTo(new Deadline(getDescription(), by));
+    }
+
     /**
      * Returns the string representation of this deadline task for display to the user.
      *
      * @return Formatted deadline string.
      */
     @Override
-    public String toString() {
-        return "[D]" + super.toString() + " (by: " + DateTimeUtil.formatDate(by) + ")";
+    protected String render() {
+        return "[D]" + super.render() + " (by: " + DateTimeUtil.formatDate(by) + ")";
     }
 }
@@ -0,0 +1,143 @@
+package duke;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Canonicalizing pool of task descriptions, so that tasks with the same description share one
+ * {@code String} instead of each holding a copy.
+ *
+ * <p>Every {@link Task} passes its description through {@link #shared()}, which covers all load paths
+ * (text, binary and journal) as well as new tasks. The pool is safe to use from the parallel
+ * {@link BulkLoader} workers. It is bounded: once it holds {@link #MAX_ENTRIES} descriptions, each new
+ * one evicts a description picked at random, so it follows the lists currently in use instead of growing
+ * forever, and descriptions repeated often enough stay pooled. Every description has a slot in an array,
+ * so a victim is found in constant time without scanning the map; racing inserts may briefly leave the
+ * pool a few entries over its bound.</p>
+ *
+ * <p>The shared pool serves every task in the process, so its hit and byte counters are process-wide: in
+ * server mode they cover all users' lists, not one of them.</p>
+ */
+public class DescriptionPool {
+    /**
+     * Number of distinct descriptions kept before new ones start evicting old ones.
+     */
+    public static final int MAX_ENTRIES = 1 << 16;
+
+    /**
+     * Approximate size of a {@code String} object and the header of its {@code byte[]}, with compressed oops.
+     */
+    private static final int STRING_OVERHEAD_BYTES = 24 + 16;
+
+    private static final DescriptionPool SHARED = new DescriptionPool(MAX_ENTRIES);
+
+    private final ConcurrentHashMap<String, String> pool = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> slots;
+    private final AtomicLong insertions = new AtomicLong();
+    private final int maxEntries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param maxEntries Number of distinct descriptions kept before new ones start evicting old ones.
+     */
+    public DescriptionPool(int maxEntries) {
+        assert maxEntries > 0 : "Pool must hold at least one description";
+        this.maxEntries = maxEntries;
+        this.slots = new AtomicReferenceArray<>(maxEntries);
+    }
+
+    /**
+     * Returns the pool used by {@link Task}, shared by every task list in the process.
+     *
+     * @return Shared pool.
+     */
+    public static DescriptionPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the pooled string equal to the given one, adding it to the pool if there is none.
+     *
+     * @param s Description to canonicalize.
+     * @return A string equal to {@code s}, shared with every other task that has the same description.
+     */
+    public String intern(String s) {
+        assert s != null : "Description must not be null";
+        String pooled = pool.get(s);
+        if (pooled == null) {
+            pooled = pool.putIfAbsent(s, s);
+            if (pooled == null) {
+                claimSlot(s);
+                return s;
+            }
+        }
+        if (pooled != s) {
+            hits.increment();
+            bytesSaved.add(sizeOf(s));
+        }
+        return pooled;
+    }
+
+    /**
+     * Gives a newly pooled description a slot: a free one until the pool is full, then the slot of a
+     * description picked at random, which is evicted.
+     */
+    private void claimSlot(String s) {
+        long n = insertions.getAndIncrement();
+        int slot = n < maxEntries ? (int) n : ThreadLocalRandom.current().nextInt(maxEntries);
+        String evicted = slots.getAndSet(slot, s);
+        if (evicted != null) {
+            pool.remove(evicted, evicted);
+        }
+    }
+
+    /**
+     * Returns the number of distinct descriptions currently in the pool.
+     *
+     * @return Entry count.
+     */
+    public int size() {
+        return pool.size();
+    }
+
+    /**
+     * Returns how many descriptions were replaced by a pooled copy. For the {@linkplain #shared() shared}
+     * pool, this counts the tasks of every list in the process.
+     *
+     * @return Hit count since the pool was created.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the approximate heap space saved by replacing descriptions with pooled copies, counting the
+     * {@code String} and its byte array for every hit. Process-wide for the {@linkplain #shared() shared} pool.
+     *
+     * @return Bytes saved since the pool was created.
+     */
+    public long getBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    /**
+     * Estimates the heap size of a string, which stores one byte per character if all characters are
+     * Latin-1 and two otherwise, padded to 8 bytes.
+     */
+    private static long sizeOf(String s) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return STRING_OVERHEAD_BYTES + ((s.length() * bytesPerChar + 7L) & ~7L);
+    }
+}
@@ -0,0 +1,62 @@
+package duke;
+
+import java.util.Locale;
+
+/**
+ * Represents how hard {@link Storage} works to get writes onto the disk before reporting them as saved.
+ *
+ * <p>Whatever the level, a snapshot is written to a temporary file and moved over the data file in one
+ * atomic step, so a crash leaves either the old or the new snapshot, never a torn one. The levels only
+ * decide when writes are forced to the device with {@code fsync}, which protects them against a power
+ * failure or an operating system crash rather than a crash of Suu itself.</p>
+ */
+public enum Durability {
+    /**
+     * Never forces writes; the operating system writes them back when it sees fit. Fastest.
+     */
+    NONE("none"),
+
+    /**
+     * Forces a write if the last force was at least {@link Storage#SYNC_INTERVAL_MILLIS} ago, otherwise forces
+     * it in the background once that interval has passed, and once more when the storage is synced on exit,
+     * bounding how much recent work a power failure can lose.
+     */
+    INTERVAL("interval"),
+
+    /**
+     * Forces every snapshot and journal write, and the folder entry of each new snapshot, before the write
+     * returns. Slowest, but a change reported as saved survives a power failure.
+     */
+    EVERY_COMMIT("every-commit");
+
+    private final String word;
+
+    Durability(String word) {
+        this.word = word;
+    }
+
+    /**
+     * Returns the name of this level as used on the command line.
+     *
+     * @return Level name (e.g. {@code "every-commit"}).
+     */
+    public String getWord() {
+        return word;
+    }
+
+    /**
+     * Returns the level with the given name, ignoring case.
+     *
+     * @param word Level name: {@code none}, {@code interval} or {@code every-commit}.
+     * @return Matching level.
+     * @throws SuuException If no level has that name.
+     */
+    public static Durability fromWord(String word) throws SuuException {
+        for (Durability d : values()) {
+            if (d.word.equals(word.trim().toLowerCase(Locale.ROOT))) {
+                return d;
+            }
+        }
+        throw new SuuException("Durability must be one of: none, interval, every-commit");
+    }
+}
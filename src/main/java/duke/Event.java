@@ -44,14 +44,19 @@ public class Event extends Task {
         return to;
     }
 
+    @Override
+    public Task copy() {
+        return copyStatusTo(new Event(getDescription(), from, to));
+    }
+
     /**
      * Returns the string representation of this event for display to the user.
      *
      * @return Formatted event string.
      */
     @Override
-    public String toString() {
-        return "[E]" + super.toString()
+    protected String render() {
+        return "[E]" + super.render()
                 + " (from: " + DateTimeUtil.formatDateTime(from)
                 + " to: " + DateTimeUtil.formatDateTime(to) + ")";
     }
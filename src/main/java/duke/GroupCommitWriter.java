@@ -0,0 +1,231 @@
+package duke;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists journal records on a dedicated writer thread, coalescing bursts of changes into one write
+ * (group commit).
+ *
+ * <p>Callers submit a record right after changing the task list and get a future that completes once
+ * the record is on disk. The writer waits up to the flush latency for more records after the first one
+ * of a batch, and writes at most the configured batch size at once.</p>
+ *
+ * <p>Once a write fails, every later record fails too (without touching the disk) until {@link #reset()}
+ * is called. This lets the owner roll back the failed changes newest-first and continue from the last
+ * durable state.</p>
+ */
+public class GroupCommitWriter implements AutoCloseable {
+    /**
+     * Default time to wait for more records before writing a batch.
+     */
+    public static final long DEFAULT_FLUSH_LATENCY_MILLIS = 20;
+
+    /**
+     * Default maximum number of records written at once.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    private final Storage storage;
+    private final long flushLatencyMillis;
+    private final int maxBatchSize;
+    private final BlockingQueue<Job> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+
+    private volatile SuuException failure;
+    private int recordsSinceCompaction;
+
+    /**
+     * Creates a writer for the given journaled storage and starts its writer thread.
+     *
+     * @param storage Journaled storage to write to. Only the writer thread uses it from now on.
+     * @param flushLatencyMillis How long to wait for more records before writing a batch.
+     * @param maxBatchSize Maximum number of changes written at once.
+     */
+    public GroupCommitWriter(Storage storage, long flushLatencyMillis, int maxBatchSize) {
+        assert storage != null && storage.isJournaled() : "Group commit requires a journaled storage";
+        assert flushLatencyMillis >= 0 : "Flush latency must not be negative";
+        assert maxBatchSize > 0 : "Batch size must be positive";
+        this.storage = storage;
+        this.flushLatencyMillis = flushLatencyMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.recordsSinceCompaction = storage.getJournalSize();
+
+        this.thread = new Thread(this::run, "suu-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a journal record for writing.
+     *
+     * <p>Once enough records have been submitted, a {@link TaskList#snapshot()} of {@code tasks} is also
+     * queued so the writer can compact the journal into a fresh snapshot. It holds copies of the tasks, so
+     * that later changes (which may still fail and be rolled back) cannot leak into the snapshot.</p>
+     *
+     * @param record Journal record describing the change.
+     * @param tasks Current list of tasks (already including the change).
+     * @return Future that completes when the record is durable, or completes exceptionally with a
+     *     {@link SuuException} if it could not be written.
+     */
+    public CompletableFuture<Void> submit(String record, TaskList tasks) {
+        assert record != null : "Journal record must not be null";
+        return submit(List.of(record), tasks);
+    }
+
+    /**
+     * Queues the journal records of a single change for writing. They are always written with the
+     * same append, so either all of them become durable or none do.
+     *
+     * @param records Journal records describing the change, in order.
+     * @param tasks Current list of tasks (already including the change).
+     * @return Future that completes when the records are durable, or completes exceptionally with a
+     *     {@link SuuException} if they could not be written.
+     */
+    public CompletableFuture<Void> submit(List<String> records, TaskList tasks) {
+        assert !records.isEmpty() : "A change needs at least one journal record";
+        Job job = new Job(records, null);
+        queue.add(job);
+
+        recordsSinceCompaction += records.size();
+        if (recordsSinceCompaction >= storage.getCompactThreshold()) {
+            recordsSinceCompaction = 0;
+            queue.add(new Job(null, tasks.snapshot().getTasks()));
+        }
+        return job.future;
+    }
+
+    /**
+     * Returns a future that completes once every record submitted so far has been written.
+     *
+     * @return Future that completes exceptionally if the writer is in the failed state.
+     */
+    public CompletableFuture<Void> flush() {
+        Job marker = new Job(null, null);
+        queue.add(marker);
+        return marker.future;
+    }
+
+    /**
+     * Clears the failed state so that later records are written again.
+     *
+     * <p>The owner should only call this once every future of a failed record has completed.</p>
+     */
+    public void reset() {
+        failure = null;
+    }
+
+    /**
+     * Writes all pending records and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        flush().exceptionally(e -> null).join();
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        Job carry = null;
+        try {
+            while (true) {
+                Job first = carry != null ? carry : queue.take();
+                carry = null;
+                if (!first.isRecord()) {
+                    process(first);
+                    continue;
+                }
+
+                List<Job> batch = new ArrayList<>();
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushLatencyMillis);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Job next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (!next.isRecord()) {
+                        carry = next;
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            }
+        } catch (InterruptedException e) {
+            // close() was called after the queue was flushed
+        }
+    }
+
+    /**
+     * Writes a batch of record jobs with a single append, completing their futures.
+     */
+    private void write(List<Job> batch) {
+        if (failure == null) {
+            List<String> records = new ArrayList<>(batch.size());
+            for (Job job : batch) {
+                records.addAll(job.records);
+            }
+            try {
+                storage.commitAll(records);
+            } catch (SuuException e) {
+                failure = e;
+            }
+        }
+
+        for (Job job : batch) {
+            complete(job);
+        }
+    }
+
+    /**
+     * Handles a compaction or flush job.
+     */
+    private void process(Job job) {
+        if (job.snapshot != null && failure == null) {
+            try {
+                storage.save(job.snapshot);
+            } catch (SuuException e) {
+                // the records are already durable in the journal; the next compaction will retry
+            }
+        }
+        complete(job);
+    }
+
+    private void complete(Job job) {
+        SuuException e = failure;
+        if (e == null) {
+            job.future.complete(null);
+        } else {
+            job.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * A unit of work for the writer thread: the journal records of one change, a snapshot to compact into,
+     * or a flush marker.
+     */
+    private static class Job {
+        private final List<String> records;
+        private final List<Task> snapshot;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Job(List<String> records, List<Task> snapshot) {
+            this.records = records;
+            this.snapshot = snapshot;
+        }
+
+        boolean isRecord() {
+            return records != null;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package duke;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.SplittableRandom;
+
+/**
+ * Augmented interval tree over the time ranges of {@link Event} tasks.
+ *
+ * <p>Events are kept in a treap (a randomly balanced binary search tree) ordered by start time, where
+ * every node also stores the latest end time in its subtree. This lets an overlap query skip every
+ * subtree that ends before the query starts, so inserts and deletes take {@code O(log n)} and overlap
+ * queries {@code O(log n + k)} expected time for {@code k} results.</p>
+ *
+ * <p>Ranges are half-open: an event from 10:00 to 12:00 does not overlap one from 12:00 to 14:00.</p>
+ */
+public class IntervalTree {
+    private final IdentityHashMap<Event, Long> sequenceNumbers = new IdentityHashMap<>();
+    private final SplittableRandom random = new SplittableRandom(0);
+    private Node root;
+    private long nextSequence;
+
+    /**
+     * Adds an event to the tree.
+     *
+     * @param e Event to add.
+     */
+    public void add(Event e) {
+        assert !sequenceNumbers.containsKey(e) : "Event is already in the interval tree";
+        long seq = nextSequence++;
+        sequenceNumbers.put(e, seq);
+        root = insert(root, new Node(e, seq, random.nextInt()));
+    }
+
+    /**
+     * Removes an event from the tree, if present.
+     *
+     * @param e Event to remove.
+     */
+    public void remove(Event e) {
+        Long seq = sequenceNumbers.remove(e);
+        if (seq != null) {
+            root = delete(root, DateTimeUtil.toEpochMinute(e.getFrom()), seq);
+        }
+    }
+
+    /**
+     * Returns the events that overlap the given time range, ordered by start time.
+     *
+     * @param from Start of the range (inclusive).
+     * @param to End of the range (exclusive).
+     * @return Overlapping events.
+     */
+    public ArrayList<Event> overlapping(LocalDateTime from, LocalDateTime to) {
+        ArrayList<Event> result = new ArrayList<>();
+        collect(root, DateTimeUtil.toEpochMinute(from), DateTimeUtil.toEpochMinute(to), result);
+        return result;
+    }
+
+    /**
+     * Returns the number of events in the tree.
+     *
+     * @return Event count.
+     */
+    public int size() {
+        return sequenceNumbers.size();
+    }
+
+    /**
+     * Appends the events in the subtree that overlap {@code [from, to)} to {@code result}, in start order.
+     */
+    private static void collect(Node node, long from, long to, ArrayList<Event> result) {
+        if (node == null || node.maxEnd <= from) {
+            return;
+        }
+        collect(node.left, from, to, result);
+        if (node.start < to) {
+            if (node.end > from) {
+                result.add(node.event);
+            }
+            collect(node.right, from, to, result);
+        }
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.compareTo(node.start, node.seq) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node delete(Node node, long start, long seq) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = -node.compareTo(start, seq);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, seq);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, seq);
+        } else if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        } else if (node.left.priority > node.right.priority) {
+            node = rotateRight(node);
+            node.right = delete(node.right, start, seq);
+        } else {
+            node = rotateLeft(node);
+            node.left = delete(node.left, start, seq);
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    /**
+     * A tree node holding one event, ordered by start time and then by insertion sequence.
+     */
+    private static class Node {
+        private final Event event;
+        private final long start;
+        private final long end;
+        private final long seq;
+        private final int priority;
+        private long maxEnd;
+        private Node left;
+        private Node right;
+
+        Node(Event event, long seq, int priority) {
+            this.event = event;
+            this.start = DateTimeUtil.toEpochMinute(event.getFrom());
+            this.end = Math.max(start, DateTimeUtil.toEpochMinute(event.getTo()));
+            this.seq = seq;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        int compareTo(long otherStart, long otherSeq) {
+            int cmp = Long.compare(start, otherStart);
+            return cmp != 0 ? cmp : Long.compare(seq, otherSeq);
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null && left.maxEnd > maxEnd) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd > maxEnd) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package duke;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Handles the append-only journal that sits next to the snapshot file.
+ *
+ * <p>Each mutation of the task list is appended as a single line (record). On startup the
+ * records are replayed on top of the snapshot loaded by {@link Storage}. Record formats:</p>
+ * <ul>
+ *   <li>{@code A | T | 0 | read book | #7} (task with ID 7 added at the end)</li>
+ *   <li>{@code I | 2 | T | 0 | read book | #3} (task with ID 3 inserted at 0-based index 2)</li>
+ *   <li>{@code R | 2} (task at index 2 removed)</li>
+ *   <li>{@code M | 2} / {@code U | 2} (task at index 2 marked / unmarked)</li>
+ * </ul>
+ *
+ * <p>{@code R}, {@code M} and {@code U} records can also name several ascending indices and ranges, e.g.
+ * {@code R | 2,5,9-12}, so that a bulk change is a single record and is replayed in one pass.</p>
+ *
+ * <p>The first line, e.g. {@code G | 12}, holds the generation of the snapshot that the records apply to
+ * (see {@link Storage}). A journal of an older generation is already part of the snapshot; it is skipped
+ * when replaying and replaced by the next append. Journals written before generations were kept have no
+ * such line and always apply.</p>
+ */
+public class Journal {
+    private static final long UNKNOWN_GENERATION = -1;
+
+    private final File journalFile;
+    private int recordCount;
+    private long generation;
+    private long fileGeneration = UNKNOWN_GENERATION;
+
+    /**
+     * Creates a {@code Journal} backed by the given file.
+     *
+     * @param journalFile File that holds the journal records.
+     */
+    public Journal(File journalFile) {
+        this.journalFile = journalFile;
+        this.recordCount = 0;
+    }
+
+    /**
+     * Returns the record for a task added to the end of the list.
+     *
+     * @param task Task that was added.
+     * @return Journal record.
+     * @throws SuuException If the task type is not recognized.
+     */
+    public static String add(Task task) throws SuuException {
+        return "A | " + Storage.encodeTask(task);
+    }
+
+    /**
+     * Returns the record for a task inserted at the given index.
+     *
+     * @param index 0-based index the task was inserted at.
+     * @param task Task that was inserted.
+     * @return Journal record.
+     * @throws SuuException If the task type is not recognized.
+     */
+    public static String insert(int index, Task task) throws SuuException {
+        return "I | " + index + " | " + Storage.encodeTask(task);
+    }
+
+    /**
+     * Returns the record for a task removed from the given index.
+     *
+     * @param index 0-based index of the removed task.
+     * @return Journal record.
+     */
+    public static String remove(int index) {
+        return "R | " + index;
+    }
+
+    /**
+     * Returns the record for tasks removed in one go from the given indices.
+     *
+     * @param indices Ascending 0-based indices of the removed tasks, as they were before the removal.
+     * @return Journal record.
+     */
+    public static String remove(int[] indices) {
+        return "R | " + formatIndices(indices);
+    }
+
+    /**
+     * Returns the record for a task marked as done.
+     *
+     * @param index 0-based index of the marked task.
+     * @return Journal record.
+     */
+    public static String mark(int index) {
+        return "M | " + index;
+    }
+
+    /**
+     * Returns the record for tasks marked as done in one go.
+     *
+     * @param indices Ascending 0-based indices of the marked tasks.
+     * @return Journal record.
+     */
+    public static String mark(int[] indices) {
+        return "M | " + formatIndices(indices);
+    }
+
+    /**
+     * Returns the record for a task marked as not done.
+     *
+     * @param index 0-based index of the unmarked task.
+     * @return Journal record.
+     */
+    public static String unmark(int index) {
+        return "U | " + index;
+    }
+
+    /**
+     * Returns the record for tasks marked as not done in one go.
+     *
+     * @param indices Ascending 0-based indices of the unmarked tasks.
+     * @return Journal record.
+     */
+    public static String unmark(int[] indices) {
+        return "U | " + formatIndices(indices);
+    }
+
+    /**
+     * Returns the number of records currently in the journal.
+     *
+     * @return Record count.
+     */
+    public int size() {
+        return recordCount;
+    }
+
+    /**
+     * Appends a record to the journal.
+     *
+     * <p>If the write fails, the journal is truncated back to its previous length so that a
+     * half-written record is never replayed. Callers can then safely roll back their in-memory change.</p>
+     *
+     * @param record Record to append.
+     * @throws SuuException If the record could not be written.
+     */
+    public void append(String record) throws SuuException {
+        appendAll(List.of(record), false);
+    }
+
+    /**
+     * Appends several records to the journal with a single write.
+     *
+     * <p>Either all records are appended or, if the write fails, none of them are.</p>
+     *
+     * <p>If the journal is empty, or belongs to an older snapshot than the current one, it is started
+     * afresh with the current generation.</p>
+     *
+     * @param records Records to append, in order.
+     * @param isForced Whether to force the records to the device before returning.
+     * @return Number of bytes appended.
+     * @throws SuuException If the records could not be written.
+     */
+    public int appendAll(List<String> records, boolean isForced) throws SuuException {
+        assert records != null : "Journal records must not be null";
+
+        File parent = journalFile.getParentFile();
+        if (parent != null && !parent.exists()) {
+            if (!parent.mkdirs()) {
+                throw new SuuException("I couldn't create the data folder to save tasks.");
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (String record : records) {
+            assert record.indexOf('\n') < 0 : "Journal record must be a single line";
+            sb.append(record).append(System.lineSeparator());
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(journalFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long oldSize = channel.size();
+            if (oldSize > 0 && fileGeneration != UNKNOWN_GENERATION && fileGeneration != generation) {
+                // the records of an older snapshot are already part of the current one
+                channel.truncate(0);
+                oldSize = 0;
+                recordCount = 0;
+            }
+            if (oldSize == 0) {
+                String header = Storage.formatGeneration(generation) + System.lineSeparator();
+                bytes = ByteBuffer.wrap((header + sb).getBytes(StandardCharsets.UTF_8));
+            }
+            try {
+                channel.position(oldSize);
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                if (isForced) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                channel.truncate(oldSize);
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new SuuException("I had trouble saving your tasks.");
+        }
+        recordCount += records.size();
+        fileGeneration = generation;
+        return bytes.limit();
+    }
+
+    /**
+     * Replays all records in the journal on top of the given tasks.
+     *
+     * <p>If the journal file does not exist, the tasks are left unchanged. A last record that has no line
+     * terminator is the torn tail of an append cut short by a crash: it is dropped, and the file is
+     * truncated before it so that later records are not appended onto it. A complete record that cannot
+     * be applied, wherever it is, means the journal is corrupted.</p>
+     *
+     * <p>Records are only replayed if the journal belongs to the given snapshot generation. A journal of
+     * an older generation is left to be replaced by the next append.</p>
+     *
+     * @param tasks Tasks loaded from the snapshot; modified in place.
+     * @param snapshotGeneration Generation of the snapshot the tasks were loaded from.
+     * @throws SuuException If the journal cannot be read, contains a complete record that cannot be applied,
+     *     or belongs to a newer snapshot than the given one.
+     */
+    public void replay(ArrayList<Task> tasks, long snapshotGeneration) throws SuuException {
+        recordCount = 0;
+        generation = snapshotGeneration;
+        fileGeneration = UNKNOWN_GENERATION;
+        if (!journalFile.exists()) {
+            return;
+        }
+
+        byte[] data;
+        try {
+            data = Files.readAllBytes(journalFile.toPath());
+        } catch (IOException e) {
+            throw new SuuException("I had trouble reading the save journal.");
+        }
+
+        int start = 0;
+        fileGeneration = snapshotGeneration;
+        if (data.length > 0 && data[0] == Storage.GENERATION_TYPE.charAt(0)) {
+            int end = 0;
+            while (end < data.length && data[end] != '\n') {
+                end++;
+            }
+            if (end == data.length) {
+                truncate(0);
+                return;
+            }
+            fileGeneration = Storage.parseGeneration(new String(data, 0, end, StandardCharsets.UTF_8));
+            if (fileGeneration < snapshotGeneration) {
+                return;
+            }
+            if (fileGeneration > snapshotGeneration) {
+                throw new SuuException("Save journal does not match the save file.");
+            }
+            start = end + 1;
+        }
+
+        while (start < data.length) {
+            int end = start;
+            while (end < data.length && data[end] != '\n') {
+                end++;
+            }
+            if (end == data.length) {
+                truncate(start);
+                return;
+            }
+            int textEnd = end > start && data[end - 1] == '\r' ? end - 1 : end;
+            String line = new String(data, start, textEnd - start, StandardCharsets.UTF_8);
+            apply(tasks, line);
+            recordCount++;
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Cuts a torn tail off the journal, keeping the first {@code length} bytes.
+     */
+    private void truncate(int length) throws SuuException {
+        try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        } catch (IOException e) {
+            throw new SuuException("I had trouble repairing the save journal.");
+        }
+    }
+
+    /**
+     * Forces every record appended so far to the device, if the journal exists.
+     *
+     * @throws SuuException If the journal could not be forced.
+     */
+    public void sync() throws SuuException {
+        if (!journalFile.exists()) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE)) {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new SuuException("I had trouble saving your tasks.");
+        }
+    }
+
+    /**
+     * Deletes the journal after its records were folded into a fresh snapshot. Later records apply to that
+     * snapshot, even if deleting fails: the old journal is then replaced by the next append.
+     *
+     * @param snapshotGeneration Generation of the fresh snapshot.
+     * @throws SuuException If the journal file exists but cannot be deleted.
+     */
+    public void clear(long snapshotGeneration) throws SuuException {
+        generation = snapshotGeneration;
+        recordCount = 0;
+        try {
+            Files.deleteIfExists(journalFile.toPath());
+        } catch (IOException e) {
+            // whatever the file holds belongs to an older snapshot
+            fileGeneration = snapshotGeneration - 1;
+            throw new SuuException("I couldn't clear the save journal.");
+        }
+        fileGeneration = UNKNOWN_GENERATION;
+    }
+
+    /**
+     * Applies a single journal record to the given tasks.
+     *
+     * @param tasks Tasks to modify.
+     * @param line Journal record.
+     * @throws SuuException If the record is malformed or refers to a task that does not exist.
+     */
+    private void apply(ArrayList<Task> tasks, String line) throws SuuException {
+        String[] parts = line.trim().split("\\s*\\|\\s*", 2);
+        if (parts.length < 2) {
+            throw new SuuException("Save journal is corrupted: " + line);
+        }
+
+        switch (parts[0]) {
+        case "A":
+            tasks.add(Storage.parseLine(parts[1]));
+            break;
+
+        case "I":
+            String[] insertParts = parts[1].split("\\s*\\|\\s*", 2);
+            if (insertParts.length < 2) {
+                throw new SuuException("Save journal is corrupted: " + line);
+            }
+            int insertAt = parseIndex(insertParts[0], tasks.size() + 1, line);
+            tasks.add(insertAt, Storage.parseLine(insertParts[1]));
+            break;
+
+        case "R":
+            removeAll(tasks, parseIndices(parts[1], tasks.size(), line));
+            break;
+
+        case "M":
+            for (int index : parseIndices(parts[1], tasks.size(), line)) {
+                tasks.get(index).setMarked();
+            }
+            break;
+
+        case "U":
+            for (int index : parseIndices(parts[1], tasks.size(), line)) {
+                tasks.get(index).unmark();
+            }
+            break;
+
+        default:
+            throw new SuuException("Save journal is corrupted: " + line);
+        }
+    }
+
+    /**
+     * Removes the tasks at the given ascending indices with a single compaction pass.
+     */
+    private static void removeAll(ArrayList<Task> tasks, int[] indices) {
+        if (indices.length == 1) {
+            tasks.remove(indices[0]);
+            return;
+        }
+        int kept = indices[0];
+        int next = 0;
+        for (int i = indices[0]; i < tasks.size(); i++) {
+            if (next < indices.length && indices[next] == i) {
+                next++;
+            } else {
+                tasks.set(kept++, tasks.get(i));
+            }
+        }
+        tasks.subList(kept, tasks.size()).clear();
+    }
+
+    /**
+     * Formats ascending indices as a comma-separated list, writing runs of consecutive indices as ranges.
+     */
+    private static String formatIndices(int[] indices) {
+        assert indices.length > 0 : "At least one index is needed";
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (i < indices.length) {
+            int j = i;
+            while (j + 1 < indices.length && indices[j + 1] == indices[j] + 1) {
+                j++;
+            }
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(indices[i]);
+            if (j > i) {
+                sb.append('-').append(indices[j]);
+            }
+            i = j + 1;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses the ascending indices and ranges written by {@link #formatIndices(int[])} and checks them
+     * against the given bound.
+     *
+     * @throws SuuException If an index is not a number, out of range or not in ascending order.
+     */
+    private int[] parseIndices(String text, int bound, String line) throws SuuException {
+        if (text.indexOf(',') < 0 && text.indexOf('-') < 0) {
+            return new int[]{parseIndex(text, bound, line)};
+        }
+
+        int[] indices = new int[8];
+        int count = 0;
+        int previous = -1;
+        for (String item : text.split(",")) {
+            int dash = item.indexOf('-');
+            int first = parseIndex(dash < 0 ? item : item.substring(0, dash), bound, line);
+            int last = dash < 0 ? first : parseIndex(item.substring(dash + 1), bound, line);
+            if (first <= previous || last < first) {
+                throw new SuuException("Save journal is corrupted: " + line);
+            }
+            for (int i = first; i <= last; i++) {
+                if (count == indices.length) {
+                    indices = Arrays.copyOf(indices, count * 2);
+                }
+                indices[count++] = i;
+            }
+            previous = last;
+        }
+        return Arrays.copyOf(indices, count);
+    }
+
+    /**
+     * Parses a 0-based index from a journal record and checks it against the given bound.
+     *
+     * @param text Index text.
+     * @param bound Exclusive upper bound of valid indices.
+     * @param line Whole record, used in the error message.
+     * @return Parsed index.
+     * @throws SuuException If the index is not a number or out of range.
+     */
+    private int parseIndex(String text, int bound, String line) throws SuuException {
+        int index;
+        try {
+            index = Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            throw new SuuException("Save journal is corrupted: " + line);
+        }
+        if (index < 0 || index >= bound) {
+            throw new SuuException("Save journal is corrupted: " + line);
+        }
+        return index;
+    }
+}
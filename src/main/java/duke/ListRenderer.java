@@ -0,0 +1,63 @@
+package duke;
+
+import java.io.IOException;
+
+/**
+ * Renders numbered ranges of a {@link TaskList} straight into an {@link Appendable}.
+ *
+ * <p>Tasks are written one at a time, so when the target is a {@link java.io.Writer} (as in the CLI
+ * {@link Ui}) memory use does not grow with the size of the list.</p>
+ */
+public class ListRenderer {
+    /**
+     * Number of tasks shown per page by {@code list <page>}.
+     */
+    public static final int PAGE_SIZE = 50;
+
+    /**
+     * Writes the tasks in {@code [from, to)} as numbered lines, each preceded by a line break.
+     *
+     * @param tasks Task list to render.
+     * @param from 0-based index of the first task to write.
+     * @param to 0-based index one past the last task to write.
+     * @param out Target to write to.
+     * @throws IOException If writing to {@code out} fails.
+     */
+    public static void render(TaskList tasks, int from, int to, Appendable out) throws IOException {
+        assert from >= 0 && from <= to && to <= tasks.size() : "Invalid range for render";
+        for (int i = from; i < to; i++) {
+            out.append('\n').append(Integer.toString(i + 1)).append(". ").append(tasks.get(i).toString());
+        }
+    }
+
+    /**
+     * Writes the tasks in {@code [from, to)} as numbered lines into a {@link StringBuilder}.
+     *
+     * @param tasks Task list to render.
+     * @param from 0-based index of the first task to write.
+     * @param to 0-based index one past the last task to write.
+     * @param sb Builder to append to.
+     */
+    public static void render(TaskList tasks, int from, int to, StringBuilder sb) {
+        try {
+            render(tasks, from, to, (Appendable) sb);
+        } catch (IOException e) {
+            throw new AssertionError("StringBuilder does not throw IOException", e);
+        }
+    }
+
+    /**
+     * Returns the header line for the given range of the list.
+     *
+     * @param from 0-based index of the first task shown.
+     * @param to 0-based index one past the last task shown.
+     * @param total Number of tasks in the list.
+     * @return Header line without a trailing line break.
+     */
+    public static String header(int from, int to, int total) {
+        if (from == 0 && to == total) {
+            return "Here are the tasks in your list:";
+        }
+        return "Here are tasks " + (from + 1) + "-" + to + " of " + total + " in your list:";
+    }
+}
@@ -13,6 +13,7 @@ import javafx.stage.Stage;
  */
 public class Main extends Application {
     private final Suu suu = new Suu();
+    private MainWindow controller;
 
     @Override
     public void start(Stage stage) {
@@ -22,7 +23,8 @@ public class Main extends Application {
             stage.setScene(scene);
             stage.setTitle("Suu");
 
-            MainWindow controller = fxmlLoader.getController();
+            controller = fxmlLoader.getController();
+            controller.setHistoryLimit(Integer.getInteger("suu.historyLimit", MainWindow.DEFAULT_HISTORY_LIMIT));
             controller.setSuu(suu);
 
             stage.setMinHeight(220);
@@ -32,4 +34,13 @@ public class Main extends Application {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.shutdown();
+        } else {
+            suu.close();
+        }
+    }
 }
@@ -0,0 +1,189 @@
+package duke;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Latency and size histograms of the commands Suu runs and of the reads and writes of {@link Storage}.
+ *
+ * <p>There is one {@link Histogram} per {@link CommandType} ({@code command.mark}, ...) holding the time
+ * {@link Suu#getResponse(String)} took, and histograms of the time taken by {@code storage.load},
+ * {@code storage.save} and {@code storage.append} (journal writes), of the bytes written by saves and
+ * appends ({@code storage.save.bytes}, {@code storage.append.bytes}), and of the number of tasks saved
+ * ({@code storage.save.tasks}). Latencies are in nanoseconds.</p>
+ *
+ * <p>Recording only updates atomic counters of preallocated histograms, so it takes no locks, allocates
+ * nothing and can stay on in production. The {@link #shared()} metrics cover every Suu in the process
+ * and are registered as an MXBean named {@value #OBJECT_NAME}.</p>
+ */
+public class Metrics implements MetricsMXBean {
+    /**
+     * JMX object name of the {@link #shared()} metrics.
+     */
+    public static final String OBJECT_NAME = "duke:type=Metrics";
+
+    private static final Metrics SHARED = register(new Metrics());
+
+    private final Histogram[] commands = new Histogram[CommandType.values().length];
+    private final Histogram load = new Histogram();
+    private final Histogram save = new Histogram();
+    private final Histogram saveBytes = new Histogram();
+    private final Histogram saveTasks = new Histogram();
+    private final Histogram append = new Histogram();
+    private final Histogram appendBytes = new Histogram();
+    private volatile long startNanos = System.nanoTime();
+
+    /**
+     * Creates empty metrics.
+     */
+    public Metrics() {
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = new Histogram();
+        }
+    }
+
+    /**
+     * Returns the metrics recorded by {@link Suu} and {@link Storage}.
+     *
+     * @return Shared metrics.
+     */
+    public static Metrics shared() {
+        return SHARED;
+    }
+
+    /**
+     * Records how long a command took to run.
+     *
+     * @param type Type of the command.
+     * @param nanos Time taken in nanoseconds.
+     */
+    public void recordCommand(CommandType type, long nanos) {
+        commands[type.ordinal()].record(nanos);
+    }
+
+    /**
+     * Records a load of the task list.
+     *
+     * @param nanos Time taken in nanoseconds.
+     */
+    public void recordLoad(long nanos) {
+        load.record(nanos);
+    }
+
+    /**
+     * Records a full save of the task list.
+     *
+     * @param nanos Time taken in nanoseconds.
+     * @param bytes Size of the written file.
+     * @param taskCount Number of tasks saved.
+     */
+    public void recordSave(long nanos, long bytes, int taskCount) {
+        save.record(nanos);
+        saveBytes.record(bytes);
+        saveTasks.record(taskCount);
+    }
+
+    /**
+     * Records an append of change records to the journal.
+     *
+     * @param nanos Time taken in nanoseconds.
+     * @param bytes Number of bytes appended.
+     */
+    public void recordAppend(long nanos, long bytes) {
+        append.record(nanos);
+        appendBytes.record(bytes);
+    }
+
+    /**
+     * Returns the histogram of the time taken by commands of the given type.
+     *
+     * @param type Command type.
+     * @return Latency histogram in nanoseconds.
+     */
+    public Histogram getCommandLatency(CommandType type) {
+        return commands[type.ordinal()];
+    }
+
+    /**
+     * Returns every histogram by name: the commands in declaration order, then the storage histograms.
+     *
+     * @return Histograms by name, in a stable order.
+     */
+    public Map<String, Histogram> getHistograms() {
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        for (CommandType type : CommandType.values()) {
+            histograms.put("command." + type.name().toLowerCase(Locale.ROOT), commands[type.ordinal()]);
+        }
+        histograms.put("storage.load", load);
+        histograms.put("storage.save", save);
+        histograms.put("storage.save.bytes", saveBytes);
+        histograms.put("storage.save.tasks", saveTasks);
+        histograms.put("storage.append", append);
+        histograms.put("storage.append.bytes", appendBytes);
+        return histograms;
+    }
+
+    @Override
+    public long getUptimeMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        return collect(Histogram::getCount);
+    }
+
+    @Override
+    public Map<String, Long> getSums() {
+        return collect(Histogram::getSum);
+    }
+
+    @Override
+    public Map<String, Long> getP50() {
+        return collect(h -> h.getPercentile(50));
+    }
+
+    @Override
+    public Map<String, Long> getP99() {
+        return collect(h -> h.getPercentile(99));
+    }
+
+    @Override
+    public Map<String, Long> getMax() {
+        return collect(Histogram::getMax);
+    }
+
+    @Override
+    public void reset() {
+        for (Histogram h : getHistograms().values()) {
+            h.reset();
+        }
+        startNanos = System.nanoTime();
+    }
+
+    private Map<String, Long> collect(ToLongFunction<Histogram> value) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Map.Entry<String, Histogram> entry : getHistograms().entrySet()) {
+            values.put(entry.getKey(), value.applyAsLong(entry.getValue()));
+        }
+        return values;
+    }
+
+    /**
+     * Registers the given metrics with the platform MBean server, leaving them unregistered if JMX is
+     * unavailable; recording works either way.
+     */
+    private static Metrics register(Metrics metrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException e) {
+            // metrics can still be read with the metrics command
+        }
+        return metrics;
+    }
+}
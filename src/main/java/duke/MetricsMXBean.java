@@ -0,0 +1,58 @@
+package duke;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link Metrics}, registered with the platform MBean server as
+ * {@value Metrics#OBJECT_NAME} so that tools such as JConsole can read it.
+ *
+ * <p>Each map is keyed by histogram name (see {@link Metrics}); latencies are in nanoseconds.</p>
+ */
+public interface MetricsMXBean {
+    /**
+     * Returns the time since the metrics were created or last reset.
+     *
+     * @return Uptime in milliseconds.
+     */
+    long getUptimeMillis();
+
+    /**
+     * Returns the number of values recorded by each histogram.
+     *
+     * @return Counts by histogram name.
+     */
+    Map<String, Long> getCounts();
+
+    /**
+     * Returns the sum of the values recorded by each histogram.
+     *
+     * @return Sums by histogram name.
+     */
+    Map<String, Long> getSums();
+
+    /**
+     * Returns the median of each histogram.
+     *
+     * @return Medians by histogram name.
+     */
+    Map<String, Long> getP50();
+
+    /**
+     * Returns the 99th percentile of each histogram.
+     *
+     * @return 99th percentiles by histogram name.
+     */
+    Map<String, Long> getP99();
+
+    /**
+     * Returns the largest value recorded by each histogram.
+     *
+     * @return Maximums by histogram name.
+     */
+    Map<String, Long> getMax();
+
+    /**
+     * Forgets all recorded values and restarts the uptime.
+     */
+    void reset();
+}
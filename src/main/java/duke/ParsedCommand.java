@@ -0,0 +1,226 @@
+package duke;
+
+/**
+ * A reusable, single-pass view of one line of user input.
+ *
+ * <p>{@link #parse(String)} finds the command word and the (trimmed) argument after it by scanning
+ * indices, and looks the command word up without creating any strings or arrays. The argument can then
+ * be split around markers such as {@code " /by "}; the resulting parts are only copied out as strings when
+ * asked for. One instance can be reused for every command handled on the same thread.</p>
+ */
+public class ParsedCommand {
+    private static final int MAX_PARTS = 3;
+
+    private String input = "";
+    private CommandType type = CommandType.UNKNOWN;
+    private int argStart;
+    private int argEnd;
+    private final int[] partStarts = new int[MAX_PARTS];
+    private final int[] partEnds = new int[MAX_PARTS];
+
+    /**
+     * Returns a new view of the given input.
+     *
+     * @param input Full user input line.
+     * @return Parsed command.
+     */
+    public static ParsedCommand of(String input) {
+        return new ParsedCommand().parse(input);
+    }
+
+    /**
+     * Reads the command word and argument of the given input, replacing whatever this view held before.
+     *
+     * @param input Full user input line; {@code null} is treated as empty.
+     * @return This view.
+     */
+    public ParsedCommand parse(String input) {
+        this.input = input == null ? "" : input;
+        int end = this.input.length();
+        int start = 0;
+        while (start < end && this.input.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && this.input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int wordEnd = start;
+        while (wordEnd < end && !isWhitespace(this.input.charAt(wordEnd))) {
+            wordEnd++;
+        }
+        type = CommandType.lookup(this.input, start, wordEnd);
+
+        argStart = wordEnd;
+        while (argStart < end && this.input.charAt(argStart) <= ' ') {
+            argStart++;
+        }
+        argEnd = end;
+        return this;
+    }
+
+    /**
+     * Returns the command type given by the command word.
+     *
+     * @return Command type, or {@link CommandType#UNKNOWN}.
+     */
+    public CommandType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the full input line this view was parsed from.
+     *
+     * @return Input line.
+     */
+    public String getInput() {
+        return input;
+    }
+
+    /**
+     * Returns whether anything follows the command word.
+     *
+     * @return {@code true} if the argument is not empty.
+     */
+    public boolean hasArgument() {
+        return argStart < argEnd;
+    }
+
+    /**
+     * Returns the trimmed text after the command word.
+     *
+     * @return Argument text, possibly empty.
+     */
+    public String argument() {
+        return input.substring(argStart, argEnd);
+    }
+
+    /**
+     * Returns the position of the first occurrence of the character in the argument.
+     *
+     * @param c Character to look for.
+     * @return Offset from the start of the argument, or {@code -1} if it does not occur.
+     */
+    public int argumentIndexOf(char c) {
+        for (int i = argStart; i < argEnd; i++) {
+            if (input.charAt(i) == c) {
+                return i - argStart;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the length of the argument.
+     *
+     * @return Number of characters in the argument.
+     */
+    public int argumentLength() {
+        return argEnd - argStart;
+    }
+
+    /**
+     * Parses the trimmed decimal integer in the given range of the argument.
+     *
+     * @param from Offset of the first character, relative to the start of the argument.
+     * @param to Offset one past the last character, relative to the start of the argument.
+     * @return Parsed value.
+     * @throws NumberFormatException If the range does not hold a valid {@code int}.
+     */
+    public int argumentInt(int from, int to) {
+        assert from >= 0 && from <= to && argStart + to <= argEnd : "Range outside the argument";
+        int s = argStart + from;
+        int e = argStart + to;
+        while (s < e && input.charAt(s) <= ' ') {
+            s++;
+        }
+        while (e > s && input.charAt(e - 1) <= ' ') {
+            e--;
+        }
+        return Integer.parseInt(input, s, e, 10);
+    }
+
+    /**
+     * Splits the argument around the first occurrence of {@code marker} into parts 0 and 1, both trimmed.
+     *
+     * @param marker Text separating the parts (e.g. {@code " /by "}).
+     * @return {@code true} if the marker was found.
+     */
+    public boolean split(String marker) {
+        int at = find(marker, argStart);
+        if (at < 0) {
+            return false;
+        }
+        setPart(0, argStart, at);
+        setPart(1, at + marker.length(), argEnd);
+        return true;
+    }
+
+    /**
+     * Splits the argument around the first {@code first} marker and the first {@code second} marker after it
+     * into parts 0, 1 and 2, all trimmed.
+     *
+     * @param first Marker after part 0 (e.g. {@code " /from "}).
+     * @param second Marker after part 1 (e.g. {@code " /to "}).
+     * @return {@code 1} if only the first marker was found, {@code 2} if both were, {@code 0} otherwise.
+     */
+    public int split(String first, String second) {
+        int at = find(first, argStart);
+        if (at < 0) {
+            return 0;
+        }
+        int afterFirst = at + first.length();
+        setPart(0, argStart, at);
+        int atSecond = find(second, afterFirst);
+        if (atSecond < 0) {
+            setPart(1, afterFirst, argEnd);
+            return 1;
+        }
+        setPart(1, afterFirst, atSecond);
+        setPart(2, atSecond + second.length(), argEnd);
+        return 2;
+    }
+
+    /**
+     * Returns whether a part produced by the last split is empty.
+     *
+     * @param index Part number.
+     * @return {@code true} if the part has no characters.
+     */
+    public boolean isPartEmpty(int index) {
+        return partStarts[index] == partEnds[index];
+    }
+
+    /**
+     * Returns a part produced by the last split.
+     *
+     * @param index Part number.
+     * @return Trimmed part text.
+     */
+    public String part(int index) {
+        return input.substring(partStarts[index], partEnds[index]);
+    }
+
+    private int find(String marker, int from) {
+        int at = input.indexOf(marker, from);
+        return at >= 0 && at + marker.length() <= argEnd ? at : -1;
+    }
+
+    private void setPart(int index, int from, int to) {
+        while (from < to && input.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && input.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        partStarts[index] = from;
+        partEnds[index] = to;
+    }
+
+    /**
+     * Returns whether the character separates words, matching the regular expression {@code \s}.
+     */
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+}
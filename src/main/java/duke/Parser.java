@@ -1,9 +1,15 @@
 package duke;
 
+import java.util.BitSet;
+
 /**
  * Provides helper methods to parse user input into command types and command arguments.
  * This class extracts information such as task indices, descriptions, and date/time strings
  * used by other parts of the application.
+ *
+ * <p>Each method works on a {@link ParsedCommand} view, so the command word and markers are found by
+ * scanning indices rather than with regular expressions. The {@code String} overloads are kept for
+ * callers that parse a single line.</p>
  */
 public class Parser {
 
@@ -29,14 +35,27 @@ public class Parser {
      * @throws SuuException If the task number is missing, not a number, or out of range.
      */
     public static int parseTaskIndex(String input, int taskCount, String commandWord) throws SuuException {
-        String[] parts = input.trim().split("\\s+", 2);
-        if (parts.length < 2 || parts[1].trim().isEmpty()) {
+        return parseTaskIndex(ParsedCommand.of(input), taskCount, commandWord);
+    }
+
+    /**
+     * Parses the task number of a parsed command and converts it into a 0-based index.
+     *
+     * @param command Parsed command (e.g. of {@code "mark 2"}).
+     * @param taskCount Current number of tasks in the task list.
+     * @param commandWord Command word to show in error messages (e.g. {@code "mark"}, {@code "delete"}).
+     * @return 0-based task index.
+     * @throws SuuException If the task number is missing, not a number, or out of range.
+     */
+    public static int parseTaskIndex(ParsedCommand command, int taskCount, String commandWord)
+            throws SuuException {
+        if (!command.hasArgument()) {
             throw new SuuException("Please provide a task number. Example: " + commandWord + " 2");
         }
 
         int taskNum;
         try {
-            taskNum = Integer.parseInt(parts[1].trim());
+            taskNum = command.argumentInt(0, command.argumentLength());
         } catch (NumberFormatException e) {
             throw new SuuException("Task number must be a number. Example: " + commandWord + " 2");
         }
@@ -48,6 +67,118 @@ public class Parser {
         return index;
     }
 
+    /**
+     * Parses the tasks selected by a command that can act on many tasks at once.
+     *
+     * <p>Example input: {@code "delete 3,7,9-12"} returns indices {@code [2, 6, 8, 9, 10, 11]}.</p>
+     *
+     * @param input Full user input line.
+     * @param tasks Current task list.
+     * @param commandWord Command word to show in error messages (e.g. {@code "mark"}, {@code "delete"}).
+     * @return Ascending, distinct 0-based indices.
+     * @throws SuuException If the selection is missing or malformed, refers to a task that does not exist,
+     *     or selects no task.
+     */
+    public static int[] parseTaskSelection(String input, TaskList tasks, String commandWord) throws SuuException {
+        return parseTaskSelection(ParsedCommand.of(input), tasks, commandWord);
+    }
+
+    /**
+     * Parses the tasks selected by a parsed command that can act on many tasks at once.
+     *
+     * <p>The selection is a comma-separated list of task numbers, inclusive ranges and task IDs (e.g.
+     * {@code 3,7,9-12,#42}), or one of the words {@code all}, {@code done} and {@code undone}. Duplicates and
+     * overlaps are merged, so a selection takes {@code O(n)} time however it is written.</p>
+     *
+     * @param command Parsed command (e.g. of {@code "mark 1-500"}, {@code "delete #42"} or {@code "delete done"}).
+     * @param tasks Current task list.
+     * @param commandWord Command word to show in error messages (e.g. {@code "mark"}, {@code "delete"}).
+     * @return Ascending, distinct 0-based indices.
+     * @throws SuuException If the selection is missing or malformed, refers to a task that does not exist,
+     *     or selects no task.
+     */
+    public static int[] parseTaskSelection(ParsedCommand command, TaskList tasks, String commandWord)
+            throws SuuException {
+        if (!command.hasArgument()) {
+            throw new SuuException("Please provide a task number. Example: " + commandWord + " 2");
+        }
+
+        String selection = command.argument();
+        int taskCount = tasks.size();
+        BitSet selected = new BitSet(taskCount);
+        if (selection.equalsIgnoreCase("all")) {
+            selected.set(0, taskCount);
+        } else if (selection.equalsIgnoreCase("done") || selection.equalsIgnoreCase("undone")) {
+            boolean isMarked = selection.equalsIgnoreCase("done");
+            for (int i = 0; i < taskCount; i++) {
+                if (tasks.get(i).isMarked() == isMarked) {
+                    selected.set(i);
+                }
+            }
+        } else {
+            int start = 0;
+            while (start <= selection.length()) {
+                int end = selection.indexOf(',', start);
+                if (end < 0) {
+                    end = selection.length();
+                }
+                selectItem(selection.substring(start, end), tasks, commandWord, selected);
+                start = end + 1;
+            }
+        }
+
+        if (selected.isEmpty()) {
+            if (selection.equalsIgnoreCase("all")) {
+                throw new SuuException("You have no tasks to " + commandWord + " yet.");
+            }
+            throw new SuuException("There are no " + selection + " tasks to " + commandWord + ".");
+        }
+        return selected.stream().toArray();
+    }
+
+    /**
+     * Adds the tasks of one item of a selection, a task number, an inclusive range or a task ID, to
+     * {@code selected}.
+     */
+    private static void selectItem(String item, TaskList tasks, String commandWord, BitSet selected)
+            throws SuuException {
+        String trimmed = item.trim();
+        if (trimmed.startsWith("#")) {
+            int index;
+            try {
+                index = tasks.indexOfId(Long.parseLong(trimmed.substring(1)));
+            } catch (NumberFormatException e) {
+                throw new SuuException("Task ID must be a number. Example: " + commandWord + " #42");
+            }
+            if (index < 0) {
+                throw new SuuException("There is no task with ID " + trimmed + ".");
+            }
+            selected.set(index);
+            return;
+        }
+
+        int taskCount = tasks.size();
+        // a leading minus belongs to a negative task number, which does not exist, rather than to a range
+        int dash = trimmed.indexOf('-', 1);
+        int first;
+        int last;
+        try {
+            first = Integer.parseInt((dash < 0 ? trimmed : trimmed.substring(0, dash)).trim());
+            last = dash < 0 ? first : Integer.parseInt(trimmed.substring(dash + 1).trim());
+        } catch (NumberFormatException e) {
+            throw new SuuException("Task number must be a number. Example: " + commandWord + " 2 or "
+                    + commandWord + " 3,7,9-12");
+        }
+        if (last < first) {
+            throw new SuuException("A range must go from a smaller to a larger task number, e.g. "
+                    + commandWord + " 9-12");
+        }
+        if (first < 1 || last > taskCount) {
+            throw new SuuException("That task number does not exist.");
+        }
+        selected.set(first - 1, last);
+    }
+
     /**
      * Extracts the description for a {@code todo} command.
      *
@@ -56,11 +187,21 @@ public class Parser {
      * @throws SuuException If the description is empty.
      */
     public static String parseTodoDescription(String input) throws SuuException {
-        String desc = input.replaceFirst("todo", "").trim();
-        if (desc.isEmpty()) {
+        return parseTodoDescription(ParsedCommand.of(input));
+    }
+
+    /**
+     * Extracts the description of a parsed {@code todo} command.
+     *
+     * @param command Parsed command (e.g. of {@code "todo read book"}).
+     * @return Description of the todo task.
+     * @throws SuuException If the description is empty.
+     */
+    public static String parseTodoDescription(ParsedCommand command) throws SuuException {
+        if (!command.hasArgument()) {
             throw new SuuException("The description of a todo cannot be empty.");
         }
-        return desc;
+        return command.argument();
     }
 
     /**
@@ -73,16 +214,25 @@ public class Parser {
      * @throws SuuException If the description or {@code /by} part is missing/empty or format is invalid.
      */
     public static String[] parseDeadline(String input) throws SuuException {
-        String rest = input.replaceFirst("deadline", "").trim();
-        if (rest.isEmpty()) {
+        ParsedCommand command = ParsedCommand.of(input);
+        parseDeadline(command);
+        return new String[]{command.part(0), command.part(1)};
+    }
+
+    /**
+     * Checks a parsed {@code deadline} command and splits it into part 0 (description) and part 1
+     * (raw {@code /by} date string).
+     *
+     * @param command Parsed command.
+     * @throws SuuException If the description or {@code /by} part is missing/empty or format is invalid.
+     */
+    public static void parseDeadline(ParsedCommand command) throws SuuException {
+        if (!command.hasArgument()) {
             throw new SuuException("The description of a deadline cannot be empty.");
         }
-
-        String[] parts = rest.split(" /by ", 2);
-        if (parts.length < 2 || parts[0].trim().isEmpty() || parts[1].trim().isEmpty()) {
+        if (!command.split(" /by ") || command.isPartEmpty(0) || command.isPartEmpty(1)) {
             throw new SuuException("Use this format: deadline <task> /by <time>");
         }
-        return new String[]{parts[0].trim(), parts[1].trim()};
     }
 
     /**
@@ -95,23 +245,26 @@ public class Parser {
      * @throws SuuException If any required part is missing/empty or the format is invalid.
      */
     public static String[] parseEvent(String input) throws SuuException {
-        String rest = input.replaceFirst("event", "").trim();
-        if (rest.isEmpty()) {
-            throw new SuuException("The description of an event cannot be empty.");
-        }
+        ParsedCommand command = ParsedCommand.of(input);
+        parseEvent(command);
+        return new String[]{command.part(0), command.part(1), command.part(2)};
+    }
 
-        String[] firstSplit = rest.split(" /from ", 2);
-        if (firstSplit.length < 2 || firstSplit[0].trim().isEmpty()) {
-            throw new SuuException("Use this format: event <task> /from <start> /to <end>");
+    /**
+     * Checks a parsed {@code event} command and splits it into part 0 (description), part 1 (raw start)
+     * and part 2 (raw end).
+     *
+     * @param command Parsed command.
+     * @throws SuuException If any required part is missing/empty or the format is invalid.
+     */
+    public static void parseEvent(ParsedCommand command) throws SuuException {
+        if (!command.hasArgument()) {
+            throw new SuuException("The description of an event cannot be empty.");
         }
-
-        String desc = firstSplit[0].trim();
-        String[] secondSplit = firstSplit[1].split(" /to ", 2);
-        if (secondSplit.length < 2 || secondSplit[0].trim().isEmpty() || secondSplit[1].trim().isEmpty()) {
+        if (command.split(" /from ", " /to ") < 2 || command.isPartEmpty(0) || command.isPartEmpty(1)
+                || command.isPartEmpty(2)) {
             throw new SuuException("Use this format: event <task> /from <start> /to <end>");
         }
-
-        return new String[]{desc, secondSplit[0].trim(), secondSplit[1].trim()};
     }
 
     /**
@@ -122,10 +275,137 @@ public class Parser {
      * @throws SuuException If the keyword is missing/empty.
      */
     public static String parseFindKeyword(String input) throws SuuException {
-        String[] parts = input.trim().split("\\s+", 2);
-        if (parts.length < 2 || parts[1].trim().isEmpty()) {
+        return parseFindKeyword(ParsedCommand.of(input));
+    }
+
+    /**
+     * Extracts the keyword of a parsed {@code find} command.
+     *
+     * @param command Parsed command (e.g. of {@code "find book"}).
+     * @return Keyword to search for.
+     * @throws SuuException If the keyword is missing/empty.
+     */
+    public static String parseFindKeyword(ParsedCommand command) throws SuuException {
+        if (!command.hasArgument()) {
             throw new SuuException("Please provide a keyword. Example: find book");
         }
-        return parts[1].trim();
+        return command.argument();
+    }
+
+    /**
+     * Extracts the date string for a command that takes a single date (e.g. {@code due}, {@code free}).
+     *
+     * @param input Full user input line (e.g. {@code "due 2019-10-15"}).
+     * @param commandWord Command word to show in error messages (e.g. {@code "due"}).
+     * @return Raw date string.
+     * @throws SuuException If the date is missing/empty.
+     */
+    public static String parseDateArgument(String input, String commandWord) throws SuuException {
+        return parseDateArgument(ParsedCommand.of(input), commandWord);
+    }
+
+    /**
+     * Extracts the date string of a parsed command that takes a single date (e.g. {@code due}, {@code free}).
+     *
+     * @param command Parsed command (e.g. of {@code "due 2019-10-15"}).
+     * @param commandWord Command word to show in error messages (e.g. {@code "due"}).
+     * @return Raw date string.
+     * @throws SuuException If the date is missing/empty.
+     */
+    public static String parseDateArgument(ParsedCommand command, String commandWord) throws SuuException {
+        if (!command.hasArgument()) {
+            throw new SuuException("Please provide a date. Example: " + commandWord + " 2019-10-15");
+        }
+        return command.argument();
+    }
+
+    /**
+     * Parses a {@code between} command into the raw start and end date strings.
+     *
+     * <p>Expected format: {@code between <date> /to <date>}</p>
+     *
+     * @param input Full user input line.
+     * @return A 2-element array: {@code [fromText, toText]}.
+     * @throws SuuException If either date is missing/empty or the format is invalid.
+     */
+    public static String[] parseBetween(String input) throws SuuException {
+        ParsedCommand command = ParsedCommand.of(input);
+        parseBetween(command);
+        return new String[]{command.part(0), command.part(1)};
+    }
+
+    /**
+     * Checks a parsed {@code between} command and splits it into part 0 (raw start date) and part 1
+     * (raw end date).
+     *
+     * @param command Parsed command.
+     * @throws SuuException If either date is missing/empty or the format is invalid.
+     */
+    public static void parseBetween(ParsedCommand command) throws SuuException {
+        if (!command.split(" /to ") || command.isPartEmpty(0) || command.isPartEmpty(1)) {
+            throw new SuuException("Use this format: between <date> /to <date>");
+        }
+    }
+
+    /**
+     * Parses the optional argument of a {@code list} command into a range of tasks.
+     *
+     * <p>{@code list <page>} selects a page of {@code pageSize} tasks and {@code list <from>-<to>} selects
+     * tasks by number (inclusive); an end past the last task is clamped to it.</p>
+     *
+     * @param input Full user input line (e.g. {@code "list 2"} or {@code "list 5-20"}).
+     * @param taskCount Current number of tasks in the task list (at least 1).
+     * @param pageSize Number of tasks per page.
+     * @return A 2-element array {@code [from, to]} of 0-based indices ({@code to} exclusive),
+     *         or {@code null} if no range was given.
+     * @throws SuuException If the range is malformed or starts past the end of the list.
+     */
+    public static int[] parseListRange(String input, int taskCount, int pageSize) throws SuuException {
+        return parseListRange(ParsedCommand.of(input), taskCount, pageSize);
+    }
+
+    /**
+     * Parses the optional argument of a parsed {@code list} command into a range of tasks.
+     *
+     * @param command Parsed command (e.g. of {@code "list 2"} or {@code "list 5-20"}).
+     * @param taskCount Current number of tasks in the task list (at least 1).
+     * @param pageSize Number of tasks per page.
+     * @return A 2-element array {@code [from, to]} of 0-based indices ({@code to} exclusive),
+     *         or {@code null} if no range was given.
+     * @throws SuuException If the range is malformed or starts past the end of the list.
+     * @see #parseListRange(String, int, int)
+     */
+    public static int[] parseListRange(ParsedCommand command, int taskCount, int pageSize) throws SuuException {
+        assert taskCount > 0 : "Cannot page through an empty list";
+        if (!command.hasArgument()) {
+            return null;
+        }
+
+        int length = command.argumentLength();
+        int dash = command.argumentIndexOf('-');
+        try {
+            if (dash < 0) {
+                int page = command.argumentInt(0, length);
+                int pageCount = (taskCount + pageSize - 1) / pageSize;
+                if (page < 1 || page > pageCount) {
+                    throw new SuuException("Page " + command.argument() + " does not exist. You have " + pageCount
+                            + " page(s) of tasks.");
+                }
+                int from = (page - 1) * pageSize;
+                return new int[]{from, Math.min(from + pageSize, taskCount)};
+            }
+
+            int first = command.argumentInt(0, dash);
+            int last = command.argumentInt(dash + 1, length);
+            if (first < 1 || last < first) {
+                throw new SuuException("Use this format: list <page> or list <from>-<to>");
+            }
+            if (first > taskCount) {
+                throw new SuuException("That task number does not exist.");
+            }
+            return new int[]{first - 1, Math.min(last, taskCount)};
+        } catch (NumberFormatException e) {
+            throw new SuuException("Use this format: list <page> or list <from>-<to>");
+        }
     }
 }
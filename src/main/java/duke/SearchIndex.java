@@ -0,0 +1,282 @@
+package duke;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+/**
+ * Inverted index over task descriptions used to answer substring searches without scanning every task.
+ *
+ * <p>Each lower-cased description is broken into overlapping trigrams (three-character windows), and
+ * every trigram maps to the set of tasks containing it. A keyword of three or more characters can only
+ * occur in a description that contains all of the keyword's trigrams, so the candidates are found by
+ * intersecting the postings of those trigrams, starting from the smallest one. Candidates are then
+ * checked with {@link String#contains(CharSequence)} to remove false positives.</p>
+ *
+ * <p>Like {@link TaskIdMap}, the trigrams are packed into {@code long} keys of an open-addressing table
+ * with linear probing, so they are never boxed. Each posting is itself a {@code Task[]} hash set with
+ * open addressing, so a task costs one array slot per trigram rather than a hash map entry object, while
+ * adding, removing and looking up a task still take constant time.</p>
+ */
+public class SearchIndex {
+    /**
+     * Length of the character windows stored in the index; shorter keywords cannot use it.
+     */
+    public static final int GRAM_LENGTH = 3;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INITIAL_POSTING_CAPACITY = 2;
+
+    /**
+     * Set in every key, so that no trigram packs to {@code 0}, which marks an empty slot.
+     */
+    private static final long KEY_MARKER = 1L << 48;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Task[][] postings = new Task[INITIAL_CAPACITY][];
+    private int[] sizes = new int[INITIAL_CAPACITY];
+    private int gramCount;
+
+    /**
+     * Adds a task's description to the index.
+     *
+     * @param t Task to index.
+     */
+    public void add(Task t) {
+        String text = t.getDescription().toLowerCase();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            int slot = slotOf(gram(text, i), true);
+            Task[] posting = postings[slot];
+            if (2 * (sizes[slot] + 1) > posting.length) {
+                posting = rehash(posting, posting.length * 2);
+                postings[slot] = posting;
+            }
+            if (insert(posting, t)) {
+                sizes[slot]++;
+            }
+        }
+    }
+
+    /**
+     * Removes a task's description from the index.
+     *
+     * @param t Task to remove.
+     */
+    public void remove(Task t) {
+        String text = t.getDescription().toLowerCase();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            int slot = slotOf(gram(text, i), false);
+            if (slot >= 0 && delete(postings[slot], t)) {
+                sizes[slot]--;
+                if (sizes[slot] == 0) {
+                    deleteGram(slot);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the tasks whose lower-cased descriptions contain the given lower-cased keyword,
+     * sorted by their position in the owning {@link TaskList}.
+     *
+     * @param target Lower-cased keyword of at least {@link #GRAM_LENGTH} characters.
+     * @return Matching tasks in list order.
+     */
+    public ArrayList<Task> find(String target) {
+        assert target.length() >= GRAM_LENGTH : "Keyword too short for the trigram index";
+
+        int gramTotal = target.length() - GRAM_LENGTH + 1;
+        Task[][] lists = new Task[gramTotal][];
+        int smallest = 0;
+        int smallestSize = Integer.MAX_VALUE;
+        for (int i = 0; i < gramTotal; i++) {
+            int slot = slotOf(gram(target, i), false);
+            if (slot < 0) {
+                return new ArrayList<>();
+            }
+            lists[i] = postings[slot];
+            if (sizes[slot] < smallestSize) {
+                smallest = i;
+                smallestSize = sizes[slot];
+            }
+        }
+
+        ArrayList<Task> matches = new ArrayList<>();
+        for (Task t : lists[smallest]) {
+            if (t != null && isInAll(t, lists, smallest) && t.getDescription().toLowerCase().contains(target)) {
+                matches.add(t);
+            }
+        }
+        matches.sort(Comparator.comparingLong(t -> t.orderKey));
+        return matches;
+    }
+
+    /**
+     * Returns whether the task is in every posting set other than the one it was taken from.
+     */
+    private static boolean isInAll(Task t, Task[][] lists, int skipped) {
+        for (int i = 0; i < lists.length; i++) {
+            if (i != skipped && !contains(lists[i], t)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the slot of the given trigram, first adding it with an empty posting if asked to.
+     *
+     * @return Slot index, or {@code -1} if the trigram is absent and was not to be added.
+     */
+    private int slotOf(long key, boolean isAdding) {
+        if (isAdding && 2 * (gramCount + 1) > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = keySlot(key, mask);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        if (!isAdding) {
+            return -1;
+        }
+        keys[i] = key;
+        postings[i] = new Task[INITIAL_POSTING_CAPACITY];
+        gramCount++;
+        return i;
+    }
+
+    /**
+     * Removes the trigram in the given slot, moving back later entries of its probe run as in
+     * {@link TaskIdMap#remove(long)}.
+     */
+    private void deleteGram(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int j = (hole + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int home = keySlot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                postings[hole] = postings[j];
+                sizes[hole] = sizes[j];
+                hole = j;
+            }
+        }
+        keys[hole] = 0;
+        postings[hole] = null;
+        sizes[hole] = 0;
+        gramCount--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Task[][] oldPostings = postings;
+        int[] oldSizes = sizes;
+        keys = new long[capacity];
+        postings = new Task[capacity][];
+        sizes = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int j = keySlot(oldKeys[i], mask);
+                while (keys[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                postings[j] = oldPostings[i];
+                sizes[j] = oldSizes[i];
+            }
+        }
+    }
+
+    /**
+     * Adds a task to a posting set that has room for it.
+     *
+     * @return {@code true} if the task was not in the set yet.
+     */
+    private static boolean insert(Task[] posting, Task t) {
+        int mask = posting.length - 1;
+        int i = taskSlot(t, mask);
+        while (posting[i] != null) {
+            if (posting[i] == t) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        posting[i] = t;
+        return true;
+    }
+
+    /**
+     * Removes a task from a posting set, moving back later entries of its probe run.
+     *
+     * @return {@code true} if the task was in the set.
+     */
+    private static boolean delete(Task[] posting, Task t) {
+        int mask = posting.length - 1;
+        int i = taskSlot(t, mask);
+        while (posting[i] != t) {
+            if (posting[i] == null) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+
+        int hole = i;
+        for (int j = (hole + 1) & mask; posting[j] != null; j = (j + 1) & mask) {
+            int home = taskSlot(posting[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                posting[hole] = posting[j];
+                hole = j;
+            }
+        }
+        posting[hole] = null;
+        return true;
+    }
+
+    private static boolean contains(Task[] posting, Task t) {
+        int mask = posting.length - 1;
+        for (int i = taskSlot(t, mask); posting[i] != null; i = (i + 1) & mask) {
+            if (posting[i] == t) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Task[] rehash(Task[] posting, int capacity) {
+        Task[] grown = new Task[capacity];
+        for (Task t : posting) {
+            if (t != null) {
+                insert(grown, t);
+            }
+        }
+        return grown;
+    }
+
+    /**
+     * Returns the home slot of a trigram key, scrambled as in {@link TaskIdMap}.
+     */
+    private static int keySlot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Returns the home slot of a task in a posting set. Tasks are compared by identity, as in a
+     * {@code HashSet<Task>}, since {@link Task} does not override {@code equals}.
+     */
+    private static int taskSlot(Task t, int mask) {
+        int h = System.identityHashCode(t) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Packs the three characters starting at {@code i} into a single key.
+     */
+    private static long gram(String s, int i) {
+        return KEY_MARKER | ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+}
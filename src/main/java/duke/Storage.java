@@ -1,25 +1,130 @@
 package duke;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Handles loading tasks from disk and saving tasks back to disk.
  * Tasks are stored in a simple line-based text format (one task per line).
+ *
+ * <p>In journaled mode, single mutations are appended to a {@link Journal} instead of rewriting
+ * the whole data file. The journal is folded into a fresh snapshot once it grows past a threshold.</p>
+ *
+ * <p>Every snapshot carries a generation number, one more than the snapshot it replaced, and the journal
+ * starts with the generation of the snapshot its records apply to. A journal left behind by a crash
+ * between saving a snapshot and deleting the journal is then recognised as already folded in, instead
+ * of being replayed a second time.</p>
+ *
+ * <p>The data file itself may be in any {@link StorageFormat}; the format is detected when loading
+ * and kept for later saves. It is never written in place: a new snapshot goes to a temporary file that is
+ * then atomically moved over it, so a crash mid-save leaves the previous snapshot intact. When writes are
+ * forced to the device is set by the {@link Durability} level.</p>
+ *
+ * <p>The time taken by every load, save and journal append, and the size of every write, are recorded in
+ * the shared {@link Metrics}.</p>
  */
 public class Storage {
+    /**
+     * Default number of journal records after which the journal is compacted into the snapshot.
+     */
+    public static final int DEFAULT_COMPACT_THRESHOLD = 1000;
+
+    /**
+     * Prefix of the optional last field of a line, which holds the task ID.
+     */
+    static final String ID_PREFIX = "#";
+
+    /**
+     * Type of the line that starts a text snapshot or a journal and holds a snapshot generation,
+     * e.g. {@code G | 12}.
+     */
+    static final String GENERATION_TYPE = "G";
+
+    /**
+     * Durability level of a new {@code Storage}.
+     */
+    public static final Durability DEFAULT_DURABILITY = Durability.INTERVAL;
+
+    /**
+     * Shortest time between two forced writes at the {@link Durability#INTERVAL} level.
+     */
+    public static final long SYNC_INTERVAL_MILLIS = 1000;
+
+    /**
+     * Suffix of the temporary file a snapshot is written to before it replaces the data file.
+     */
+    static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Forces the pending writes of {@link Durability#INTERVAL} storages once their interval has passed.
+     */
+    private static final ScheduledExecutorService SYNCER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "suu-storage-sync");
+        t.setDaemon(true);
+        return t;
+    });
+
     private final File dataFile;
+    private final Journal journal;
+    private final int compactThreshold;
+    private StorageFormat format = StorageFormat.TEXT;
+    private Durability durability = DEFAULT_DURABILITY;
+    private long lastSyncNanos = System.nanoTime();
+    private boolean hasUnsyncedWrites;
+    private boolean isSyncScheduled;
+    private boolean hasLoadFailed;
+    private long generation;
+    private SaveHook saveHook = step -> { };
+
+    /**
+     * Steps of {@link #save(List)} after which a {@link SaveHook} is called.
+     */
+    enum SaveStep {
+        /**
+         * The snapshot has been written to the temporary file, which has not been forced yet.
+         */
+        WRITTEN,
+        /**
+         * The temporary file has been forced if needed, but has not replaced the data file yet.
+         */
+        FORCED,
+        /**
+         * The temporary file has replaced the data file, but the journal has not been cleared yet.
+         */
+        MOVED
+    }
+
+    /**
+     * Called by {@link #save(List)} between its steps, so that tests can make a save fail part way through.
+     */
+    interface SaveHook {
+        /**
+         * Called once the given step is done.
+         *
+         * @param step Step that was just done.
+         * @throws IOException To make the save fail at this point. Nothing fails after {@link SaveStep#MOVED}
+         *     otherwise, so a failure there stands for a crash: the storage should be loaded afresh.
+         */
+        void reached(SaveStep step) throws IOException;
+    }
 
     /**
      * Creates a {@code Storage} that reads/writes to a data file located in the given directory.
+     * Every change rewrites the whole data file.
      *
      * @param dirName Directory name (relative or absolute) that contains the data file.
      * @param fileName Name of the data file.
@@ -27,46 +132,255 @@ public class Storage {
     public Storage(String dirName, String fileName) {
         File dir = new File(dirName);
         this.dataFile = new File(dir, fileName);
+        this.journal = null;
+        this.compactThreshold = 0;
+    }
+
+    /**
+     * Creates a journaled {@code Storage}. Changes are appended to a journal file next to the data file
+     * and folded into the data file once the journal holds {@code compactThreshold} records.
+     *
+     * @param dirName Directory name (relative or absolute) that contains the data file.
+     * @param fileName Name of the data file.
+     * @param compactThreshold Number of journal records that triggers compaction.
+     */
+    public Storage(String dirName, String fileName, int compactThreshold) {
+        assert compactThreshold > 0 : "Compaction threshold must be positive";
+        File dir = new File(dirName);
+        this.dataFile = new File(dir, fileName);
+        this.journal = new Journal(new File(dir, fileName + ".journal"));
+        this.compactThreshold = compactThreshold;
     }
 
     /**
      * Loads tasks from the data file.
      *
-     * <p>If the data file does not exist, this returns an empty list.</p>
+     * <p>If the data file does not exist, this returns an empty list. Binary and compressed snapshots are
+     * recognised by their magic bytes; anything else is read as text by the parallel {@link BulkLoader}. In
+     * journaled mode, any journal records are replayed on top of the data file, unless the journal belongs
+     * to an older snapshot and is therefore already part of this one.</p>
+     *
+     * <p>If loading fails, this storage refuses to save or append until a later load succeeds, so that
+     * the tasks it could not read are never overwritten.</p>
      *
      * @return An {@link ArrayList} of tasks loaded from disk.
      * @throws SuuException If there is an I/O error while reading or the file contents are corrupted.
      */
     public ArrayList<Task> load() throws SuuException {
+        long start = System.nanoTime();
         ArrayList<Task> loaded = new ArrayList<>();
 
-        if (!dataFile.exists()) { // if the file don't exist
-            return loaded;
+        hasLoadFailed = true;
+        generation = 0;
+        if (dataFile.exists() && BinarySnapshot.isBinary(dataFile)) {
+            format = StorageFormat.BINARY;
+            generation = BinarySnapshot.readGeneration(dataFile);
+            loaded = BinarySnapshot.read(dataFile);
+        } else if (dataFile.exists() && CompressedSnapshot.isCompressed(dataFile)) {
+            format = StorageFormat.COMPRESSED;
+            generation = CompressedSnapshot.readGeneration(dataFile);
+            loaded = CompressedSnapshot.read(dataFile);
+        } else if (dataFile.exists()) {
+            format = StorageFormat.TEXT;
+            generation = BulkLoader.readGeneration(dataFile);
+            loaded = BulkLoader.load(dataFile);
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(dataFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                loaded.add(parseLine(line));
+        if (journal != null) {
+            journal.replay(loaded, generation);
+        }
+        hasLoadFailed = false;
+        Metrics.shared().recordLoad(System.nanoTime() - start);
+        return loaded;
+    }
+
+    /**
+     * Returns the format the data file is saved in.
+     *
+     * @return Current storage format.
+     */
+    public StorageFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns when writes are forced to the device.
+     *
+     * @return Current durability level.
+     */
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Sets when later writes are forced to the device.
+     *
+     * @param durability New durability level.
+     */
+    public void setDurability(Durability durability) {
+        assert durability != null : "Durability must not be null";
+        this.durability = durability;
+    }
+
+    /**
+     * Sets the hook that {@link #save(List)} calls between its steps.
+     */
+    void setSaveHook(SaveHook saveHook) {
+        this.saveHook = saveHook;
+    }
+
+    /**
+     * Returns whether some writes have not been forced to the device yet.
+     */
+    synchronized boolean hasUnsyncedWrites() {
+        return hasUnsyncedWrites;
+    }
+
+    /**
+     * Forces any writes that the durability level has not forced yet to the device, e.g. before exiting.
+     *
+     * <p>At the {@link Durability#INTERVAL} level, this also happens in the background once
+     * {@link #SYNC_INTERVAL_MILLIS} have passed since the last forced write, so that writes made just
+     * before a pause are not left unforced until the next write.</p>
+     *
+     * @throws SuuException If the files could not be forced.
+     */
+    public synchronized void sync() throws SuuException {
+        if (!hasUnsyncedWrites || durability == Durability.NONE) {
+            return;
+        }
+        if (journal != null) {
+            journal.sync();
+        }
+        if (dataFile.exists()) {
+            try {
+                force(dataFile);
+            } catch (IOException e) {
+                throw new SuuException("I had trouble saving your tasks.");
             }
-        } catch (IOException e) {
-            throw new SuuException("I had trouble reading the save file.");
         }
+        markSynced(true);
+    }
 
-        return loaded;
+    /**
+     * Converts the data file (including any journal records) to the given format.
+     * Later saves keep using the new format.
+     *
+     * @param newFormat Format to convert to.
+     * @throws SuuException If the data file cannot be read or written.
+     */
+    public void convertTo(StorageFormat newFormat) throws SuuException {
+        assert newFormat != null : "Storage format must not be null";
+        ArrayList<Task> tasks = load();
+        format = newFormat;
+        save(tasks);
+    }
+
+    /**
+     * Persists a single change to the task list.
+     *
+     * <p>In journaled mode, only the given record is appended, and the journal is compacted into a
+     * fresh snapshot of {@code tasks} once it passes the threshold. Otherwise, the whole list is saved.
+     * If this method throws, the change was not persisted and the caller should roll it back.</p>
+     *
+     * @param tasks Current list of tasks (already including the change).
+     * @param record Journal record describing the change (see {@link Journal}).
+     * @throws SuuException If the change could not be persisted.
+     */
+    public void commit(List<Task> tasks, String record) throws SuuException {
+        commit(tasks, List.of(record));
     }
 
     /**
-     * Saves the given list of tasks to the data file, overwriting any existing content.
+     * Persists a single change to the task list that is described by several journal records.
      *
-     * <p>If the parent directory does not exist, it will be created.</p>
+     * <p>In journaled mode, the records are appended with one write, unless there are at least as many as
+     * the compaction threshold: then a fresh snapshot is saved straight away instead, which is cheaper
+     * than writing and later replaying them. Otherwise, the whole list is saved.</p>
+     *
+     * @param tasks Current list of tasks (already including the change).
+     * @param records Journal records describing the change, in order.
+     * @throws SuuException If the change could not be persisted.
+     */
+    public void commit(List<Task> tasks, List<String> records) throws SuuException {
+        assert tasks != null : "Tasks to save must not be null";
+        if (journal == null || records.size() >= compactThreshold) {
+            save(tasks);
+            return;
+        }
+
+        append(records);
+        if (journal.size() >= compactThreshold) {
+            try {
+                save(tasks);
+            } catch (SuuException e) {
+                // the change is already durable in the journal; compaction will be retried next time
+            }
+        }
+    }
+
+    /**
+     * Appends several change records to the journal with a single write, without compacting.
+     *
+     * <p>This is used by {@link GroupCommitWriter}, which schedules compaction itself.
+     * Either all records are persisted or, if this method throws, none of them are.</p>
+     *
+     * @param records Journal records describing the changes, in order.
+     * @throws SuuException If the records could not be persisted.
+     */
+    public void commitAll(List<String> records) throws SuuException {
+        assert journal != null : "Batched commits require a journaled storage";
+        append(records);
+    }
+
+    /**
+     * Returns whether changes are appended to a journal instead of rewriting the data file.
+     *
+     * @return {@code true} if this storage is journaled.
+     */
+    public boolean isJournaled() {
+        return journal != null;
+    }
+
+    /**
+     * Returns the number of journal records that triggers compaction.
+     *
+     * @return Compaction threshold, or {@code 0} if this storage is not journaled.
+     */
+    public int getCompactThreshold() {
+        return compactThreshold;
+    }
+
+    /**
+     * Returns the number of records currently in the journal.
+     *
+     * @return Journal record count, or {@code 0} if this storage is not journaled.
+     */
+    public int getJournalSize() {
+        return journal == null ? 0 : journal.size();
+    }
+
+    /**
+     * Saves the given list of tasks to the data file in the current format, replacing any existing content.
+     *
+     * <p>The tasks are written to a temporary file next to the data file, which is forced to the device if
+     * the durability level asks for it and then moved over the data file in one atomic step. If saving
+     * fails at any point, the data file is left as it was. If the parent directory does not exist, it will
+     * be created.</p>
+     *
+     * <p>In journaled mode, the journal is cleared once the snapshot has replaced the data file. Whatever
+     * the durability level, the snapshot and its folder entry are then forced first, as after a power
+     * failure the old snapshot could otherwise come back without the journal that completed it.</p>
      *
      * @param tasks List of tasks to save.
-     * @throws SuuException If the data folder cannot be created or an I/O error occurs when writing.
+     * @throws SuuException If the last load failed, the data folder cannot be created or an I/O error occurs
+     *     when writing.
      */
-    public void save(List<Task> tasks) throws SuuException {
+    public synchronized void save(List<Task> tasks) throws SuuException {
 
         assert tasks != null : "Tasks to save must not be null";
+        checkWritable();
+        long start = System.nanoTime();
         File parent = dataFile.getParentFile();
         if (parent != null && !parent.exists()) {
             if (!parent.mkdirs()) {
@@ -74,23 +388,136 @@ public class Storage {
             }
         }
 
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(dataFile, false))) {
-            for (Task t : tasks) {
-                bw.write(encodeTask(t));
-                bw.newLine();
+        File temp = new File(dataFile.getPath() + TEMP_SUFFIX);
+        long newGeneration = generation + 1;
+        try {
+            if (format == StorageFormat.BINARY) {
+                BinarySnapshot.write(tasks, newGeneration, temp);
+            } else if (format == StorageFormat.COMPRESSED) {
+                CompressedSnapshot.write(tasks, newGeneration, temp);
+            } else {
+                try (BufferedWriter bw = new BufferedWriter(new FileWriter(temp, false))) {
+                    bw.write(formatGeneration(newGeneration));
+                    bw.newLine();
+                    for (Task t : tasks) {
+                        bw.write(encodeTask(t));
+                        bw.newLine();
+                    }
+                }
+            }
+
+            saveHook.reached(SaveStep.WRITTEN);
+            boolean isForced = journal != null || shouldForce();
+            if (isForced) {
+                force(temp);
+            }
+            saveHook.reached(SaveStep.FORCED);
+            Files.move(temp.toPath(), dataFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            generation = newGeneration;
+            if (journal != null || durability == Durability.EVERY_COMMIT) {
+                forceDirectory(dataFile.getAbsoluteFile().getParentFile());
             }
+            markSynced(isForced);
+            saveHook.reached(SaveStep.MOVED);
         } catch (IOException e) {
             throw new SuuException("I had trouble saving your tasks.");
+        } finally {
+            temp.delete();
+        }
+
+        if (journal != null) {
+            journal.clear(generation);
+        }
+        Metrics.shared().recordSave(System.nanoTime() - start, dataFile.length(), tasks.size());
+    }
+
+    /**
+     * Appends records to the journal with a single write and records how long it took.
+     */
+    private synchronized void append(List<String> records) throws SuuException {
+        checkWritable();
+        long start = System.nanoTime();
+        boolean isForced = shouldForce();
+        int bytes = journal.appendAll(records, isForced);
+        markSynced(isForced);
+        Metrics.shared().recordAppend(System.nanoTime() - start, bytes);
+    }
+
+    /**
+     * Refuses to write after a failed load, since saving would replace the tasks that could not be read.
+     */
+    private void checkWritable() throws SuuException {
+        if (hasLoadFailed) {
+            throw new SuuException("I couldn't read your saved tasks, so I won't overwrite them. "
+                    + "Please fix or move " + dataFile.getPath() + " and restart me.");
+        }
+    }
+
+    /**
+     * Returns whether the durability level asks for the next write to be forced to the device.
+     */
+    private boolean shouldForce() {
+        switch (durability) {
+        case EVERY_COMMIT:
+            return true;
+        case INTERVAL:
+            return System.nanoTime() - lastSyncNanos >= SYNC_INTERVAL_MILLIS * 1_000_000;
+        default:
+            return false;
+        }
+    }
+
+    private void markSynced(boolean isForced) {
+        if (isForced) {
+            lastSyncNanos = System.nanoTime();
+            hasUnsyncedWrites = false;
+        } else {
+            hasUnsyncedWrites = true;
+            if (durability == Durability.INTERVAL && !isSyncScheduled) {
+                isSyncScheduled = true;
+                long delayNanos = lastSyncNanos + SYNC_INTERVAL_MILLIS * 1_000_000 - System.nanoTime();
+                SYNCER.schedule(this::syncPending, Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+            }
         }
     }
 
     /**
-     * Encodes a task into the storage line format.
+     * Forces the writes left unforced by the {@link Durability#INTERVAL} level, on the sync thread.
+     */
+    private synchronized void syncPending() {
+        isSyncScheduled = false;
+        try {
+            sync();
+        } catch (SuuException e) {
+            // the writes stay pending until the next forced write or sync()
+        }
+    }
+
+    private static void force(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Forces a directory entry change, such as a file moved into it, to the device where supported.
+     */
+    private static void forceDirectory(File dir) {
+        try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // some platforms (e.g. Windows) cannot open directories; the moved file itself was forced
+        }
+    }
+
+    /**
+     * Encodes a task into the storage line format. The task ID, if it has one, is added as a last field.
      *
      * <p>Example formats:</p>
      * <ul>
-     *   <li>{@code T | 1 | read book}</li>
-     *   <li>{@code D | 0 | return book | 2019-10-15}</li>
+     *   <li>{@code T | 1 | read book | #1}</li>
+     *   <li>{@code D | 0 | return book | 2019-10-15 | #2}</li>
      *   <li>{@code E | 0 | meeting | 2019-12-02T14:00 | 2019-12-02T16:00}</li>
      * </ul>
      *
@@ -98,20 +525,21 @@ public class Storage {
      * @return Encoded line representation of the task.
      * @throws SuuException If the task type is not recognized.
      */
-    private String encodeTask(Task task) throws SuuException {
+    static String encodeTask(Task task) throws SuuException {
         assert task != null : "Task to encode must not be null";
         String done = task.isMarked() ? "1" : "0";
+        String id = task.getId() == 0 ? "" : " | " + ID_PREFIX + task.getId();
 
         if (task instanceof Todo) {
-            return "T | " + done + " | " + task.getDescription();
+            return "T | " + done + " | " + task.getDescription() + id;
         } else if (task instanceof Deadline) {
             Deadline d = (Deadline) task;
-            return "D | " + done + " | " + task.getDescription() + " | " + d.getBy().toString();
+            return "D | " + done + " | " + task.getDescription() + " | " + d.getBy().toString() + id;
         } else if (task instanceof Event) {
             Event e = (Event) task;
             return "E | " + done + " | " + task.getDescription()
                     + " | " + e.getFrom().toString()
-                    + " | " + e.getTo().toString();
+                    + " | " + e.getTo().toString() + id;
         }
 
         throw new SuuException("Unknown task type, cannot save.");
@@ -124,14 +552,20 @@ public class Storage {
      * @return The parsed task.
      * @throws SuuException If the line is empty, malformed, or contains an unknown task type.
      */
-    private Task parseLine(String line) throws SuuException {
+    static Task parseLine(String line) throws SuuException {
         String trimmed = line.trim();
         if (trimmed.isEmpty()) {
             throw new SuuException("Save file has an empty line.");
         }
 
         String[] parts = trimmed.split("\\s*\\|\\s*");
-        if (parts.length < 3) {
+        int fieldCount = parts.length;
+        long id = 0;
+        if (fieldCount > 3 && parts[fieldCount - 1].startsWith(ID_PREFIX)) {
+            id = parseId(parts[fieldCount - 1], line);
+            fieldCount--;
+        }
+        if (fieldCount < 3) {
             throw new SuuException("Save file is corrupted: " + line);
         }
 
@@ -140,32 +574,89 @@ public class Storage {
         String desc = parts[2];
 
         Task task;
-        switch (type) {
-        case "T":
-            task = new Todo(desc);
-            break;
-
-        case "D":
-            if (parts.length != 4) {
-                throw new SuuException("Save file is corrupted: " + line);
-            }
-            task = new Deadline(desc, LocalDate.parse(parts[3]));
-            break;
+        try {
+            switch (type) {
+            case "T":
+                task = new Todo(desc);
+                break;
 
-        case "E":
-            if (parts.length != 5) {
-                throw new SuuException("Save file is corrupted: " + line);
-            }
-            task = new Event(desc, LocalDateTime.parse(parts[3]), LocalDateTime.parse(parts[4]));
-            break;
+            case "D":
+                if (fieldCount != 4) {
+                    throw new SuuException("Save file is corrupted: " + line);
+                }
+                task = new Deadline(desc, LocalDate.parse(parts[3]));
+                break;
 
-        default:
-            throw new SuuException("Save file has unknown task type: " + type);
+            case "E":
+                if (fieldCount != 5) {
+                    throw new SuuException("Save file is corrupted: " + line);
+                }
+                task = new Event(desc, LocalDateTime.parse(parts[3]), LocalDateTime.parse(parts[4]));
+                break;
+
+            default:
+                throw new SuuException("Save file has unknown task type: " + type);
+            }
+        } catch (DateTimeException e) {
+            throw new SuuException("Save file is corrupted: " + line);
         }
 
         if (isDone) {
             task.setMarked();
         }
+        task.id = id;
         return task;
     }
+
+    /**
+     * Formats the line that holds a snapshot generation.
+     *
+     * @param generation Snapshot generation.
+     * @return Generation line, e.g. {@code G | 12}.
+     */
+    static String formatGeneration(long generation) {
+        return GENERATION_TYPE + " | " + generation;
+    }
+
+    /**
+     * Parses a line written by {@link #formatGeneration(long)}.
+     *
+     * @param line Generation line.
+     * @return Snapshot generation; not negative.
+     * @throws SuuException If the line does not hold a generation.
+     */
+    static long parseGeneration(String line) throws SuuException {
+        String[] parts = line.trim().split("\\s*\\|\\s*");
+        try {
+            if (parts.length == 2 && parts[0].equals(GENERATION_TYPE)) {
+                long parsed = Long.parseLong(parts[1]);
+                if (parsed >= 0) {
+                    return parsed;
+                }
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new SuuException("Save file is corrupted: " + line);
+    }
+
+    /**
+     * Parses the ID field of a line, e.g. {@code #12}.
+     *
+     * @param field ID field, starting with {@link #ID_PREFIX}.
+     * @param line Whole line, for the error message.
+     * @return Task ID; positive.
+     * @throws SuuException If the field does not hold a positive number.
+     */
+    static long parseId(String field, String line) throws SuuException {
+        try {
+            long id = Long.parseLong(field.substring(ID_PREFIX.length()));
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new SuuException("Save file is corrupted: " + line);
+    }
 }
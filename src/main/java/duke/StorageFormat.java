@@ -0,0 +1,48 @@
+package duke;
+
+import java.util.Locale;
+
+/**
+ * Represents the on-disk formats of the task snapshot file.
+ */
+public enum StorageFormat {
+    /**
+     * Line-based text format, e.g. {@code T | 1 | read book}.
+     */
+    TEXT,
+
+    /**
+     * Binary format with fixed-size fields, read without parsing lines (see {@link BinarySnapshot}).
+     */
+    BINARY,
+
+    /**
+     * Text format compressed in independent blocks, for very large lists (see {@link CompressedSnapshot}).
+     */
+    COMPRESSED;
+
+    /**
+     * Returns the name of this format as used on the command line.
+     *
+     * @return Format name (e.g. {@code "binary"}).
+     */
+    public String getWord() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the format with the given name, ignoring case.
+     *
+     * @param word Format name: {@code text}, {@code binary} or {@code compressed}.
+     * @return Matching format.
+     * @throws SuuException If no format has that name.
+     */
+    public static StorageFormat fromWord(String word) throws SuuException {
+        for (StorageFormat f : values()) {
+            if (f.getWord().equals(word.trim().toLowerCase(Locale.ROOT))) {
+                return f;
+            }
+        }
+        throw new SuuException("Format must be one of: text, binary, compressed");
+    }
+}
@@ -2,7 +2,15 @@ package duke;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Main class of the Suu chatbot.
@@ -10,25 +18,59 @@ import java.util.ArrayList;
  * <p>In Level-10 (JavaFX), Suu should be used in a GUI-friendly way:
  * the UI calls {@link #getResponse(String)} for each user input, and shows the returned text.</p>
  *
- * <p>This class maintains the in-memory task list and uses {@link Storage} to persist tasks.</p>
+ * <p>This class maintains the in-memory task list and uses {@link Storage} to persist tasks.
+ * Changes are either persisted before {@link #getResponse(String)} returns, handed to a
+ * {@link GroupCommitWriter} that writes them in the background, or held back until a batch
+ * started with {@link #beginBatch()} is committed.</p>
  */
 public class Suu {
     private static final String NAME = "Suu";
 
+    /**
+     * Number of months listed by {@code stats} before the rest are summarised.
+     */
+    private static final int MAX_STATS_MONTHS = 12;
+
+    /**
+     * Largest list shown in full by a plain {@code list}; longer lists only show their first page.
+     */
+    private static final int MAX_UNPAGED_TASKS = 500;
+
     private final Storage storage;
     private final TaskList tasks;
+    private final TaskHistory history;
+    private final GroupCommitWriter writer;
+    private final ArrayDeque<PendingCommit> pendingCommits = new ArrayDeque<>();
+    private ArrayDeque<TaskHistory.Step> batchSteps;
+    private final ParsedCommand command = new ParsedCommand();
 
     private boolean isExit;
+    private boolean isDuplicateWarningOn = true;
     private String loadErrorMessage;
 
     /**
      * Constructs a Suu instance and attempts to load any previously saved tasks.
      *
      * <p>If loading fails, Suu will start with an empty task list and store the error message
-     * so the UI can display it in the welcome message.</p>
+     * so the UI can display it in the welcome message. It then refuses to save changes, leaving the
+     * unreadable save file for the user to fix. Changes are written in the background
+     * by a {@link GroupCommitWriter}; call {@link #close()} before exiting.</p>
      */
     public Suu() {
-        this.storage = new Storage("data", "Suu.txt");
+        this(new Storage("data", "Suu.txt", Storage.DEFAULT_COMPACT_THRESHOLD), true);
+    }
+
+    /**
+     * Constructs a Suu instance backed by the given storage and loads any previously saved tasks.
+     *
+     * @param storage Storage to load tasks from and save tasks to.
+     * @param isGroupCommit Whether changes are written in the background by a {@link GroupCommitWriter}
+     *     (requires a journaled storage) instead of before each response.
+     */
+    public Suu(Storage storage, boolean isGroupCommit) {
+        assert storage != null : "Storage must not be null";
+        assert !isGroupCommit || storage.isJournaled() : "Group commit requires a journaled storage";
+        this.storage = storage;
 
         TaskList loaded;
         try {
@@ -37,8 +79,21 @@ public class Suu {
             loaded = new TaskList();
             loadErrorMessage = e.getMessage();
         }
+        if (loaded.hadMissingIds()) {
+            try {
+                // tasks saved before they had IDs keep their new ones only once saved with them
+                storage.save(loaded.asList());
+            } catch (SuuException e) {
+                loadErrorMessage = e.getMessage();
+            }
+        }
         this.tasks = loaded;
+        this.history = new TaskHistory(loaded);
         this.isExit = false;
+        this.writer = isGroupCommit
+                ? new GroupCommitWriter(storage, GroupCommitWriter.DEFAULT_FLUSH_LATENCY_MILLIS,
+                        GroupCommitWriter.DEFAULT_MAX_BATCH_SIZE)
+                : null;
     }
 
     /**
@@ -68,51 +123,159 @@ public class Suu {
         return isExit;
     }
 
+    /**
+     * Sets whether adding a task whose description is already in the list adds a warning to the response.
+     * Warnings are on by default.
+     *
+     * @param isOn Whether to warn about duplicate descriptions.
+     */
+    public void setDuplicateWarnings(boolean isOn) {
+        isDuplicateWarningOn = isOn;
+    }
+
+    /**
+     * Returns a future that completes once every change made so far has been written to disk.
+     *
+     * @return Durability future; completes exceptionally if a background write failed.
+     */
+    public CompletableFuture<Void> whenDurable() {
+        if (writer == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return writer.flush();
+    }
+
+    /**
+     * Starts a batch: later changes are only made in memory until {@link #commitBatch()} saves them all at once.
+     */
+    public void beginBatch() {
+        assert writer == null : "Batches are not supported with group commit";
+        if (batchSteps == null) {
+            batchSteps = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Saves every change made since the batch started (or was last committed) in one write.
+     * The batch stays open for further changes.
+     *
+     * <p>If saving fails, all of those changes are undone, newest first, so the task list matches
+     * what is on disk again.</p>
+     *
+     * @throws SuuException If saving fails.
+     */
+    public void commitBatch() throws SuuException {
+        assert batchSteps != null : "No batch in progress";
+        if (batchSteps.isEmpty()) {
+            return;
+        }
+
+        try {
+            storage.save(tasks.asList());
+        } catch (SuuException e) {
+            int undone = batchSteps.size();
+            while (!batchSteps.isEmpty()) {
+                history.rollBack(batchSteps.removeLast());
+            }
+            throw new SuuException(e.getMessage() + " I undid the last " + undone + " change(s).");
+        }
+        batchSteps.clear();
+    }
+
+    /**
+     * Writes any pending changes and stops the background writer, if there is one, then forces any writes
+     * the {@link Durability} level has not forced yet to the device.
+     */
+    public void close() {
+        if (writer != null) {
+            writer.close();
+        }
+        try {
+            storage.sync();
+        } catch (SuuException e) {
+            // the changes are written, only not forced; the operating system will still write them back
+        }
+    }
+
     /**
      * Processes a single line of user input and returns Suu's response as a string.
      *
      * <p>This is the main entry point used by the JavaFX UI. The UI should call this method
-     * each time the user sends a message.</p>
+     * each time the user sends a message. If an earlier background write failed, the affected
+     * changes are rolled back first and the response says so. The time taken by the command is
+     * recorded in the shared {@link Metrics}.</p>
      *
      * @param input Full user input line.
      * @return Response text to be displayed to the user.
      */
     public String getResponse(String input) {
+        String rollbackNotice = rollBackFailedCommits();
+        long start = System.nanoTime();
+        String response = respond(input);
+        Metrics.shared().recordCommand(command.getType(), System.nanoTime() - start);
+        return rollbackNotice == null ? response : rollbackNotice + "\n\n" + response;
+    }
+
+    /**
+     * Executes a single command and returns Suu's response.
+     *
+     * @param input Full user input line.
+     * @return Response text to be displayed to the user.
+     */
+    private String respond(String input) {
         try {
-            CommandType command = Parser.parseCommandType(input);
+            ParsedCommand command = this.command.parse(input);
 
-            switch (command) {
+            switch (command.getType()) {
             case BYE:
                 isExit = true;
                 return "Bye. Hope to see you again soon!";
 
             case LIST:
-                return formatList();
+                return formatList(command);
 
             case MARK:
-                return formatMark(input);
+                return formatMark(command);
 
             case UNMARK:
-                return formatUnmark(input);
+                return formatUnmark(command);
 
             case TODO:
-                return formatAddTodo(input);
+                return formatAddTodo(command);
 
             case DEADLINE:
-                return formatAddDeadline(input);
+                return formatAddDeadline(command);
 
             case EVENT:
-                return formatAddEvent(input);
+                return formatAddEvent(command);
 
             case DELETE:
-                return formatDelete(input);
+                return formatDelete(command);
 
             case FIND:
-                return formatFind(input);
+                return formatFind(command);
 
             case STATS:
                 return formatStats();
 
+            case DUE:
+                return formatDue(command);
+
+            case BETWEEN:
+                return formatBetween(command);
+
+            case FREE:
+                return formatFree(command);
+
+            case UNDO:
+                return formatUndo();
+
+            case REDO:
+                return formatRedo();
+
+            case METRICS:
+                return formatMetrics();
+
             default:
                 return "I don't know what that means? :o";
             }
@@ -122,245 +285,597 @@ public class Suu {
     }
 
     /**
-     * Formats and returns the list of tasks as a printable string.
+     * Formats and returns the list of tasks, or the requested part of it, as a printable string.
      *
-     * @return A user-friendly string representation of the current task list.
+     * <p>Lists longer than {@link #MAX_UNPAGED_TASKS} only show their first page unless a range is given,
+     * so the response stays small no matter how many tasks there are.</p>
+     *
+     * @param command Parsed user input (e.g. {@code "list"}, {@code "list 2"} or {@code "list 5-20"}).
+     * @return A user-friendly string representation of the selected tasks.
+     * @throws SuuException If the requested range is invalid.
      */
-    private String formatList() {
-        if (tasks.size() == 0) {
+    private String formatList(ParsedCommand command) throws SuuException {
+        int total = tasks.size();
+        if (total == 0) {
             return "Here are the tasks in your list:\n  (none)";
         }
 
-        StringBuilder sb = new StringBuilder("Here are the tasks in your list:\n");
-        for (int i = 0; i < tasks.size(); i++) {
-            sb.append(i + 1).append(". ").append(tasks.get(i)).append("\n");
+        int[] range = Parser.parseListRange(command, total, ListRenderer.PAGE_SIZE);
+        boolean isTruncated = range == null && total > MAX_UNPAGED_TASKS;
+        if (range == null) {
+            range = new int[]{0, isTruncated ? ListRenderer.PAGE_SIZE : total};
         }
-        return sb.toString().trim();
+
+        StringBuilder sb = new StringBuilder(ListRenderer.header(range[0], range[1], total));
+        ListRenderer.render(tasks, range[0], range[1], sb);
+        if (isTruncated) {
+            sb.append("\nUse list <page> or list <from>-<to> to see the rest.");
+        }
+        return sb.toString();
     }
 
     /**
-     * Marks the specified task as done and persists the updated task list.
+     * Marks the selected tasks as done and persists the updated task list as one change.
+     * Nothing is saved if they are all marked already.
      *
-     * @param input Full user input (e.g. {@code "mark 2"}).
-     * @return Response message confirming the task was marked.
-     * @throws SuuException If the task index is invalid or saving fails.
+     * @param command Parsed user input (e.g. {@code "mark 2"} or {@code "mark 1-500"}).
+     * @return Response message confirming the tasks were marked.
+     * @throws SuuException If the selection is invalid or saving fails.
      */
-    private String formatMark(String input) throws SuuException {
-        int index = Parser.parseTaskIndex(input, tasks.size(), "mark");
-        Task t = tasks.get(index);
+    private String formatMark(ParsedCommand command) throws SuuException {
+        int[] selected = Parser.parseTaskSelection(command, tasks, "mark");
+        int[] changed = withStatus(selected, false);
 
-        boolean wasMarked = t.isMarked();
-        t.setMarked();
-
-        saveWithRollback(() -> {
-            if (!wasMarked) {
-                t.unmark();
-            }
-        });
+        if (changed.length > 0) {
+            saveWithRollback(history.setStatusAll(changed, true));
+        }
 
-        return "Nice! I've marked this task as done:\n  " + t;
+        if (selected.length == 1) {
+            return "Nice! I've marked this task as done:\n  " + tasks.get(selected[0]);
+        }
+        return "Nice! I've marked " + selected.length + " tasks as done.";
     }
 
     /**
-     * Unmarks the specified task (sets it as not done) and persists the updated task list.
+     * Unmarks the selected tasks (sets them as not done) and persists the updated task list as one change.
+     * Nothing is saved if none of them is marked.
      *
-     * @param input Full user input (e.g. {@code "unmark 2"}).
-     * @return Response message confirming the task was unmarked.
-     * @throws SuuException If the task index is invalid or saving fails.
+     * @param command Parsed user input (e.g. {@code "unmark 2"} or {@code "unmark all"}).
+     * @return Response message confirming the tasks were unmarked.
+     * @throws SuuException If the selection is invalid or saving fails.
      */
-    private String formatUnmark(String input) throws SuuException {
-        int index = Parser.parseTaskIndex(input, tasks.size(), "unmark");
-        Task t = tasks.get(index);
+    private String formatUnmark(ParsedCommand command) throws SuuException {
+        int[] selected = Parser.parseTaskSelection(command, tasks, "unmark");
+        int[] changed = withStatus(selected, true);
 
-        boolean wasMarked = t.isMarked();
-        t.unmark();
+        if (changed.length > 0) {
+            saveWithRollback(history.setStatusAll(changed, false));
+        }
 
-        saveWithRollback(() -> {
-            if (wasMarked) {
-                t.setMarked();
-            }
-        });
+        if (selected.length == 1) {
+            return "OK! I've marked this task as not done yet:\n  " + tasks.get(selected[0]);
+        }
+        return "OK! I've marked " + selected.length + " tasks as not done yet.";
+    }
 
-        return "OK! I've marked this task as not done yet:\n  " + t;
+    /**
+     * Returns the given indices of tasks whose completion status is {@code isMarked}, in the same order.
+     */
+    private int[] withStatus(int[] indices, boolean isMarked) {
+        int[] matching = new int[indices.length];
+        int count = 0;
+        for (int index : indices) {
+            if (tasks.get(index).isMarked() == isMarked) {
+                matching[count++] = index;
+            }
+        }
+        return Arrays.copyOf(matching, count);
     }
 
     /**
      * Adds a new {@link Todo} task and persists the updated task list.
      *
-     * @param input Full user input (e.g. {@code "todo read book"}).
+     * @param command Parsed user input (e.g. {@code "todo read book"}).
      * @return Response message confirming the task was added.
      * @throws SuuException If the description is invalid or saving fails.
      */
-    private String formatAddTodo(String input) throws SuuException {
-        String desc = Parser.parseTodoDescription(input);
+    private String formatAddTodo(ParsedCommand command) throws SuuException {
+        String desc = Parser.parseTodoDescription(command);
 
         Task t = new Todo(desc);
-        int addedIndex = tasks.size();
-        tasks.add(t);
-
-        saveWithRollback(() -> tasks.remove(addedIndex));
+        String duplicateNotice = duplicateNotice(t);
+        saveWithRollback(history.add(t));
 
-        return "Got it. I've added this task:\n  " + t
-                + "\nNow you have " + tasks.size() + " tasks in the list.";
+        return "Got it. I've added this task as #" + t.getId() + ":\n  " + t
+                + "\nNow you have " + tasks.size() + " tasks in the list." + duplicateNotice;
     }
 
     /**
      * Adds a new {@link Deadline} task and persists the updated task list.
      *
-     * @param input Full user input (e.g. {@code "deadline return book /by 2019-10-15"}).
+     * @param command Parsed user input (e.g. {@code "deadline return book /by 2019-10-15"}).
      * @return Response message confirming the task was added.
      * @throws SuuException If parsing fails, date is invalid, or saving fails.
      */
-    private String formatAddDeadline(String input) throws SuuException {
-        String[] parts = Parser.parseDeadline(input); // [desc, byText]
+    private String formatAddDeadline(ParsedCommand command) throws SuuException {
+        Parser.parseDeadline(command);
 
         LocalDate by;
         try {
-            by = DateTimeUtil.parseDate(parts[1]);
+            by = DateTimeUtil.parseDate(command.part(1));
         } catch (Exception e) {
             throw new SuuException("Invalid date. Use yyyy-MM-dd (e.g., 2019-10-15)");
         }
 
-        Task t = new Deadline(parts[0], by);
-        int addedIndex = tasks.size();
-        tasks.add(t);
+        Task t = new Deadline(command.part(0), by);
+        String duplicateNotice = duplicateNotice(t);
+        saveWithRollback(history.add(t));
 
-        saveWithRollback(() -> tasks.remove(addedIndex));
-
-        return "Got it. I've added this task:\n  " + t
-                + "\nNow you have " + tasks.size() + " tasks in the list.";
+        return "Got it. I've added this task as #" + t.getId() + ":\n  " + t
+                + "\nNow you have " + tasks.size() + " tasks in the list." + duplicateNotice;
     }
 
     /**
      * Adds a new {@link Event} task and persists the updated task list.
      *
-     * @param input Full user input (e.g. {@code "event meeting /from 2019-12-02 1800 /to 2019-12-02 2000"}).
-     * @return Response message confirming the task was added.
+     * @param command Parsed user input (e.g. {@code "event meeting /from 2019-12-02 1800 /to 2019-12-02 2000"}).
+     * @return Response message confirming the task was added, followed by any events it clashes with.
      * @throws SuuException If parsing fails, date/time is invalid, or saving fails.
      */
-    private String formatAddEvent(String input) throws SuuException {
-        String[] parts = Parser.parseEvent(input); // [desc, fromText, toText]
+    private String formatAddEvent(ParsedCommand command) throws SuuException {
+        Parser.parseEvent(command);
 
         LocalDateTime from;
         LocalDateTime to;
         try {
-            from = DateTimeUtil.parseDateTime(parts[1]);
-            to = DateTimeUtil.parseDateTime(parts[2]);
+            from = DateTimeUtil.parseDateTime(command.part(1));
+            to = DateTimeUtil.parseDateTime(command.part(2));
         } catch (Exception e) {
             throw new SuuException("Invalid date/time. Use yyyy-MM-dd HHmm (e.g., 2019-12-02 1800)");
         }
 
-        Task t = new Event(parts[0], from, to);
-        int addedIndex = tasks.size();
-        tasks.add(t);
-
-        saveWithRollback(() -> tasks.remove(addedIndex));
+        Task t = new Event(command.part(0), from, to);
+        String duplicateNotice = duplicateNotice(t);
+        saveWithRollback(history.add(t));
+
+        StringBuilder sb = new StringBuilder("Got it. I've added this task as #").append(t.getId())
+                .append(":\n  ").append(t)
+                .append("\nNow you have ").append(tasks.size()).append(" tasks in the list.")
+                .append(duplicateNotice);
+        ArrayList<Event> clashes = tasks.overlapping(from, to);
+        clashes.remove(t);
+        if (!clashes.isEmpty()) {
+            sb.append("\nHeads up! This clashes with:");
+            for (Event e : clashes) {
+                sb.append("\n  ").append(e);
+            }
+        }
+        return sb.toString();
+    }
 
-        return "Got it. I've added this task:\n  " + t
-                + "\nNow you have " + tasks.size() + " tasks in the list.";
+    /**
+     * Returns a warning if the list already has a task with the same description as the given new task.
+     * This is a single lookup in the description counts of {@link TaskStats}.
+     *
+     * @param t Task about to be added.
+     * @return Warning line starting with a newline, or an empty string.
+     */
+    private String duplicateNotice(Task t) {
+        if (!isDuplicateWarningOn) {
+            return "";
+        }
+        int count = tasks.getStats().getDescriptionCount(t.getDescription());
+        if (count == 0) {
+            return "";
+        }
+        return "\nHeads up! You already have " + (count == 1 ? "a task" : count + " tasks")
+                + " with this description.";
     }
 
     /**
-     * Deletes the specified task and persists the updated task list.
+     * Deletes the selected tasks and persists the updated task list as one change.
      *
-     * <p>If saving fails, the deletion is rolled back by inserting the task back into the list.</p>
+     * <p>If saving fails, the deletion is rolled back by putting the tasks back into the list.</p>
      *
-     * @param input Full user input (e.g. {@code "delete 2"}).
-     * @return Response message confirming the task was deleted.
-     * @throws SuuException If parsing fails, index is invalid, or saving fails.
+     * @param command Parsed user input (e.g. {@code "delete 2"}, {@code "delete 3,7,9-12"} or
+     *     {@code "delete done"}).
+     * @return Response message confirming the tasks were deleted.
+     * @throws SuuException If the selection is invalid or saving fails.
      */
-    private String formatDelete(String input) throws SuuException {
-        int index = Parser.parseTaskIndex(input, tasks.size(), "delete");
-        Task removed = tasks.remove(index);
+    private String formatDelete(ParsedCommand command) throws SuuException {
+        int[] selected = Parser.parseTaskSelection(command, tasks, "delete");
+        Task removed = tasks.get(selected[0]);
 
-        saveWithRollback(() -> tasks.add(index, removed));
+        saveWithRollback(history.removeAll(selected));
 
-        return "Noted. I've removed this task:\n  " + removed
-                + "\nNow you have " + tasks.size() + " tasks in the list.";
+        String what = selected.length == 1 ? "this task:\n  " + removed : selected.length + " tasks.";
+        return "Noted. I've removed " + what + "\nNow you have " + tasks.size() + " tasks in the list.";
     }
 
     /**
      * Finds tasks whose descriptions contain the given keyword and formats the result for display.
      *
-     * @param input Full user input (e.g. {@code "find book"}).
+     * @param command Parsed user input (e.g. {@code "find book"}).
      * @return Response message listing matching tasks, or stating none were found.
      * @throws SuuException If the keyword is missing/empty.
      */
-    private String formatFind(String input) throws SuuException {
-        String keyword = Parser.parseFindKeyword(input);
+    private String formatFind(ParsedCommand command) throws SuuException {
+        String keyword = Parser.parseFindKeyword(command);
         ArrayList<Task> matches = tasks.find(keyword);
 
         if (matches.isEmpty()) {
             return "No matching tasks found for: " + keyword;
         }
 
-        StringBuilder sb = new StringBuilder("Here are the matching tasks in your list:\n");
-        for (int i = 0; i < matches.size(); i++) {
-            sb.append(i + 1).append(". ").append(matches.get(i)).append("\n");
+        return formatNumbered("Here are the matching tasks in your list:\n", matches);
+    }
+
+    /**
+     * Lists deadlines due on or before the given date.
+     *
+     * @param command Parsed user input (e.g. {@code "due 2019-10-15"}).
+     * @return Response message listing the deadlines, or stating nothing is due.
+     * @throws SuuException If the date is missing or invalid.
+     */
+    private String formatDue(ParsedCommand command) throws SuuException {
+        LocalDate date = parseQueryDate(Parser.parseDateArgument(command, "due"));
+        ArrayList<Task> due = tasks.dueBy(date);
+
+        String dateText = DateTimeUtil.formatDate(date);
+        if (due.isEmpty()) {
+            return "Nothing is due by " + dateText + ".";
+        }
+        return formatNumbered("Here are the tasks due by " + dateText + ":\n", due);
+    }
+
+    /**
+     * Lists deadlines and events that fall within the given dates (inclusive).
+     *
+     * @param command Parsed user input (e.g. {@code "between 2019-10-01 /to 2019-10-31"}).
+     * @return Response message listing the tasks, or stating nothing is scheduled.
+     * @throws SuuException If a date is missing or invalid, or the range is reversed.
+     */
+    private String formatBetween(ParsedCommand command) throws SuuException {
+        Parser.parseBetween(command);
+        LocalDate from = parseQueryDate(command.part(0));
+        LocalDate to = parseQueryDate(command.part(1));
+        if (from.isAfter(to)) {
+            throw new SuuException("The start date must not be after the end date.");
+        }
+
+        ArrayList<Task> found = tasks.between(from, to);
+        String rangeText = DateTimeUtil.formatDate(from) + " and " + DateTimeUtil.formatDate(to);
+        if (found.isEmpty()) {
+            return "Nothing is scheduled between " + rangeText + ".";
+        }
+        return formatNumbered("Here are the tasks between " + rangeText + ":\n", found);
+    }
+
+    /**
+     * Lists the free time slots of the given day, i.e. the gaps between its events.
+     *
+     * @param command Parsed user input (e.g. {@code "free 2019-12-02"}).
+     * @return Response message listing the free slots.
+     * @throws SuuException If the date is missing or invalid.
+     */
+    private String formatFree(ParsedCommand command) throws SuuException {
+        LocalDate date = parseQueryDate(Parser.parseDateArgument(command, "free"));
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+        String dateText = DateTimeUtil.formatDate(date);
+
+        // events come back sorted by start time, so one pass finds the gaps
+        StringBuilder slots = new StringBuilder();
+        LocalDateTime freeFrom = dayStart;
+        for (Event e : tasks.overlapping(dayStart, dayEnd)) {
+            if (e.getFrom().isAfter(freeFrom)) {
+                appendSlot(slots, freeFrom, e.getFrom());
+            }
+            if (e.getTo().isAfter(freeFrom)) {
+                freeFrom = e.getTo();
+            }
+        }
+        if (freeFrom.isBefore(dayEnd)) {
+            appendSlot(slots, freeFrom, dayEnd);
+        }
+
+        if (freeFrom.equals(dayStart) && slots.length() > 0) {
+            return "You are free all day on " + dateText + "!";
+        }
+        if (slots.length() == 0) {
+            return "No free slots on " + dateText + ".";
+        }
+        return "Here are your free slots on " + dateText + ":" + slots;
+    }
+
+    private void appendSlot(StringBuilder sb, LocalDateTime from, LocalDateTime to) {
+        String end = to.toLocalTime().equals(LocalTime.MIDNIGHT) ? "end of day" : DateTimeUtil.formatTime(to);
+        sb.append("\n  ").append(DateTimeUtil.formatTime(from)).append(" to ").append(end);
+    }
+
+    private LocalDate parseQueryDate(String text) throws SuuException {
+        try {
+            return DateTimeUtil.parseDate(text);
+        } catch (Exception e) {
+            throw new SuuException("Invalid date. Use yyyy-MM-dd (e.g., 2019-10-15)");
+        }
+    }
+
+    /**
+     * Formats a header followed by a numbered list of tasks.
+     *
+     * @param header First line(s) of the message, ending with a newline.
+     * @param list Tasks to number.
+     * @return Formatted message.
+     */
+    private String formatNumbered(String header, ArrayList<Task> list) {
+        StringBuilder sb = new StringBuilder(header);
+        for (int i = 0; i < list.size(); i++) {
+            sb.append(i + 1).append(". ").append(list.get(i)).append("\n");
         }
         return sb.toString().trim();
     }
 
     /**
-     * Saves the current task list to storage, rolling back a prior in-memory change if saving fails.
+     * Reverses the latest change that has not been undone yet and persists the task list.
+     *
+     * @return Response message describing what was undone.
+     * @throws SuuException If saving fails.
+     */
+    private String formatUndo() throws SuuException {
+        TaskHistory.Step step = history.undo();
+        if (step == null) {
+            return "There is nothing to undo.";
+        }
+        saveWithRollback(step);
+        return "Undone! " + describe(step);
+    }
+
+    /**
+     * Makes the latest undone change again and persists the task list.
+     *
+     * @return Response message describing what was redone.
+     * @throws SuuException If saving fails.
+     */
+    private String formatRedo() throws SuuException {
+        TaskHistory.Step step = history.redo();
+        if (step == null) {
+            return "There is nothing to redo.";
+        }
+        saveWithRollback(step);
+        return "Redone! " + describe(step);
+    }
+
+    private String describe(TaskHistory.Step step) {
+        int count = step.getCount();
+        switch (step.getKind()) {
+        case ADD:
+            return "I've put back " + (count == 1 ? "this task:\n  " + step.getTask() : count + " tasks.")
+                    + "\nNow you have " + tasks.size() + " tasks in the list.";
+        case DELETE:
+            return "I've removed " + (count == 1 ? "this task:\n  " + step.getTask() : count + " tasks.")
+                    + "\nNow you have " + tasks.size() + " tasks in the list.";
+        case MARK:
+            return count == 1
+                    ? "I've marked this task as done:\n  " + step.getTask()
+                    : "I've marked " + count + " tasks as done.";
+        default:
+            return count == 1
+                    ? "I've marked this task as not done yet:\n  " + step.getTask()
+                    : "I've marked " + count + " tasks as not done yet.";
+        }
+    }
+
+    /**
+     * Saves a change made through the {@link TaskHistory} to storage, rolling it back if saving fails.
      *
      * <p>This method is used to keep the in-memory {@link TaskList} and on-disk data consistent.
-     * Callers should first apply an in-memory mutation (e.g., add/remove/mark a task), then
-     * provide a rollback action that reverses that mutation. If {@link Storage#save(java.util.List)}
-     * throws a {@link SuuException}, the rollback action is executed and the exception is rethrown.</p>
+     * Callers first make the change through {@link #history}, then pass the resulting step, which
+     * provides the {@link Journal} records describing it. A bulk change is a single step, so it is saved
+     * with one write and rolled back as a unit. If {@link Storage#commit(List, List)} throws a
+     * {@link SuuException}, the step is rolled back, which also removes it from the undo history, and the
+     * exception is rethrown.</p>
+     *
+     * <p>With a {@link GroupCommitWriter}, the records are queued instead and the step is kept until the
+     * write is known to be durable (see {@link #rollBackFailedCommits()}). During a batch, nothing is
+     * written and the step is kept until {@link #commitBatch()}.</p>
      *
-     * @param rollback A runnable that reverses the in-memory change made by the caller.
+     * @param step The change made by the caller.
      * @throws SuuException If saving to storage fails.
      */
-    private void saveWithRollback(Runnable rollback) throws SuuException {
-        assert rollback != null : "Rollback action must not be null";
+    private void saveWithRollback(TaskHistory.Step step) throws SuuException {
+        assert step != null : "Step must not be null";
+        if (batchSteps != null) {
+            batchSteps.addLast(step);
+            return;
+        }
+
         try {
-            storage.save(tasks.asList());
+            List<String> records = step.records();
+            if (writer != null) {
+                pendingCommits.addLast(new PendingCommit(writer.submit(records, tasks), step));
+                return;
+            }
+            storage.commit(tasks.asList(), records);
         } catch (SuuException e) {
-            rollback.run();
+            history.rollBack(step);
             throw e;
         }
     }
 
     /**
-     * Returns a summary of task statistics (counts by completion and by type).
+     * Rolls back changes whose background write failed.
+     *
+     * <p>Commits that are already durable are dropped from the pending queue. If the oldest remaining
+     * commit failed, every later one fails too, so all of them are rolled back newest-first and the
+     * writer is reset to continue from the last durable state.</p>
+     *
+     * @return A message describing the rolled back changes, or {@code null} if nothing failed.
+     */
+    private String rollBackFailedCommits() {
+        while (!pendingCommits.isEmpty() && pendingCommits.peekFirst().isDurable()) {
+            pendingCommits.removeFirst();
+        }
+        if (pendingCommits.isEmpty() || !pendingCommits.peekFirst().future.isCompletedExceptionally()) {
+            return null;
+        }
+
+        for (PendingCommit p : pendingCommits) {
+            p.future.exceptionally(e -> null).join();
+        }
+        int undone = pendingCommits.size();
+        while (!pendingCommits.isEmpty()) {
+            history.rollBack(pendingCommits.removeLast().step);
+        }
+        writer.reset();
+        return "Oops! I had trouble saving your tasks, so I undid your last " + undone + " change(s).";
+    }
+
+    /**
+     * Returns a summary of task statistics (counts by completion, by type and by month), and how much memory
+     * the {@link DescriptionPool} saved by sharing repeated descriptions across every list in the process.
      *
      * @return A user-friendly statistics summary.
      */
     private String formatStats() {
-        int total = tasks.size();
+        return tasks.readStats(stats -> formatStats(tasks.size(), stats));
+    }
+
+    /**
+     * Formats the given statistics of a list with {@code total} tasks.
+     */
+    private String formatStats(int total, TaskStats stats) {
         if (total == 0) {
             return "No tasks yet. Add some tasks first!";
         }
 
-        int done = 0;
-        int todo = 0;
-        int deadline = 0;
-        int event = 0;
+        int done = stats.getDoneCount();
+        int notDone = total - done;
 
-        for (Task t : tasks.asList()) {
-            if (t.isMarked()) {
-                done++;
+        StringBuilder sb = new StringBuilder("Here are your stats:\n")
+                .append("Total tasks: ").append(total).append("\n")
+                .append("Done: ").append(done).append("\n")
+                .append("Not done: ").append(notDone).append("\n\n")
+                .append("By type:\n")
+                .append("  Todo: ").append(stats.getTodoCount()).append("\n")
+                .append("  Deadline: ").append(stats.getDeadlineCount()).append("\n")
+                .append("  Event: ").append(stats.getEventCount());
+
+        NavigableMap<YearMonth, Integer> months = stats.getMonthHistogram();
+        if (!months.isEmpty()) {
+            sb.append("\n\nBy month:");
+            int shown = 0;
+            for (Map.Entry<YearMonth, Integer> entry : months.entrySet()) {
+                if (shown == MAX_STATS_MONTHS) {
+                    sb.append("\n  ...and ").append(months.size() - shown).append(" more");
+                    break;
+                }
+                sb.append("\n  ").append(DateTimeUtil.formatMonth(entry.getKey()))
+                        .append(": ").append(entry.getValue());
+                shown++;
             }
-            if (t instanceof Todo) {
-                todo++;
-            } else if (t instanceof Deadline) {
-                deadline++;
-            } else if (t instanceof Event) {
-                event++;
+
+            sb.append("\nBusiest day: ").append(DateTimeUtil.formatDate(stats.getBusiestDay()))
+                    .append(" (").append(stats.getBusiestDayCount()).append(")");
+        }
+
+        DescriptionPool pool = DescriptionPool.shared();
+        if (pool.getHits() > 0) {
+            sb.append("\n\nShared descriptions (all lists in this app): ").append(pool.getHits())
+                    .append(String.format(" (about %,d bytes saved)", pool.getBytesSaved()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats the command and storage metrics of this process: how many times each command ran and how
+     * long it took, and the same for loads, saves and journal appends, with the amount written.
+     *
+     * @return A user-friendly summary of the shared {@link Metrics}.
+     */
+    private String formatMetrics() {
+        Metrics metrics = Metrics.shared();
+        long uptimeMillis = metrics.getUptimeMillis();
+        long commandCount = 0;
+        for (CommandType type : CommandType.values()) {
+            commandCount += metrics.getCommandLatency(type).getCount();
+        }
+
+        StringBuilder sb = new StringBuilder("Here are the metrics since Suu started ")
+                .append(formatNanos(uptimeMillis * 1_000_000)).append(" ago:\n")
+                .append("Commands: ").append(commandCount)
+                .append(String.format(" (%.1f per second)", commandCount * 1000.0 / Math.max(1, uptimeMillis)));
+        for (CommandType type : CommandType.values()) {
+            Histogram latency = metrics.getCommandLatency(type);
+            if (latency.getCount() > 0) {
+                String name = type == CommandType.UNKNOWN ? "unknown" : type.getWord();
+                sb.append("\n  ").append(name).append(": ").append(formatLatency(latency));
             }
         }
 
-        int notDone = total - done;
+        Map<String, Histogram> histograms = metrics.getHistograms();
+        sb.append("\n\nStorage:");
+        appendStorageMetric(sb, "load", histograms.get("storage.load"), null);
+        appendStorageMetric(sb, "save", histograms.get("storage.save"), histograms.get("storage.save.bytes"));
+        appendStorageMetric(sb, "append", histograms.get("storage.append"), histograms.get("storage.append.bytes"));
+        Histogram savedTasks = histograms.get("storage.save.tasks");
+        if (savedTasks.getCount() > 0) {
+            sb.append("\n  Tasks per save: ").append(savedTasks.getPercentile(50))
+                    .append(" typical, ").append(savedTasks.getMax()).append(" at most");
+        }
+        return sb.toString();
+    }
 
-        return "Here are your stats:\n"
-                + "Total tasks: " + total + "\n"
-                + "Done: " + done + "\n"
-                + "Not done: " + notDone + "\n\n"
-                + "By type:\n"
-                + "  Todo: " + todo + "\n"
-                + "  Deadline: " + deadline + "\n"
-                + "  Event: " + event;
+    /**
+     * Appends one line of the storage metrics: the latency of an operation and the bytes it wrote, if known.
+     */
+    private static void appendStorageMetric(StringBuilder sb, String name, Histogram latency, Histogram bytes) {
+        sb.append("\n  ").append(name).append(": ").append(formatLatency(latency));
+        if (bytes != null && bytes.getCount() > 0) {
+            sb.append(String.format(", %,d bytes written", bytes.getSum()));
+        }
+    }
+
+    /**
+     * Formats the count and latency percentiles of a histogram, e.g. {@code 40 (p50 12.0 us, p99 80.0 us, ...)}.
+     */
+    private static String formatLatency(Histogram latency) {
+        if (latency.getCount() == 0) {
+            return "0";
+        }
+        return latency.getCount() + " (p50 " + formatNanos(latency.getPercentile(50))
+                + ", p99 " + formatNanos(latency.getPercentile(99))
+                + ", max " + formatNanos(latency.getMax()) + ")";
     }
-}
 
+    /**
+     * Formats a duration with a unit that keeps it short, e.g. {@code 850 ns} or {@code 1.2 ms}.
+     */
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + " ns";
+        } else if (nanos < 1_000_000) {
+            return String.format("%.1f us", nanos / 1e3);
+        } else if (nanos < 1_000_000_000) {
+            return String.format("%.1f ms", nanos / 1e6);
+        }
+        return String.format("%.1f s", nanos / 1e9);
+    }
+
+    /**
+     * A change handed to the {@link GroupCommitWriter}, with the step to roll back if the write fails.
+     */
+    private static class PendingCommit {
+        private final CompletableFuture<Void> future;
+        private final TaskHistory.Step step;
+
+        PendingCommit(CompletableFuture<Void> future, TaskHistory.Step step) {
+            this.future = future;
+            this.step = step;
+        }
+
+        boolean isDurable() {
+            return future.isDone() && !future.isCompletedExceptionally();
+        }
+    }
+}
@@ -5,18 +5,43 @@ package duke;
  * Specific task types (e.g. {@link Todo}, {@link Deadline}, {@link Event}) can extend this class.
  */
 public class Task {
+    /**
+     * Sort key that increases with the task's position in its {@link TaskList}.
+     * Maintained by the owning list so that indexes can return results in list order.
+     */
+    long orderKey;
+
+    /**
+     * The {@link TaskList} this task belongs to, through which every change to the completion status is made.
+     */
+    TaskList owner;
+
+    /**
+     * Stable ID of this task, which unlike its position does not change when other tasks are added or
+     * removed. Assigned by the first {@link TaskList} the task is added to and saved with the task;
+     * {@code 0} until then.
+     */
+    long id;
+
     private String description;
     private boolean isMarked;
 
+    /**
+     * Display string returned by {@link #toString()}, or {@code null} until it is next needed.
+     * Cleared whenever the completion status changes, which is the only part of a task that can change.
+     */
+    private String rendered;
+
     /**
      * Creates a task with the given description.
-     * The task is initially marked as not done.
+     * The task is initially marked as not done, and the description is shared through the
+     * {@link DescriptionPool} with other tasks that have the same one.
      *
      * @param description Description of the task.
      */
     public Task(String description) {
         assert description != null : "Task description must not be null";
-        this.description = description;
+        this.description = DescriptionPool.shared().intern(description);
         this.isMarked = false;
     }
 
@@ -25,14 +50,37 @@ public class Task {
      * Marks this task as done.
      */
     public void setMarked() {
-        isMarked = true;
+        setStatus(true);
     }
 
     /**
      * Marks this task as not done.
      */
     public void unmark() {
-        isMarked = false;
+        setStatus(false);
+    }
+
+    /**
+     * Sets the completion status itself, leaving the owning list (if any) to keep its statistics in step.
+     *
+     * @param isMarked New completion status.
+     * @return {@code true} if the status changed.
+     */
+    boolean applyStatus(boolean isMarked) {
+        if (this.isMarked == isMarked) {
+            return false;
+        }
+        this.isMarked = isMarked;
+        rendered = null;
+        return true;
+    }
+
+    private void setStatus(boolean isMarked) {
+        if (owner != null) {
+            owner.setStatus(this, isMarked);
+        } else {
+            applyStatus(isMarked);
+        }
     }
 
     /**
@@ -44,6 +92,15 @@ public class Task {
         return description;
     }
 
+    /**
+     * Returns the stable ID of this task.
+     *
+     * @return Task ID, or {@code 0} if the task has not been added to a list yet.
+     */
+    public long getId() {
+        return id;
+    }
+
     /**
      * Returns whether this task is marked as done.
      *
@@ -53,13 +110,52 @@ public class Task {
         return isMarked;
     }
 
+    /**
+     * Returns a copy of this task with the same description, completion status and ID.
+     *
+     * @return Independent copy of this task.
+     */
+    public Task copy() {
+        return copyStatusTo(new Task(description));
+    }
+
+    /**
+     * Copies this task's completion status and ID to the given copy.
+     *
+     * @param copy Newly created copy of this task.
+     * @return The given copy.
+     */
+    protected Task copyStatusTo(Task copy) {
+        copy.id = id;
+        if (isMarked) {
+            copy.setMarked();
+        }
+        return copy;
+    }
+
     /**
      * Returns the string representation of this task for display to the user.
+     * The string is built once and reused until the completion status changes.
      *
      * @return Formatted task string.
      */
     @Override
-    public String toString() {
+    public final String toString() {
+        String s = rendered;
+        if (s == null) {
+            s = render();
+            rendered = s;
+        }
+        return s;
+    }
+
+    /**
+     * Builds the string representation returned by {@link #toString()}.
+     * Subclasses add their type and dates around this task's status and description.
+     *
+     * @return Formatted task string.
+     */
+    protected String render() {
         String status = isMarked ? "X" : " ";
         return "[" + status + "] " + description;
     }
@@ -0,0 +1,328 @@
+package duke;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the undo and redo history of a {@link TaskList} and makes every change to it.
+ *
+ * <p>Each version of the list is a {@link TaskTree}, which shares all but {@code O(k log n)} nodes with the
+ * version before it when {@code k} tasks changed, so a history entry costs {@code O(log n)} memory per
+ * changed task instead of a copy of the list. A bulk change to many tasks is a single entry. The
+ * undo and redo stacks are immutable linked lists, so the state of the history is just three references:
+ * every change returns a {@link Step} remembering them, and {@link #rollBack(Step)} puts them back after
+ * reversing the change on the list. Suu rolls back changes that could not be saved this way.</p>
+ *
+ * <p>Changes must go through this class rather than the list so that the two stay in step.</p>
+ */
+public class TaskHistory {
+    /**
+     * Number of changes that can be undone; older ones are forgotten.
+     */
+    public static final int MAX_UNDO_STEPS = 10_000;
+
+    /**
+     * Kinds of change a {@link Step} can make to the list.
+     */
+    public enum Kind {
+        ADD,
+        DELETE,
+        MARK,
+        UNMARK
+    }
+
+    private final TaskList tasks;
+    private TaskTree current;
+    private Entry undoStack;
+    private Entry redoStack;
+
+    /**
+     * Creates an empty history of the given list.
+     *
+     * @param tasks List whose changes are made through this history.
+     */
+    public TaskHistory(TaskList tasks) {
+        assert tasks != null : "Task list must not be null";
+        this.tasks = tasks;
+        this.current = TaskTree.of(tasks.asList());
+    }
+
+    /**
+     * Adds a task to the end of the list.
+     *
+     * @param t Task to add.
+     * @return The change made.
+     */
+    public Step add(Task t) {
+        return change(current.insert(current.size(), t, t.isMarked()), new int[]{current.size()});
+    }
+
+    /**
+     * Removes the task at the given index.
+     *
+     * @param index 0-based index of the task.
+     * @return The change made.
+     */
+    public Step remove(int index) {
+        return change(current.remove(index), new int[]{index});
+    }
+
+    /**
+     * Removes the tasks at the given indices as one change.
+     *
+     * @param indices Ascending 0-based indices of the tasks; at least one.
+     * @return The change made.
+     */
+    public Step removeAll(int[] indices) {
+        assert indices.length > 0 : "A change must remove at least one task";
+        return change(current.removeAll(indices), indices);
+    }
+
+    /**
+     * Marks or unmarks the task at the given index.
+     *
+     * @param index 0-based index of the task.
+     * @param isMarked New completion status; must differ from the current one.
+     * @return The change made.
+     */
+    public Step setStatus(int index, boolean isMarked) {
+        return setStatusAll(new int[]{index}, isMarked);
+    }
+
+    /**
+     * Marks or unmarks the tasks at the given indices as one change.
+     *
+     * @param indices Ascending 0-based indices of the tasks; at least one.
+     * @param isMarked New completion status; must differ from the current one of every task.
+     * @return The change made.
+     */
+    public Step setStatusAll(int[] indices, boolean isMarked) {
+        assert indices.length > 0 : "A change must mark or unmark at least one task";
+        for (int index : indices) {
+            assert current.isMarked(index) != isMarked : "Status change must change the status";
+        }
+        return change(current.withStatusAll(indices, isMarked), indices);
+    }
+
+    /**
+     * Reverses the latest change that has not been undone yet.
+     *
+     * @return The change made, or {@code null} if there is nothing to undo.
+     */
+    public Step undo() {
+        Entry undone = undoStack;
+        if (undone == null) {
+            return null;
+        }
+        Step step = new Step(undone.after, undone.before, undone.indices, this);
+        apply(undone.after, undone.before, undone.indices);
+        undoStack = undone.next;
+        redoStack = new Entry(undone.before, undone.after, undone.indices, redoStack);
+        return step;
+    }
+
+    /**
+     * Makes the latest undone change again.
+     *
+     * @return The change made, or {@code null} if there is nothing to redo.
+     */
+    public Step redo() {
+        Entry redone = redoStack;
+        if (redone == null) {
+            return null;
+        }
+        Step step = new Step(redone.before, redone.after, redone.indices, this);
+        apply(redone.before, redone.after, redone.indices);
+        redoStack = redone.next;
+        undoStack = push(redone.before, redone.after, redone.indices, undoStack);
+        return step;
+    }
+
+    /**
+     * Reverses a change as if it had never been made, leaving the history as it was before it.
+     * Changes must be rolled back newest first.
+     *
+     * @param step The latest change made through this history and not yet rolled back.
+     */
+    public void rollBack(Step step) {
+        assert step.to == current : "Changes must be rolled back newest first";
+        apply(step.to, step.from, step.indices);
+        undoStack = step.undoStack;
+        redoStack = step.redoStack;
+    }
+
+    /**
+     * Returns the number of changes that can currently be undone.
+     *
+     * @return Undo depth.
+     */
+    public int undoDepth() {
+        return undoStack == null ? 0 : undoStack.depth;
+    }
+
+    /**
+     * Returns the number of undone changes that can currently be redone.
+     *
+     * @return Redo depth.
+     */
+    public int redoDepth() {
+        return redoStack == null ? 0 : redoStack.depth;
+    }
+
+    private Step change(TaskTree next, int[] indices) {
+        Step step = new Step(current, next, indices, this);
+        apply(current, next, indices);
+        undoStack = push(step.from, next, indices, undoStack);
+        redoStack = null;
+        return step;
+    }
+
+    /**
+     * Changes the list from one version to the next, which differ only at the given indices: tasks were
+     * inserted at them (indices of {@code to}), removed from them (indices of {@code from}), or all marked
+     * or all unmarked.
+     */
+    private void apply(TaskTree from, TaskTree to, int[] indices) {
+        assert from == current : "Only the current version can be changed";
+        assert tasks.size() == from.size() : "Task list changed outside its history";
+        if (to.size() > from.size()) {
+            List<Task> added = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                Task t = to.get(index);
+                if (to.isMarked(index)) {
+                    t.setMarked();
+                } else {
+                    t.unmark();
+                }
+                added.add(t);
+            }
+            tasks.addAll(indices, added);
+        } else if (to.size() < from.size()) {
+            tasks.removeAll(indices);
+        } else {
+            tasks.setStatusAll(indices, to.isMarked(indices[0]));
+        }
+        current = to;
+    }
+
+    /**
+     * Pushes a change onto an undo stack, forgetting the oldest changes once the stack is much deeper
+     * than {@link #MAX_UNDO_STEPS}.
+     */
+    private static Entry push(TaskTree before, TaskTree after, int[] indices, Entry stack) {
+        Entry pushed = new Entry(before, after, indices, stack);
+        if (pushed.depth <= 2 * MAX_UNDO_STEPS) {
+            return pushed;
+        }
+
+        // copying the newest entries once every MAX_UNDO_STEPS changes keeps this O(1) amortized
+        Entry[] kept = new Entry[MAX_UNDO_STEPS];
+        Entry e = pushed;
+        for (int i = 0; i < kept.length; i++) {
+            kept[i] = e;
+            e = e.next;
+        }
+        Entry trimmed = null;
+        for (int i = kept.length - 1; i >= 0; i--) {
+            trimmed = new Entry(kept[i].before, kept[i].after, kept[i].indices, trimmed);
+        }
+        return trimmed;
+    }
+
+    /**
+     * A change made to the list through a {@link TaskHistory}: its two versions and the history before it.
+     */
+    public static final class Step {
+        private final TaskTree from;
+        private final TaskTree to;
+        private final int[] indices;
+        private final Entry undoStack;
+        private final Entry redoStack;
+
+        private Step(TaskTree from, TaskTree to, int[] indices, TaskHistory history) {
+            this.from = from;
+            this.to = to;
+            this.indices = indices;
+            this.undoStack = history.undoStack;
+            this.redoStack = history.redoStack;
+        }
+
+        /**
+         * Returns what this change did to the list.
+         *
+         * @return Kind of change.
+         */
+        public Kind getKind() {
+            if (to.size() > from.size()) {
+                return Kind.ADD;
+            }
+            if (to.size() < from.size()) {
+                return Kind.DELETE;
+            }
+            return to.isMarked(indices[0]) ? Kind.MARK : Kind.UNMARK;
+        }
+
+        /**
+         * Returns the number of tasks this change added, deleted, marked or unmarked.
+         *
+         * @return Task count; at least one.
+         */
+        public int getCount() {
+            return indices.length;
+        }
+
+        /**
+         * Returns the (first) task that was added, deleted, marked or unmarked.
+         *
+         * @return Changed task.
+         */
+        public Task getTask() {
+            return getKind() == Kind.DELETE ? from.get(indices[0]) : to.get(indices[0]);
+        }
+
+        /**
+         * Returns the {@link Journal} records describing this change, in order. Deletions and status
+         * changes always take a single record; insertions take one per task.
+         *
+         * @return Journal records.
+         * @throws SuuException If the task type is not recognized.
+         */
+        public List<String> records() throws SuuException {
+            switch (getKind()) {
+            case ADD:
+                List<String> records = new ArrayList<>(indices.length);
+                for (int i = 0; i < indices.length; i++) {
+                    Task t = to.get(indices[i]);
+                    boolean isAppended = indices[i] == from.size() + i;
+                    records.add(isAppended ? Journal.add(t) : Journal.insert(indices[i], t));
+                }
+                return records;
+            case DELETE:
+                return List.of(Journal.remove(indices));
+            case MARK:
+                return List.of(Journal.mark(indices));
+            default:
+                return List.of(Journal.unmark(indices));
+            }
+        }
+    }
+
+    /**
+     * An entry of the undo or redo stack: the versions before and after a change, and where they differ.
+     */
+    private static class Entry {
+        private final TaskTree before;
+        private final TaskTree after;
+        private final int[] indices;
+        private final Entry next;
+        private final int depth;
+
+        Entry(TaskTree before, TaskTree after, int[] indices, Entry next) {
+            this.before = before;
+            this.after = after;
+            this.indices = indices;
+            this.next = next;
+            this.depth = next == null ? 1 : next.depth + 1;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package duke;
+
+/**
+ * Hash map from task IDs to tasks, used by {@link TaskList} to find a task by its ID in constant time.
+ *
+ * <p>Keys are kept in a primitive {@code long[]} with open addressing and linear probing, so a lookup
+ * neither boxes the ID nor follows a chain of entry objects. {@code 0} marks an empty slot, which is why
+ * task IDs start at {@code 1}. Removal shifts the following entries of the probe run back instead of
+ * leaving tombstones, so lookups stay short however many tasks come and go.</p>
+ */
+public class TaskIdMap {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Task[] values = new Task[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Returns the task with the given ID.
+     *
+     * @param id Task ID.
+     * @return The task, or {@code null} if there is none with that ID.
+     */
+    public Task get(long id) {
+        if (id == 0) {
+            return null;
+        }
+        int mask = keys.length - 1;
+        for (int i = slot(id, mask); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == id) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Maps the given ID to the given task, replacing any task it was mapped to.
+     *
+     * @param id Task ID; must be positive.
+     * @param t Task with that ID.
+     */
+    public void put(long id, Task t) {
+        assert id > 0 : "Task IDs must be positive";
+        assert t != null : "Cannot map an ID to a null task";
+        if (2 * (size + 1) > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = slot(id, mask);
+        while (keys[i] != 0) {
+            if (keys[i] == id) {
+                values[i] = t;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = id;
+        values[i] = t;
+        size++;
+    }
+
+    /**
+     * Removes the mapping of the given ID, if any.
+     *
+     * @param id Task ID.
+     */
+    public void remove(long id) {
+        if (id == 0) {
+            return;
+        }
+        int mask = keys.length - 1;
+        int i = slot(id, mask);
+        while (keys[i] != id) {
+            if (keys[i] == 0) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        // move back any later entry of the probe run whose home slot is not between the hole and itself
+        int hole = i;
+        for (int j = (hole + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int home = slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+        size--;
+    }
+
+    /**
+     * Returns the number of mapped IDs.
+     *
+     * @return Entry count.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Task[] oldValues = values;
+        keys = new long[capacity];
+        values = new Task[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int j = slot(oldKeys[i], mask);
+                while (keys[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the home slot of an ID. IDs are mostly consecutive, so they are scrambled first to spread
+     * them over the table.
+     */
+    private static int slot(long id, int mask) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -1,32 +1,82 @@
 package duke;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
 
 /**
  * Represents the in-memory list of tasks and provides operations to manipulate it.
+ *
+ * <p>The list keeps a {@link SearchIndex} over task descriptions, a {@link DateIndex} over due dates
+ * and event times, and an {@link IntervalTree} over event ranges in sync with every change, and gives
+ * each task an order key that increases with its position, so indexed results can be returned in list
+ * order. Each index is built on its first query, so loading a large list stays fast.</p>
+ *
+ * <p>Every task also gets a stable ID when it first joins a list, kept in a {@link TaskIdMap}, so that it
+ * can be addressed independently of its position, which changes whenever an earlier task is removed.</p>
+ *
+ * <p>{@link TaskStats} are kept up to date eagerly; tasks in the list report completion changes back to
+ * it, so marking a task does not need to go through the list.</p>
+ *
+ * <p>A list has a single writer: one thread adds, removes and marks tasks, and only that thread may use
+ * {@link #get(int)}, {@link #size()}, {@link #asList()} and {@link #getStats()}. Every change is made under the
+ * write lock of a {@link StampedLock} and bumps a version number. Other threads read through
+ * {@link #snapshot()}, which returns an immutable copy of the latest version without locking if one has
+ * already been taken since the last change, or through the query methods, which hold the read lock.</p>
  */
 public class TaskList {
+    /**
+     * Spacing between the order keys of tasks appended to the end of the list.
+     */
+    private static final long ORDER_KEY_GAP = 1L << 20;
+
     private final ArrayList<Task> tasks;
+    private final TaskStats stats = new TaskStats();
+    private SearchIndex searchIndex;
+    private DateIndex dateIndex;
+    private IntervalTree eventTree;
+    private final TaskIdMap ids = new TaskIdMap();
+    private long nextId = 1;
+    private final boolean hadMissingIds;
+
+    private final StampedLock lock = new StampedLock();
+    private long version;
+    private volatile Snapshot published;
 
     /**
      * Creates an empty task list.
      */
     public TaskList() {
         this.tasks = new ArrayList<>();
+        this.hadMissingIds = false;
     }
 
     /**
-     * Creates a task list using an existing list of tasks.
+     * Creates a task list using an existing list of tasks. Tasks keep their IDs; tasks without one, or
+     * with the same one as an earlier task, get new IDs above all existing ones.
      *
      * @param tasks Existing list of tasks to use as the backing store.
      */
     public TaskList(ArrayList<Task> tasks) {
         assert tasks != null : "Backing task list must not be null";
         this.tasks = tasks;
+        renumber();
+        for (Task t : tasks) {
+            nextId = Math.max(nextId, t.id + 1);
+        }
+        boolean isMissingIds = false;
+        for (Task t : tasks) {
+            isMissingIds |= assignId(t);
+            t.owner = this;
+            stats.add(t);
+        }
+        this.hadMissingIds = isMissingIds;
     }
 
-
     /**
      * Adds a task to the end of the list.
      *
@@ -34,7 +84,12 @@ public class TaskList {
      */
     public void add(Task t) {
         assert t != null : "Cannot add null task";
-        tasks.add(t);
+        long stamp = lock.writeLock();
+        try {
+            append(t);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     /**
@@ -46,7 +101,28 @@ public class TaskList {
     public void add(int index, Task t) {
         assert t != null : "Cannot add null task";
         assert index >= 0 && index <= tasks.size() : "Index out of bounds for add";
-        tasks.add(index, t);
+        long stamp = lock.writeLock();
+        try {
+            if (index == tasks.size()) {
+                append(t);
+                return;
+            }
+
+            long next = tasks.get(index).orderKey;
+            long prev = index == 0 ? next - 2 * ORDER_KEY_GAP : tasks.get(index - 1).orderKey;
+            tasks.add(index, t);
+            if (t.orderKey <= prev || t.orderKey >= next) {
+                // a task put back by a rollback usually still fits between its old neighbours
+                if (next - prev >= 2) {
+                    t.orderKey = prev + (next - prev) / 2;
+                } else {
+                    renumber();
+                }
+            }
+            attach(t);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     /**
@@ -57,7 +133,118 @@ public class TaskList {
      */
     public Task remove(int index) {
         assert index >= 0 && index < tasks.size() : "Index out of bounds for remove";
-        return tasks.remove(index);
+        long stamp = lock.writeLock();
+        try {
+            Task removed = tasks.remove(index);
+            removed.owner = null;
+            ids.remove(removed.id);
+            stats.remove(removed);
+            removeFromIndexes(removed);
+            version++;
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Inserts several tasks as one change, merging them into the list in a single pass.
+     *
+     * @param indices Ascending 0-based indices the tasks will have once inserted.
+     * @param added Tasks to insert, in the same order as {@code indices}.
+     */
+    public void addAll(int[] indices, List<Task> added) {
+        assert indices.length == added.size() : "Every inserted task needs an index";
+        if (indices.length == 1) {
+            add(indices[0], added.get(0));
+            return;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            int newSize = tasks.size() + indices.length;
+            assert indices.length == 0 || indices[indices.length - 1] < newSize : "Index out of bounds for add";
+            dropIndexesIfMostChange(indices.length, newSize);
+            int src = tasks.size() - 1;
+            for (int i = 0; i < indices.length; i++) {
+                tasks.add(null);
+            }
+            int next = indices.length - 1;
+            for (int dst = newSize - 1; next >= 0; dst--) {
+                tasks.set(dst, indices[next] == dst ? added.get(next--) : tasks.get(src--));
+            }
+            renumber();
+            for (Task t : added) {
+                attach(t);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes several tasks as one change, compacting the list in a single pass.
+     *
+     * @param indices Ascending 0-based indices of the tasks to remove.
+     * @return The removed tasks, in list order.
+     */
+    public ArrayList<Task> removeAll(int[] indices) {
+        if (indices.length == 1) {
+            ArrayList<Task> removed = new ArrayList<>(1);
+            removed.add(remove(indices[0]));
+            return removed;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            ArrayList<Task> removed = new ArrayList<>(indices.length);
+            if (indices.length == 0) {
+                return removed;
+            }
+            assert indices[indices.length - 1] < tasks.size() : "Index out of bounds for remove";
+            dropIndexesIfMostChange(indices.length, tasks.size());
+            int kept = indices[0];
+            int next = 0;
+            for (int i = indices[0]; i < tasks.size(); i++) {
+                Task t = tasks.get(i);
+                if (next < indices.length && indices[next] == i) {
+                    next++;
+                    t.owner = null;
+                    ids.remove(t.id);
+                    stats.remove(t);
+                    removeFromIndexes(t);
+                    removed.add(t);
+                } else {
+                    tasks.set(kept++, t);
+                }
+            }
+            tasks.subList(kept, tasks.size()).clear();
+            version++;
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Marks or unmarks several tasks as one change.
+     *
+     * @param indices 0-based indices of the tasks.
+     * @param isMarked New completion status.
+     */
+    public void setStatusAll(int[] indices, boolean isMarked) {
+        long stamp = lock.writeLock();
+        try {
+            for (int index : indices) {
+                Task t = tasks.get(index);
+                if (t.applyStatus(isMarked)) {
+                    stats.markChanged(t);
+                }
+            }
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     /**
@@ -71,6 +258,54 @@ public class TaskList {
         return tasks.get(index);
     }
 
+    /**
+     * Returns the task with the given ID.
+     *
+     * @param id Task ID.
+     * @return The task, or {@code null} if no task in this list has that ID.
+     */
+    public Task getById(long id) {
+        return ids.get(id);
+    }
+
+    /**
+     * Returns the position of the task with the given ID. The task is found by its ID in constant time,
+     * and its position by a binary search over the order keys.
+     *
+     * @param id Task ID.
+     * @return 0-based index of the task, or {@code -1} if no task in this list has that ID.
+     */
+    public int indexOfId(long id) {
+        Task t = ids.get(id);
+        if (t == null) {
+            return -1;
+        }
+        int lo = 0;
+        int hi = tasks.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long key = tasks.get(mid).orderKey;
+            if (key < t.orderKey) {
+                lo = mid + 1;
+            } else if (key > t.orderKey) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        throw new AssertionError("Task with ID " + id + " is not in list order");
+    }
+
+    /**
+     * Returns whether some tasks had no saved ID (or a duplicate one) when this list was created, so that
+     * their new IDs only last if the list is saved in full.
+     *
+     * @return {@code true} if IDs were assigned to existing tasks.
+     */
+    public boolean hadMissingIds() {
+        return hadMissingIds;
+    }
+
     /**
      * Returns the number of tasks in the list.
      *
@@ -81,32 +316,358 @@ public class TaskList {
     }
 
     /**
-     * Returns tasks whose descriptions contain the given keyword (case-insensitive).
+     * Returns tasks whose descriptions contain the given keyword (case-insensitive), in list order.
+     *
+     * <p>Keywords of at least {@link SearchIndex#GRAM_LENGTH} characters are answered by the
+     * {@link SearchIndex}; shorter ones match most tasks anyway and are found by scanning.</p>
      *
      * @param keyword Keyword to search for.
      * @return Matching tasks.
      */
     public ArrayList<Task> find(String keyword) {
         assert keyword != null : "Find keyword must not be null";
-        ArrayList<Task> matches = new ArrayList<>();
         String target = keyword.toLowerCase();
+        long stamp = lock.readLock();
+        try {
+            if (target.length() >= SearchIndex.GRAM_LENGTH) {
+                if (searchIndex == null) {
+                    stamp = toWriteLock(stamp);
+                    if (searchIndex == null) {
+                        SearchIndex index = new SearchIndex();
+                        for (Task t : tasks) {
+                            index.add(t);
+                        }
+                        searchIndex = index;
+                    }
+                }
+                return searchIndex.find(target);
+            }
 
-        for (Task t : tasks) {
-            if (t.getDescription().toLowerCase().contains(target)) {
-                matches.add(t);
+            ArrayList<Task> matches = new ArrayList<>();
+            for (Task t : tasks) {
+                if (t.getDescription().toLowerCase().contains(target)) {
+                    matches.add(t);
+                }
             }
+            return matches;
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    /**
+     * Returns deadlines due on or before the given date, ordered by due date.
+     *
+     * @param date Last due date to include.
+     * @return Matching deadlines.
+     */
+    public ArrayList<Task> dueBy(LocalDate date) {
+        assert date != null : "Date must not be null";
+        long stamp = lock.readLock();
+        try {
+            stamp = buildDateIndex(stamp);
+            return dateIndex.dueBy(date);
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    /**
+     * Returns deadlines due and events starting within the given dates (inclusive), ordered by date.
+     *
+     * @param from First date to include.
+     * @param to Last date to include.
+     * @return Matching tasks.
+     */
+    public ArrayList<Task> between(LocalDate from, LocalDate to) {
+        assert from != null && to != null : "Dates must not be null";
+        long stamp = lock.readLock();
+        try {
+            stamp = buildDateIndex(stamp);
+            return dateIndex.between(from, to);
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    /**
+     * Returns the events whose time range overlaps the given range, ordered by start time.
+     *
+     * @param from Start of the range (inclusive).
+     * @param to End of the range (exclusive).
+     * @return Overlapping events.
+     */
+    public ArrayList<Event> overlapping(LocalDateTime from, LocalDateTime to) {
+        assert from != null && to != null : "Range must not be null";
+        long stamp = lock.readLock();
+        try {
+            stamp = buildEventTree(stamp);
+            return eventTree.overlapping(from, to);
+        } finally {
+            lock.unlock(stamp);
         }
-        return matches;
     }
 
     /**
      * Returns the underlying list of tasks as a {@link List}.
      *
-     * <p>This is mainly used when saving tasks to storage.</p>
+     * <p>This is mainly used when saving tasks to storage, and may only be used by the writing thread;
+     * other threads should save a {@link #snapshot()} instead.</p>
      *
      * @return Backing list of tasks.
      */
     public List<Task> asList() {
         return tasks;
     }
+
+    /**
+     * Returns the live statistics of this list. Only the writing thread may use them; other threads
+     * should use the statistics of a {@link #snapshot()}.
+     *
+     * @return Statistics that stay up to date as the list changes.
+     */
+    public TaskStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Runs the given reader on the live statistics under the read lock, so that it sees them (and the size
+     * of the list) as of one version without the copy a {@link #snapshot()} would make after every change.
+     *
+     * @param reader Reads the statistics; must not keep them or change the list.
+     * @param <R> Type of the result.
+     * @return Result of the reader.
+     */
+    public <R> R readStats(Function<TaskStats, R> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.apply(stats);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns an immutable view of the list as of the latest change. Can be called from any thread.
+     *
+     * <p>Snapshots are taken lazily and shared: if no change was made since the last snapshot, that
+     * snapshot is returned without locking. Otherwise the tasks are copied under the read lock, which
+     * holds up the writer only for the duration of the copy.</p>
+     *
+     * @return Snapshot of the current version.
+     */
+    public Snapshot snapshot() {
+        Snapshot s = published;
+        long stamp = lock.tryOptimisticRead();
+        if (s != null && s.version == version && lock.validate(stamp)) {
+            return s;
+        }
+
+        stamp = lock.readLock();
+        try {
+            s = published;
+            if (s == null || s.version != version) {
+                ArrayList<Task> copies = new ArrayList<>(tasks.size());
+                for (Task t : tasks) {
+                    copies.add(t.copy());
+                }
+                s = new Snapshot(version, copies, new TaskStats(stats));
+                published = s;
+            }
+            return s;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Marks or unmarks a task in this list, updating the statistics, as one change.
+     *
+     * @param t Task in this list.
+     * @param isMarked New completion status.
+     */
+    void setStatus(Task t, boolean isMarked) {
+        assert t.owner == this : "Only tasks in this list can be marked through it";
+        long stamp = lock.writeLock();
+        try {
+            if (t.applyStatus(isMarked)) {
+                stats.markChanged(t);
+                version++;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void append(Task t) {
+        t.orderKey = tasks.isEmpty() ? 0 : tasks.get(tasks.size() - 1).orderKey + ORDER_KEY_GAP;
+        tasks.add(t);
+        attach(t);
+    }
+
+    private void attach(Task t) {
+        assert t.owner == null : "Task already belongs to a list";
+        assignId(t);
+        t.owner = this;
+        stats.add(t);
+        addToIndexes(t);
+        version++;
+    }
+
+    /**
+     * Registers a task under its ID, first giving it a new one if it has none or its ID is taken.
+     *
+     * @return {@code true} if the task got a new ID.
+     */
+    private boolean assignId(Task t) {
+        boolean isNew = t.id <= 0 || ids.get(t.id) != null;
+        if (isNew) {
+            t.id = nextId++;
+        } else {
+            nextId = Math.max(nextId, t.id + 1);
+        }
+        ids.put(t.id, t);
+        return isNew;
+    }
+
+    /**
+     * Builds the date index if needed, upgrading the given read stamp to a write stamp to do so.
+     *
+     * @return Stamp now held.
+     */
+    private long buildDateIndex(long stamp) {
+        if (dateIndex != null) {
+            return stamp;
+        }
+        stamp = toWriteLock(stamp);
+        if (dateIndex == null) {
+            DateIndex index = new DateIndex();
+            for (Task t : tasks) {
+                index.add(t);
+            }
+            dateIndex = index;
+        }
+        return stamp;
+    }
+
+    /**
+     * Builds the event tree if needed, upgrading the given read stamp to a write stamp to do so.
+     *
+     * @return Stamp now held.
+     */
+    private long buildEventTree(long stamp) {
+        if (eventTree != null) {
+            return stamp;
+        }
+        stamp = toWriteLock(stamp);
+        if (eventTree == null) {
+            IntervalTree tree = new IntervalTree();
+            for (Task t : tasks) {
+                if (t instanceof Event) {
+                    tree.add((Event) t);
+                }
+            }
+            eventTree = tree;
+        }
+        return stamp;
+    }
+
+    private long toWriteLock(long stamp) {
+        long writeStamp = lock.tryConvertToWriteLock(stamp);
+        if (writeStamp != 0) {
+            return writeStamp;
+        }
+        lock.unlockRead(stamp);
+        return lock.writeLock();
+    }
+
+    /**
+     * Drops the lazily built indexes when a change touches most of the list, as rebuilding them on the
+     * next query is cheaper than updating them task by task.
+     */
+    private void dropIndexesIfMostChange(int changed, int size) {
+        if (changed > size / 2) {
+            searchIndex = null;
+            dateIndex = null;
+            eventTree = null;
+        }
+    }
+
+    private void addToIndexes(Task t) {
+        if (searchIndex != null) {
+            searchIndex.add(t);
+        }
+        if (dateIndex != null) {
+            dateIndex.add(t);
+        }
+        if (eventTree != null && t instanceof Event) {
+            eventTree.add((Event) t);
+        }
+    }
+
+    private void removeFromIndexes(Task t) {
+        if (searchIndex != null) {
+            searchIndex.remove(t);
+        }
+        if (dateIndex != null) {
+            dateIndex.remove(t);
+        }
+        if (eventTree != null && t instanceof Event) {
+            eventTree.remove((Event) t);
+        }
+    }
+
+    /**
+     * Reassigns evenly spaced order keys to all tasks.
+     */
+    private void renumber() {
+        long key = 0;
+        for (Task t : tasks) {
+            t.orderKey = key;
+            key += ORDER_KEY_GAP;
+        }
+    }
+
+    /**
+     * An immutable copy of a {@link TaskList} at one version. The tasks are copies, so they keep their
+     * completion status even if the list's tasks are marked later; they must not be changed.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final List<Task> tasks;
+        private final TaskStats stats;
+
+        private Snapshot(long version, ArrayList<Task> tasks, TaskStats stats) {
+            this.version = version;
+            this.tasks = Collections.unmodifiableList(tasks);
+            this.stats = stats;
+        }
+
+        /**
+         * Returns the version of the list this snapshot was taken at. Versions increase with every change.
+         *
+         * @return Version number.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Returns the tasks in list order.
+         *
+         * @return Unmodifiable list of task copies.
+         */
+        public List<Task> getTasks() {
+            return tasks;
+        }
+
+        /**
+         * Returns the statistics of the list at this version.
+         *
+         * @return Statistics; must not be changed.
+         */
+        public TaskStats getStats() {
+            return stats;
+        }
+    }
 }
@@ -0,0 +1,208 @@
+package duke;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Live statistics of a {@link TaskList}, updated on every change so that reading them takes constant time.
+ *
+ * <p>Besides counts by type and completion status, it keeps histograms of deadlines and events per day
+ * and per month (by due date for deadlines and by start date for events), and the number of tasks with
+ * each description so that duplicates can be spotted in constant time. The days are also grouped by
+ * their number of tasks, so the busiest day is found without scanning the day histogram.</p>
+ */
+public class TaskStats {
+    private int todoCount;
+    private int deadlineCount;
+    private int eventCount;
+    private int doneCount;
+
+    private final HashMap<LocalDate, Integer> perDay = new HashMap<>();
+    private final TreeMap<YearMonth, Integer> perMonth = new TreeMap<>();
+    private final HashMap<String, Integer> perDescription = new HashMap<>();
+    private final TreeMap<Integer, TreeSet<LocalDate>> daysByCount = new TreeMap<>();
+
+    /**
+     * Creates statistics of an empty list.
+     */
+    public TaskStats() {
+    }
+
+    /**
+     * Creates an independent copy of the given statistics.
+     *
+     * @param other Statistics to copy.
+     */
+    public TaskStats(TaskStats other) {
+        todoCount = other.todoCount;
+        deadlineCount = other.deadlineCount;
+        eventCount = other.eventCount;
+        doneCount = other.doneCount;
+        perDay.putAll(other.perDay);
+        perMonth.putAll(other.perMonth);
+        perDescription.putAll(other.perDescription);
+        for (Map.Entry<Integer, TreeSet<LocalDate>> entry : other.daysByCount.entrySet()) {
+            daysByCount.put(entry.getKey(), new TreeSet<>(entry.getValue()));
+        }
+    }
+
+    /**
+     * Counts a task that was added to the list.
+     *
+     * @param t Added task.
+     */
+    public void add(Task t) {
+        update(t, 1);
+    }
+
+    /**
+     * Stops counting a task that was removed from the list.
+     *
+     * @param t Removed task.
+     */
+    public void remove(Task t) {
+        update(t, -1);
+    }
+
+    /**
+     * Updates the done count after a task in the list was marked or unmarked.
+     *
+     * @param t Task whose completion status just changed.
+     */
+    public void markChanged(Task t) {
+        doneCount += t.isMarked() ? 1 : -1;
+    }
+
+    /**
+     * Returns the number of todos.
+     *
+     * @return Current count.
+     */
+    public int getTodoCount() {
+        return todoCount;
+    }
+
+    /**
+     * Returns the number of deadlines.
+     *
+     * @return Current count.
+     */
+    public int getDeadlineCount() {
+        return deadlineCount;
+    }
+
+    /**
+     * Returns the number of events.
+     *
+     * @return Current count.
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns the number of tasks marked as done.
+     *
+     * @return Current count.
+     */
+    public int getDoneCount() {
+        return doneCount;
+    }
+
+    /**
+     * Returns the number of deadlines and events per month, in chronological order.
+     *
+     * @return Read-only month histogram.
+     */
+    public NavigableMap<YearMonth, Integer> getMonthHistogram() {
+        return Collections.unmodifiableNavigableMap(perMonth);
+    }
+
+    /**
+     * Returns the number of deadlines and events per day.
+     *
+     * @return Read-only day histogram.
+     */
+    public Map<LocalDate, Integer> getDayHistogram() {
+        return Collections.unmodifiableMap(perDay);
+    }
+
+    /**
+     * Returns the day with the most deadlines and events, the earliest one if several tie.
+     *
+     * @return Busiest day, or {@code null} if there are no deadlines or events.
+     */
+    public LocalDate getBusiestDay() {
+        return daysByCount.isEmpty() ? null : daysByCount.lastEntry().getValue().first();
+    }
+
+    /**
+     * Returns the number of deadlines and events on the {@linkplain #getBusiestDay() busiest day}.
+     *
+     * @return Task count, or {@code 0} if there are no deadlines or events.
+     */
+    public int getBusiestDayCount() {
+        return daysByCount.isEmpty() ? 0 : daysByCount.lastKey();
+    }
+
+    /**
+     * Returns the number of tasks with exactly the given description.
+     *
+     * @param description Description to look up.
+     * @return Current count; {@code 0} if there is no such task.
+     */
+    public int getDescriptionCount(String description) {
+        return perDescription.getOrDefault(description, 0);
+    }
+
+    private void update(Task t, int delta) {
+        if (t.isMarked()) {
+            doneCount += delta;
+        }
+        adjust(perDescription, t.getDescription(), delta);
+
+        LocalDate date = null;
+        if (t instanceof Todo) {
+            todoCount += delta;
+        } else if (t instanceof Deadline) {
+            deadlineCount += delta;
+            date = ((Deadline) t).getBy();
+        } else if (t instanceof Event) {
+            eventCount += delta;
+            date = ((Event) t).getFrom().toLocalDate();
+        }
+
+        if (date != null) {
+            int oldCount = perDay.getOrDefault(date, 0);
+            adjust(perDay, date, delta);
+            adjust(perMonth, YearMonth.from(date), delta);
+            moveDay(date, oldCount, oldCount + delta);
+        }
+    }
+
+    /**
+     * Moves a day from the group of days with {@code from} tasks to the group with {@code to} tasks.
+     */
+    private void moveDay(LocalDate date, int from, int to) {
+        if (from > 0) {
+            TreeSet<LocalDate> days = daysByCount.get(from);
+            days.remove(date);
+            if (days.isEmpty()) {
+                daysByCount.remove(from);
+            }
+        }
+        if (to > 0) {
+            daysByCount.computeIfAbsent(to, k -> new TreeSet<>()).add(date);
+        }
+    }
+
+    private static <K> void adjust(Map<K, Integer> histogram, K key, int delta) {
+        histogram.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+}
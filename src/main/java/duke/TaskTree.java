@@ -0,0 +1,255 @@
+package duke;
+
+import java.util.List;
+
+/**
+ * Immutable, indexed sequence of tasks together with their completion status.
+ *
+ * <p>Tasks are kept in an AVL tree ordered by position, where every node also stores the size of its
+ * subtree. Changes copy only the path from the root to the changed node and return a new tree that
+ * shares every other node with this one, so a change takes {@code O(log n)} time and memory and older
+ * versions stay valid. Completion status is stored in the tree rather than read from the tasks, so each
+ * version remembers which tasks were done at the time.</p>
+ */
+public final class TaskTree {
+    /**
+     * The tree holding no tasks.
+     */
+    public static final TaskTree EMPTY = new TaskTree(null);
+
+    private final Node root;
+
+    private TaskTree(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns a tree holding the given tasks, in order, with their current completion status.
+     *
+     * @param tasks Tasks to hold.
+     * @return Balanced tree of the tasks.
+     */
+    public static TaskTree of(List<Task> tasks) {
+        assert tasks != null : "Tasks must not be null";
+        return new TaskTree(build(tasks, 0, tasks.size()));
+    }
+
+    /**
+     * Returns the number of tasks in this tree.
+     *
+     * @return Task count.
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the task at the given position.
+     *
+     * @param index 0-based position.
+     * @return Task at that position.
+     */
+    public Task get(int index) {
+        return find(index).task;
+    }
+
+    /**
+     * Returns whether the task at the given position was done in this version.
+     *
+     * @param index 0-based position.
+     * @return {@code true} if the task was marked as done.
+     */
+    public boolean isMarked(int index) {
+        return find(index).isMarked;
+    }
+
+    /**
+     * Returns a tree with the given task inserted at the given position.
+     *
+     * @param index 0-based position to insert at; may equal {@link #size()} to append.
+     * @param t Task to insert.
+     * @param isMarked Completion status of the task.
+     * @return New tree; this tree is unchanged.
+     */
+    public TaskTree insert(int index, Task t, boolean isMarked) {
+        assert t != null : "Cannot insert null task";
+        assert index >= 0 && index <= size() : "Index out of bounds for insert";
+        return new TaskTree(insert(root, index, t, isMarked));
+    }
+
+    /**
+     * Returns a tree without the task at the given position.
+     *
+     * @param index 0-based position to remove.
+     * @return New tree; this tree is unchanged.
+     */
+    public TaskTree remove(int index) {
+        assert index >= 0 && index < size() : "Index out of bounds for remove";
+        return new TaskTree(remove(root, index));
+    }
+
+    /**
+     * Returns a tree in which the task at the given position has the given completion status.
+     *
+     * @param index 0-based position.
+     * @param isMarked New completion status.
+     * @return New tree; this tree is unchanged.
+     */
+    public TaskTree withStatus(int index, boolean isMarked) {
+        assert index >= 0 && index < size() : "Index out of bounds for status change";
+        return new TaskTree(withStatus(root, index, isMarked));
+    }
+
+    /**
+     * Returns a tree without the tasks at the given positions, in {@code O(k log n)} for {@code k} positions.
+     *
+     * @param indices Ascending 0-based positions to remove.
+     * @return New tree; this tree is unchanged.
+     */
+    public TaskTree removeAll(int[] indices) {
+        Node node = root;
+        for (int i = indices.length - 1; i >= 0; i--) {
+            assert indices[i] >= 0 && indices[i] < size(node) : "Index out of bounds for remove";
+            node = remove(node, indices[i]);
+        }
+        return new TaskTree(node);
+    }
+
+    /**
+     * Returns a tree in which the tasks at the given positions have the given completion status.
+     *
+     * @param indices 0-based positions.
+     * @param isMarked New completion status.
+     * @return New tree; this tree is unchanged.
+     */
+    public TaskTree withStatusAll(int[] indices, boolean isMarked) {
+        Node node = root;
+        for (int index : indices) {
+            assert index >= 0 && index < size() : "Index out of bounds for status change";
+            node = withStatus(node, index, isMarked);
+        }
+        return new TaskTree(node);
+    }
+
+    private Node find(int index) {
+        assert index >= 0 && index < size() : "Index out of bounds for get";
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private static Node build(List<Task> tasks, int from, int to) {
+        if (from == to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        Task t = tasks.get(mid);
+        return new Node(build(tasks, from, mid), t, t.isMarked(), build(tasks, mid + 1, to));
+    }
+
+    private static Node insert(Node node, int index, Task t, boolean isMarked) {
+        if (node == null) {
+            return new Node(null, t, isMarked, null);
+        }
+        int leftSize = size(node.left);
+        if (index <= leftSize) {
+            return balance(insert(node.left, index, t, isMarked), node.task, node.isMarked, node.right);
+        }
+        return balance(node.left, node.task, node.isMarked, insert(node.right, index - leftSize - 1, t, isMarked));
+    }
+
+    private static Node remove(Node node, int index) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return balance(remove(node.left, index), node.task, node.isMarked, node.right);
+        }
+        if (index > leftSize) {
+            return balance(node.left, node.task, node.isMarked, remove(node.right, index - leftSize - 1));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+
+        Node first = node.right;
+        while (first.left != null) {
+            first = first.left;
+        }
+        return balance(node.left, first.task, first.isMarked, remove(node.right, 0));
+    }
+
+    private static Node withStatus(Node node, int index, boolean isMarked) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return new Node(withStatus(node.left, index, isMarked), node.task, node.isMarked, node.right);
+        }
+        if (index > leftSize) {
+            Node right = withStatus(node.right, index - leftSize - 1, isMarked);
+            return new Node(node.left, node.task, node.isMarked, right);
+        }
+        return node.isMarked == isMarked ? node : new Node(node.left, node.task, isMarked, node.right);
+    }
+
+    /**
+     * Joins two subtrees whose heights differ by at most two under a new node, rotating if needed.
+     */
+    private static Node balance(Node left, Task t, boolean isMarked, Node right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node(left.left, left.task, left.isMarked, new Node(left.right, t, isMarked, right));
+            }
+            Node pivot = left.right;
+            return new Node(new Node(left.left, left.task, left.isMarked, pivot.left), pivot.task, pivot.isMarked,
+                    new Node(pivot.right, t, isMarked, right));
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node(new Node(left, t, isMarked, right.left), right.task, right.isMarked, right.right);
+            }
+            Node pivot = right.left;
+            return new Node(new Node(left, t, isMarked, pivot.left), pivot.task, pivot.isMarked,
+                    new Node(pivot.right, right.task, right.isMarked, right.right));
+        }
+        return new Node(left, t, isMarked, right);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * An immutable tree node holding one task and its completion status.
+     */
+    private static class Node {
+        private final Node left;
+        private final Node right;
+        private final Task task;
+        private final boolean isMarked;
+        private final int size;
+        private final int height;
+
+        Node(Node left, Task task, boolean isMarked, Node right) {
+            this.left = left;
+            this.right = right;
+            this.task = task;
+            this.isMarked = isMarked;
+            this.size = size(left) + size(right) + 1;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+}
@@ -14,14 +14,19 @@ public class Todo extends Task {
         super(description);
     }
 
+    @Override
+    public Task copy() {
+        return copyStatusTo(new Todo(getDescription()));
+    }
+
     /**
      * Returns the string representation of this todo task for display to the user.
      *
      * @return Formatted todo string.
      */
     @Override
-    public String toString() {
-        return "[T]" + super.toString();
+    protected String render() {
+        return "[T]" + super.render();
     }
 
 }
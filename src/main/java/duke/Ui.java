@@ -1,5 +1,10 @@
 package duke;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Scanner;
 
@@ -62,12 +67,32 @@ public class Ui {
      * @param tasks Task list to display.
      */
     public void showList(TaskList tasks) {
-        System.out.println(LINE);
-        System.out.println("Here are the tasks in your list:");
-        for (int i = 0; i < tasks.size(); i++) {
-            System.out.println((i + 1) + ". " + tasks.get(i));
+        showList(tasks, 0, tasks.size());
+    }
+
+    /**
+     * Displays the tasks in {@code [from, to)}, streaming them to standard output so that memory use
+     * does not depend on the number of tasks shown.
+     *
+     * @param tasks Task list to display.
+     * @param from 0-based index of the first task to display.
+     * @param to 0-based index one past the last task to display.
+     */
+    public void showList(TaskList tasks, int from, int to) {
+        // not closed, as that would close System.out
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()));
+        try {
+            out.write(LINE);
+            out.write('\n');
+            out.write(ListRenderer.header(from, to, tasks.size()));
+            ListRenderer.render(tasks, from, to, out);
+            out.write('\n');
+            out.write(LINE);
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            showError("I had trouble printing your tasks.");
         }
-        System.out.println(LINE);
     }
 
     /**
@@ -0,0 +1,200 @@
+package duke.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simulates many concurrent users of a {@link SuuServer} and reports throughput and latency.
+ *
+ * <p>Each simulated user opens its own connection, waits until every user is connected, then sends its
+ * commands back to back: mostly adds, with {@code list 1}, {@code find} and {@code mark} in between.
+ * Usage: {@code LoadClient [--port N] [--users N] [--commands N] [--prefix name]}.</p>
+ */
+public class LoadClient {
+    private static final String[] WORDS = {"report", "meeting", "book", "gym", "groceries", "project", "email"};
+
+    private final int port;
+    private final int users;
+    private final int commands;
+    private final String prefix;
+
+    /**
+     * Creates a client for a server on the loopback address.
+     *
+     * @param port Server port.
+     * @param users Number of simulated users, each with its own connection.
+     * @param commands Number of commands each user sends after connecting.
+     * @param prefix Prefix of the simulated user names, followed by the user number.
+     */
+    public LoadClient(int port, int users, int commands, String prefix) {
+        assert users > 0 && commands > 0 : "Users and commands must be positive";
+        this.port = port;
+        this.users = users;
+        this.commands = commands;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Runs a load test with the options given on the command line and prints the results.
+     *
+     * @param args Optional {@code --port N}, {@code --users N}, {@code --commands N} and {@code --prefix name}.
+     * @throws InterruptedException If interrupted while waiting for the simulated users.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = SuuServer.DEFAULT_PORT;
+        int users = 1000;
+        int commands = 100;
+        String prefix = "load";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+            case "--port":
+                port = Integer.parseInt(args[i + 1]);
+                break;
+            case "--users":
+                users = Integer.parseInt(args[i + 1]);
+                break;
+            case "--commands":
+                commands = Integer.parseInt(args[i + 1]);
+                break;
+            case "--prefix":
+                prefix = args[i + 1];
+                break;
+            default:
+                System.err.println("Unknown option: " + args[i]);
+                System.exit(1);
+            }
+        }
+        System.out.println(new LoadClient(port, users, commands, prefix).run());
+    }
+
+    /**
+     * Runs every simulated user to completion.
+     *
+     * @return Summary of throughput and latency.
+     * @throws InterruptedException If interrupted while waiting for the simulated users.
+     */
+    public String run() throws InterruptedException {
+        long[][] latencies = new long[users][];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch connected = new CountDownLatch(users);
+        CountDownLatch done = new CountDownLatch(users);
+
+        ExecutorService executor = SuuServer.newPerTaskExecutor("suu-load");
+        for (int u = 0; u < users; u++) {
+            int user = u;
+            executor.execute(() -> {
+                try {
+                    latencies[user] = simulate(prefix + user, connected);
+                } catch (IOException | RuntimeException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        connected.await();
+        long start = System.nanoTime();
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        int count = 0;
+        for (long[] l : latencies) {
+            count += l == null ? 0 : l.length;
+        }
+        long[] all = new long[count];
+        int at = 0;
+        for (long[] l : latencies) {
+            if (l != null) {
+                System.arraycopy(l, 0, all, at, l.length);
+                at += l.length;
+            }
+        }
+        Arrays.sort(all);
+
+        return String.format("%d users, %d requests in %.2f s: %.0f req/s, p50 %.2f ms, p99 %.2f ms, max %.2f ms"
+                        + ", %d failed user(s)",
+                users, count, elapsed / 1e9, count / (elapsed / 1e9),
+                millis(percentile(all, 0.50)), millis(percentile(all, 0.99)), millis(percentile(all, 1.0)),
+                failures.get());
+    }
+
+    private long[] simulate(String user, CountDownLatch connected) throws IOException {
+        boolean isConnected = false;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+            send(out, in, "user " + user);
+            isConnected = true;
+            connected.countDown();
+            try {
+                connected.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted before starting", e);
+            }
+
+            long[] latencies = new long[commands];
+            for (int i = 0; i < commands; i++) {
+                long start = System.nanoTime();
+                send(out, in, command(i));
+                latencies[i] = System.nanoTime() - start;
+            }
+            return latencies;
+        } finally {
+            if (!isConnected) {
+                connected.countDown();
+            }
+        }
+    }
+
+    private static String command(int i) {
+        String word = WORDS[i % WORDS.length];
+        switch (i % 8) {
+        case 3:
+            return "list 1";
+        case 5:
+            return "find " + word;
+        case 7:
+            return "mark " + (i / 8 + 1);
+        default:
+            return "todo " + word + " " + i;
+        }
+    }
+
+    private static void send(Writer out, BufferedReader in, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+        if (SuuServer.readResponse(in) == null) {
+            throw new IOException("Connection closed by the server");
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,199 @@
+package duke.server;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import duke.Durability;
+import duke.Storage;
+import duke.Suu;
+
+/**
+ * Keeps one {@link Suu} instance per user, each saving to its own folder under a common data folder.
+ *
+ * <p>A user's tasks are loaded on their first command and dropped from memory again once the user has
+ * been idle for the configured time. Commands for the same user run one at a time, in the order they
+ * arrived, even when they come from several connections; commands for different users run in parallel.</p>
+ */
+public class SessionPool implements AutoCloseable {
+    /**
+     * Allowed user names; also used as folder names, so they must not contain path separators.
+     */
+    private static final Pattern USER_NAME = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+    private final File dataDir;
+    private final long idleNanos;
+    private final Durability durability;
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "suu-session-sweeper");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Creates a pool that keeps each user's tasks in {@code dataDir/<user>/Suu.txt}.
+     *
+     * @param dataDir Folder holding one sub-folder per user.
+     * @param idleMillis Time without commands after which a user's session is evicted.
+     */
+    public SessionPool(String dataDir, long idleMillis) {
+        this(dataDir, idleMillis, Storage.DEFAULT_DURABILITY);
+    }
+
+    /**
+     * Creates a pool that keeps each user's tasks in {@code dataDir/<user>/Suu.txt}, saved with the given
+     * durability level.
+     *
+     * @param dataDir Folder holding one sub-folder per user.
+     * @param idleMillis Time without commands after which a user's session is evicted.
+     * @param durability When each user's writes are forced to the device.
+     */
+    public SessionPool(String dataDir, long idleMillis, Durability durability) {
+        assert dataDir != null : "Data folder must not be null";
+        assert idleMillis > 0 : "Idle timeout must be positive";
+        assert durability != null : "Durability must not be null";
+        this.dataDir = new File(dataDir);
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.durability = durability;
+        long sweepMillis = Math.max(1, idleMillis / 2);
+        sweeper.scheduleWithFixedDelay(() -> evictIdle(System.nanoTime()), sweepMillis, sweepMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns whether the given name can be used as a user name.
+     *
+     * @param user Candidate user name.
+     * @return {@code true} if it is 1 to 32 letters, digits, underscores or hyphens.
+     */
+    public static boolean isValidUser(String user) {
+        return user != null && USER_NAME.matcher(user).matches();
+    }
+
+    /**
+     * Returns the welcome message for the given user, loading their tasks if needed.
+     *
+     * @param user Valid user name.
+     * @return Welcome message, including any error from loading the user's tasks.
+     */
+    public String getWelcome(String user) {
+        return withSession(user, Suu::getWelcome);
+    }
+
+    /**
+     * Runs one command for the given user, after every command for that user that arrived earlier.
+     *
+     * @param user Valid user name.
+     * @param input Full user input line.
+     * @return Suu's response.
+     */
+    public String getResponse(String user, String input) {
+        return withSession(user, suu -> suu.getResponse(input));
+    }
+
+    /**
+     * Returns the number of users whose tasks are currently held in memory.
+     *
+     * @return Number of sessions.
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Evicts every session that has been idle for at least the configured time and is not in use.
+     * Called periodically by a background thread.
+     *
+     * @param now Current {@link System#nanoTime()}.
+     * @return Number of sessions evicted.
+     */
+    int evictIdle(long now) {
+        int evicted = 0;
+        for (Session session : sessions.values()) {
+            if (now - session.lastUsed < idleNanos || !session.lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (!session.isClosed && now - session.lastUsed >= idleNanos) {
+                    session.close();
+                    sessions.remove(session.user, session);
+                    evicted++;
+                }
+            } finally {
+                session.lock.unlock();
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Stops evicting sessions and closes every session, waiting for commands that are still running.
+     */
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+        for (Session session : sessions.values()) {
+            session.lock.lock();
+            try {
+                session.close();
+            } finally {
+                session.lock.unlock();
+            }
+        }
+        sessions.clear();
+    }
+
+    private <T> T withSession(String user, Function<Suu, T> action) {
+        assert isValidUser(user) : "Invalid user name";
+        while (true) {
+            Session session = sessions.computeIfAbsent(user, Session::new);
+            session.lock.lock();
+            try {
+                if (session.isClosed) {
+                    // evicted between the lookup and the lock; a fresh session replaces it
+                    continue;
+                }
+                if (session.suu == null) {
+                    Storage storage = new Storage(new File(dataDir, user).getPath(), "Suu.txt",
+                            Storage.DEFAULT_COMPACT_THRESHOLD);
+                    storage.setDurability(durability);
+                    session.suu = new Suu(storage, false);
+                }
+                T result = action.apply(session.suu);
+                session.lastUsed = System.nanoTime();
+                return result;
+            } finally {
+                session.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * One user's Suu instance. All fields except {@link #lastUsed} are guarded by {@link #lock}, which is fair so
+     * that commands run in arrival order.
+     */
+    private static class Session {
+        private final String user;
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private volatile long lastUsed = System.nanoTime();
+        private Suu suu;
+        private boolean isClosed;
+
+        Session(String user) {
+            this.user = user;
+        }
+
+        void close() {
+            isClosed = true;
+            if (suu != null) {
+                suu.close();
+            }
+        }
+    }
+}
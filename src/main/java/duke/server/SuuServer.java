@@ -0,0 +1,281 @@
+package duke.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import duke.CommandType;
+import duke.Durability;
+import duke.ParsedCommand;
+import duke.Storage;
+import duke.SuuException;
+
+/**
+ * Serves many users from one JVM over a line protocol on a local TCP socket.
+ *
+ * <p>A client opens with {@code user <name>}, then sends one command per line. Every response is sent as
+ * its lines followed by a line holding a single {@code .}; response lines that start with {@code .} get an
+ * extra {@code .} in front. The connection is closed after {@code bye}. Each connection is handled on its
+ * own virtual thread when the JVM supports them, and on a pooled platform thread otherwise. Commands are run
+ * by a {@link SessionPool}. Usage:
+ * {@code SuuServer [--port N] [--data folder] [--idle-seconds S] [--durability none|interval|every-commit]}.</p>
+ */
+public class SuuServer implements AutoCloseable {
+    /**
+     * Port used when none is given.
+     */
+    public static final int DEFAULT_PORT = 4545;
+
+    /**
+     * Seconds without commands after which a user's tasks are dropped from memory, when not configured.
+     */
+    public static final int DEFAULT_IDLE_SECONDS = 300;
+
+    static final String END_OF_RESPONSE = ".";
+    private static final String USER_COMMAND = "user ";
+    private static final int BACKLOG = 4096;
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+    private final SessionPool sessions;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = newPerTaskExecutor("suu-connection");
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+
+    /**
+     * Creates a server listening on the loopback address. Call {@link #start()} to accept connections.
+     *
+     * @param port Port to listen on, or {@code 0} for any free port.
+     * @param sessions Sessions to run commands in; closed together with the server.
+     * @throws IOException If the port cannot be bound.
+     */
+    public SuuServer(int port, SessionPool sessions) throws IOException {
+        assert sessions != null : "Session pool must not be null";
+        this.sessions = sessions;
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        this.acceptor = new Thread(this::acceptConnections, "suu-acceptor");
+    }
+
+    /**
+     * Starts the server with the options given on the command line and runs until the JVM is stopped.
+     *
+     * @param args Optional {@code --port N}, {@code --data folder}, {@code --idle-seconds S} and
+     *     {@code --durability level}.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        String dataDir = "data/users";
+        int idleSeconds = DEFAULT_IDLE_SECONDS;
+        Durability durability = Storage.DEFAULT_DURABILITY;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+            case "--port":
+                port = Integer.parseInt(args[i + 1]);
+                break;
+            case "--data":
+                dataDir = args[i + 1];
+                break;
+            case "--idle-seconds":
+                idleSeconds = Integer.parseInt(args[i + 1]);
+                break;
+            case "--durability":
+                try {
+                    durability = Durability.fromWord(args[i + 1]);
+                } catch (SuuException e) {
+                    System.err.println(e.getMessage());
+                    System.exit(1);
+                }
+                break;
+            default:
+                System.err.println("Unknown option: " + args[i]);
+                System.exit(1);
+            }
+        }
+
+        SuuServer server = new SuuServer(port,
+                new SessionPool(dataDir, TimeUnit.SECONDS.toMillis(idleSeconds), durability));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        server.start();
+        System.out.println("Suu is listening on " + server.getPort() + ", saving to " + dataDir);
+    }
+
+    /**
+     * Starts accepting connections in the background.
+     */
+    public void start() {
+        acceptor.start();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return Local port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stops accepting connections, drops the open ones and closes every session.
+     */
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // nothing more to release
+        }
+        for (Socket socket : openSockets) {
+            closeQuietly(socket);
+        }
+        connections.shutdown();
+        try {
+            connections.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sessions.close();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                openSockets.add(socket);
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                // the server socket was closed, or a connection failed before it was accepted
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+            String first = in.readLine();
+            String user = first != null && first.startsWith(USER_COMMAND)
+                    ? first.substring(USER_COMMAND.length()).trim()
+                    : null;
+            if (!SessionPool.isValidUser(user)) {
+                writeResponse(out, "Oops! Start with: user <name> (letters, digits, _ or -, at most 32).");
+                return;
+            }
+            writeResponse(out, sessions.getWelcome(user));
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String response;
+                try {
+                    response = sessions.getResponse(user, line);
+                } catch (RuntimeException e) {
+                    response = "Oops! Something went wrong: " + e.getMessage();
+                }
+                writeResponse(out, response);
+                if (ParsedCommand.of(line).getType() == CommandType.BYE) {
+                    return;
+                }
+            }
+        } catch (SocketException e) {
+            // the client went away, or the server is closing
+        } catch (IOException e) {
+            System.err.println("Connection failed: " + e.getMessage());
+        } finally {
+            openSockets.remove(socket);
+        }
+    }
+
+    /**
+     * Writes one framed response and flushes it.
+     *
+     * @param out Connection to write to.
+     * @param response Response text, possibly spanning several lines.
+     * @throws IOException If writing fails.
+     */
+    static void writeResponse(Writer out, String response) throws IOException {
+        int start = 0;
+        while (start <= response.length()) {
+            int end = response.indexOf('\n', start);
+            if (end < 0) {
+                end = response.length();
+            }
+            if (start < end && response.charAt(start) == '.') {
+                out.write('.');
+            }
+            out.write(response, start, end - start);
+            out.write('\n');
+            start = end + 1;
+        }
+        out.write(END_OF_RESPONSE);
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Reads one framed response.
+     *
+     * @param in Connection to read from.
+     * @return Response text, or {@code null} if the connection was closed first.
+     * @throws IOException If reading fails.
+     */
+    static String readResponse(BufferedReader in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        boolean isFirstLine = true;
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.equals(END_OF_RESPONSE)) {
+                return sb.toString();
+            }
+            if (!isFirstLine) {
+                sb.append('\n');
+            }
+            isFirstLine = false;
+            sb.append(line.startsWith(".") ? line.substring(1) : line);
+        }
+        return null;
+    }
+
+    /**
+     * Returns an executor that runs every task on a new virtual thread, or on a cached pool of daemon
+     * platform threads if the JVM has no virtual threads.
+     *
+     * @param name Name of the platform threads.
+     * @return Executor for blocking, short-lived tasks.
+     */
+    static ExecutorService newPerTaskExecutor(String name) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+}
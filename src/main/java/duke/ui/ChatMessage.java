@@ -0,0 +1,39 @@
+package duke.ui;
+
+/**
+ * One entry of the conversation shown in the main window.
+ */
+public class ChatMessage {
+    private final String text;
+    private final boolean isUser;
+
+    /**
+     * Creates a message.
+     *
+     * @param text Message text.
+     * @param isUser Whether the user sent the message (otherwise Suu did).
+     */
+    public ChatMessage(String text, boolean isUser) {
+        assert text != null : "Message text must not be null";
+        this.text = text;
+        this.isUser = isUser;
+    }
+
+    /**
+     * Returns the message text.
+     *
+     * @return Message text.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns whether the user sent this message.
+     *
+     * @return {@code true} for user messages, {@code false} for Suu's.
+     */
+    public boolean isUser() {
+        return isUser;
+    }
+}
@@ -0,0 +1,99 @@
+package duke.ui;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import duke.Suu;
+
+/**
+ * Runs Suu commands one at a time on a background thread and hands the responses back to the UI thread,
+ * so slow commands and saves never block rendering or input.
+ *
+ * <p>After construction only the worker thread touches the {@link Suu} instance. Commands run in the order
+ * they were submitted; once a command makes Suu exit, the commands queued after it are skipped.</p>
+ */
+public class CommandPipeline implements AutoCloseable {
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+    private final Suu suu;
+    private final String welcome;
+    private final Executor uiThread;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "suu-commands");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Receives the outcome of a command on the UI thread.
+     */
+    public interface Callback {
+        /**
+         * Called once the command has run or been skipped.
+         *
+         * @param response Suu's response, or {@code null} if the command was skipped because Suu is exiting.
+         * @param isExit Whether Suu has been asked to exit.
+         */
+        void onDone(String response, boolean isExit);
+    }
+
+    /**
+     * Creates a pipeline that owns the given Suu instance.
+     *
+     * @param suu Suu instance; must not be used by the caller afterwards.
+     * @param uiThread Executor that runs callbacks on the UI thread (e.g. {@code Platform::runLater}).
+     */
+    public CommandPipeline(Suu suu, Executor uiThread) {
+        assert suu != null && uiThread != null : "Suu and UI executor must not be null";
+        this.suu = suu;
+        this.welcome = suu.getWelcome();
+        this.uiThread = uiThread;
+    }
+
+    /**
+     * Returns Suu's welcome message, captured when the pipeline was created.
+     *
+     * @return Welcome message.
+     */
+    public String getWelcome() {
+        return welcome;
+    }
+
+    /**
+     * Queues a command to run after every command submitted before it.
+     *
+     * @param input Full user input line.
+     * @param callback Receives the response on the UI thread.
+     */
+    public void submit(String input, Callback callback) {
+        worker.execute(() -> {
+            String response = null;
+            if (!suu.isExit()) {
+                try {
+                    response = suu.getResponse(input);
+                } catch (RuntimeException e) {
+                    response = "Oops! Something went wrong: " + e.getMessage();
+                }
+            }
+            String finalResponse = response;
+            boolean isExit = suu.isExit();
+            uiThread.execute(() -> callback.onDone(finalResponse, isExit));
+        });
+    }
+
+    /**
+     * Runs the commands already queued, closes Suu, and stops the worker thread.
+     */
+    @Override
+    public void close() {
+        worker.execute(suu::close);
+        worker.shutdown();
+        try {
+            worker.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
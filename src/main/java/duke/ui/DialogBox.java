@@ -1,46 +1,67 @@
 package duke.ui;
 
-import java.io.IOException;
-
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.beans.binding.DoubleExpression;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 
 /**
  * A custom control consisting of an ImageView to represent the speaker and a label containing text.
+ *
+ * <p>The control is built in code rather than from FXML, and can be reused for another message with
+ * {@link #show(String, Image, boolean)}, which is how {@link DialogCell} recycles it.</p>
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
+    private static final double PADDING = 10.0;
+    private static final double PICTURE_SIZE = 80.0;
 
-    private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(
-                    MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
+    private Boolean isUser;
+
+    private DialogBox() {
+        dialog.setWrapText(true);
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setPreserveRatio(true);
+        setPadding(new Insets(PADDING));
+    }
 
+    /**
+     * Shows the given message in this box, with the picture on the right for the user and on the left
+     * for Suu.
+     *
+     * @param text Message text.
+     * @param img Speaker image.
+     * @param isUser Whether the user is the speaker.
+     */
+    public void show(String text, Image img, boolean isUser) {
         dialog.setText(text);
         displayPicture.setImage(img);
+        if (this.isUser == null || this.isUser != isUser) {
+            this.isUser = isUser;
+            if (isUser) {
+                getChildren().setAll(dialog, displayPicture);
+                setAlignment(Pos.TOP_RIGHT);
+            } else {
+                getChildren().setAll(displayPicture, dialog);
+                setAlignment(Pos.TOP_LEFT);
+            }
+        }
     }
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
+     * Wraps the text so that the whole box fits within the given width.
+     *
+     * @param width Width available to the box.
      */
-    private void flip() {
-        java.util.List<javafx.scene.Node> tmp = new java.util.ArrayList<>(getChildren());
-        java.util.Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(javafx.geometry.Pos.TOP_LEFT);
+    public void fitWidth(DoubleExpression width) {
+        dialog.maxWidthProperty().bind(width.subtract(PICTURE_SIZE + 3 * PADDING));
     }
 
     /**
@@ -51,7 +72,9 @@ public class DialogBox extends HBox {
      * @return DialogBox for user.
      */
     public static DialogBox getUserDialog(String text, Image img) {
-        return new DialogBox(text, img);
+        DialogBox db = new DialogBox();
+        db.show(text, img, true);
+        return db;
     }
 
     /**
@@ -62,9 +85,8 @@ public class DialogBox extends HBox {
      * @return DialogBox for Suu.
      */
     public static DialogBox getSuuDialog(String text, Image img) {
-        DialogBox db = new DialogBox(text, img);
-        db.flip();
+        DialogBox db = new DialogBox();
+        db.show(text, img, false);
         return db;
     }
 }
-
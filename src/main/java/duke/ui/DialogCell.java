@@ -0,0 +1,44 @@
+package duke.ui;
+
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.image.Image;
+
+/**
+ * A list cell that shows a {@link ChatMessage} in a {@link DialogBox}.
+ *
+ * <p>The list view only creates cells for the rows on screen and reuses them while scrolling, so each
+ * cell keeps a single dialog box and updates it in place.</p>
+ */
+public class DialogCell extends ListCell<ChatMessage> {
+    private final DialogBox box = DialogBox.getSuuDialog("", null);
+    private final Image userImage;
+    private final Image suuImage;
+
+    /**
+     * Creates a cell that shows messages with the given speaker images.
+     *
+     * @param userImage Image shown next to user messages.
+     * @param suuImage Image shown next to Suu's messages.
+     */
+    public DialogCell(Image userImage, Image suuImage) {
+        this.userImage = userImage;
+        this.suuImage = suuImage;
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        setStyle("-fx-background-color: transparent; -fx-padding: 0;");
+        // a zero preferred width stops long messages from widening the list instead of wrapping
+        setPrefWidth(0);
+        box.fitWidth(widthProperty());
+    }
+
+    @Override
+    protected void updateItem(ChatMessage message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        if (isEmpty || message == null) {
+            setGraphic(null);
+            return;
+        }
+        box.show(message.getText(), message.isUser() ? userImage : suuImage, message.isUser());
+        setGraphic(box);
+    }
+}
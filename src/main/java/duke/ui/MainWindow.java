@@ -6,31 +6,46 @@ import java.util.Objects;
 import duke.Suu;
 import javafx.animation.PauseTransition;
 import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 import javafx.util.Duration;
 
 /**
  * Controller for the main GUI.
+ *
+ * <p>The conversation is shown in a {@link ListView}, which only builds cells for the messages on screen.
+ * Only the most recent messages are kept, up to the history limit.</p>
+ *
+ * <p>Commands run on a {@link CommandPipeline}, so the window stays responsive while they do. Input sent
+ * in the meantime is queued, and an indicator is shown until every queued command has been answered.</p>
  */
 public class MainWindow extends AnchorPane {
+    /**
+     * Default number of messages kept in the conversation history.
+     */
+    public static final int DEFAULT_HISTORY_LIMIT = 1000;
+
     private static final Duration EXIT_DELAY = Duration.seconds(2);
 
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<ChatMessage> dialogList;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
+    @FXML
+    private ProgressIndicator pendingIndicator;
 
-    private Suu suu;
+    private CommandPipeline pipeline;
+    private int historyLimit = DEFAULT_HISTORY_LIMIT;
+    private int pendingCount;
+    private boolean isExiting;
 
     private final Image userImage = loadImage("/images/DaUser.png");
     private final Image suuImage = loadImage("/images/DaSuu.png");
@@ -40,51 +55,104 @@ public class MainWindow extends AnchorPane {
      */
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        dialogList.setCellFactory(list -> new DialogCell(userImage, suuImage));
+        dialogList.setFocusTraversable(false);
     }
 
     /**
-     * Injects the Suu instance.
+     * Sets how many messages the conversation keeps; older messages are dropped first.
+     *
+     * @param limit Maximum number of messages to keep (at least 1).
+     */
+    public void setHistoryLimit(int limit) {
+        assert limit > 0 : "History limit must be positive";
+        historyLimit = limit;
+        append();
+    }
+
+    /**
+     * Injects the Suu instance, which from then on is only used through a {@link CommandPipeline}.
      *
      * @param s Suu logic instance.
      */
     public void setSuu(Suu s) {
-        suu = s;
-        dialogContainer.getChildren().add(DialogBox.getSuuDialog(suu.getWelcome(), suuImage));
+        pipeline = new CommandPipeline(s, Platform::runLater);
+        append(new ChatMessage(pipeline.getWelcome(), false));
+    }
+
+    /**
+     * Finishes the queued commands and closes Suu.
+     */
+    public void shutdown() {
+        if (pipeline != null) {
+            pipeline.close();
+        }
     }
 
     /**
-     * Creates two dialog boxes (user input + Suu response) and appends them to the dialog container.
-     * Clears the user input after processing.
+     * Shows the user input and queues it for Suu; the response is shown once it arrives.
+     * Clears the user input after submitting it.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
 
-        if (input == null || input.trim().isEmpty()) {
+        if (input == null || input.trim().isEmpty() || isExiting) {
             userInput.clear();
             return;
         }
 
-        String response = suu.getResponse(input);
-
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getSuuDialog(response, suuImage)
-        );
-
+        append(new ChatMessage(input, true));
         userInput.clear();
+        pendingCount++;
+        pendingIndicator.setVisible(true);
+        pipeline.submit(input, this::handleResponse);
+    }
+
+    /**
+     * Shows a command's response and, once Suu has exited and every queued command is answered,
+     * closes the window after a short delay.
+     *
+     * @param response Suu's response, or {@code null} if the command was skipped.
+     * @param isExit Whether Suu has been asked to exit.
+     */
+    private void handleResponse(String response, boolean isExit) {
+        pendingCount--;
+        pendingIndicator.setVisible(pendingCount > 0);
+        if (response != null) {
+            append(new ChatMessage(response, false));
+        }
 
-        if (suu.isExit()) {
+        if (isExit && !isExiting) {
+            isExiting = true;
             userInput.setDisable(true);
             sendButton.setDisable(true);
-
+        }
+        if (isExiting && pendingCount == 0) {
             PauseTransition delay = new PauseTransition(EXIT_DELAY);
             delay.setOnFinished(event -> Platform.exit());
             delay.play();
         }
     }
 
+    /**
+     * Adds messages to the end of the conversation, drops the oldest ones beyond the history limit,
+     * and scrolls to the newest message.
+     *
+     * @param messages Messages to add.
+     */
+    private void append(ChatMessage... messages) {
+        ObservableList<ChatMessage> items = dialogList.getItems();
+        items.addAll(messages);
+        int excess = items.size() - historyLimit;
+        if (excess > 0) {
+            items.remove(0, excess);
+        }
+        if (!items.isEmpty()) {
+            dialogList.scrollTo(items.size() - 1);
+        }
+    }
+
     /**
      * Loads an image resource from the classpath.
      *
@@ -0,0 +1,90 @@
+package duke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BatchRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void run_scriptWithBye_savesOnceAndStops() throws Exception {
+        Suu suu = new Suu(new Storage(tempDir.toString(), "Suu.txt"), false);
+        StringWriter out = new StringWriter();
+        String script = "todo read book\n\ntodo write report\nmark 1\nbye\ntodo ignored\n";
+
+        assertTrue(new BatchRunner(suu, 0).run(new BufferedReader(new StringReader(script)), out));
+
+        assertTrue(out.toString().endsWith("Bye. Hope to see you again soon!\n"));
+        assertEquals(2, new Storage(tempDir.toString(), "Suu.txt").load().size());
+    }
+
+    @Test
+    public void run_saveFails_undoesWholeBatch() throws Exception {
+        Suu suu = new Suu(new Storage(tempDir.toString(), "Suu.txt"), false);
+        StringWriter out = new StringWriter();
+        assertTrue(new BatchRunner(suu, 0).run(new BufferedReader(new StringReader("todo kept\n")), out));
+
+        // a directory in place of the save file makes the next save fail
+        Files.delete(tempDir.resolve("Suu.txt"));
+        Files.createDirectories(tempDir.resolve("Suu.txt"));
+        String script = "todo a\ntodo b\nmark 1\ndelete 1\n";
+        assertFalse(new BatchRunner(suu, 0).run(new BufferedReader(new StringReader(script)), out));
+
+        assertTrue(out.toString().endsWith("I undid the last 4 change(s).\n"));
+        assertEquals("Here are the tasks in your list:\n1. [T][ ] kept", suu.getResponse("list"));
+    }
+
+    @Test
+    public void convert_toEachFormat_keepsTasksAndFoldsInJournal() throws Exception {
+        Storage storage = new Storage(tempDir.toString(), "Suu.txt", 100);
+        Suu suu = new Suu(storage, false);
+        suu.getResponse("todo read book");
+        suu.getResponse("mark 1");
+        suu.close();
+
+        for (StorageFormat format : StorageFormat.values()) {
+            Storage reopened = new Storage(tempDir.toString(), "Suu.txt", 100);
+            assertEquals("Saved your tasks in the " + format.getWord() + " format.",
+                    BatchRunner.convert(reopened, StorageFormat.fromWord(format.getWord().toUpperCase())));
+            assertEquals(0, reopened.getJournalSize());
+            assertEquals("[[T][X] read book]",
+                    new Storage(tempDir.toString(), "Suu.txt", 100).load().toString());
+        }
+        assertFalse(BinarySnapshot.isBinary(tempDir.resolve("Suu.txt").toFile()));
+        assertTrue(CompressedSnapshot.isCompressed(tempDir.resolve("Suu.txt").toFile()));
+    }
+
+    @Test
+    public void markAll_savedTasksAndJournal_marksEveryTaskAndKeepsIds() throws Exception {
+        Storage storage = new Storage(tempDir.toString(), "Suu.txt", 100);
+        SuuException e = assertThrows(SuuException.class, () -> BatchRunner.markAll(storage));
+        assertEquals("You have no tasks to mark yet.", e.getMessage());
+
+        Suu suu = new Suu(storage, false);
+        suu.getResponse("todo read book");
+        suu.getResponse("deadline return book /by 2019-10-15");
+        suu.getResponse("todo buy bread");
+        suu.getResponse("delete 1");
+        suu.close();
+
+        Storage reopened = new Storage(tempDir.toString(), "Suu.txt", 100);
+        assertEquals("Marked all 2 saved tasks as done.", BatchRunner.markAll(reopened));
+        assertEquals(0, reopened.getJournalSize());
+        TaskList loaded = new TaskList(new Storage(tempDir.toString(), "Suu.txt", 100).load());
+        assertEquals("[D][X] return book (by: Oct 15 2019)", loaded.getById(2).toString());
+        assertEquals("[T][X] buy bread", loaded.getById(3).toString());
+    }
+}
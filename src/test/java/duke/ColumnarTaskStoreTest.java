@@ -0,0 +1,100 @@
+package duke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ColumnarTaskStoreTest {
+
+    @Test
+    public void randomChanges_matchArrayList() throws Exception {
+        Random random = new Random(42);
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        List<Task> expected = new ArrayList<>();
+
+        for (int i = 0; i < 5_000; i++) {
+            int choice = random.nextInt(4);
+            if (expected.isEmpty() || choice == 0) {
+                Task t = randomTask(random, i);
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, t);
+                store.add(index, t);
+            } else if (choice == 1) {
+                int index = random.nextInt(expected.size());
+                expected.remove(index);
+                store.remove(index);
+            } else {
+                int index = random.nextInt(expected.size());
+                Task t = expected.get(index);
+                if (t.isMarked()) {
+                    t.unmark();
+                } else {
+                    t.setMarked();
+                }
+                store.setStatus(index, t.isMarked());
+            }
+        }
+
+        assertEquals(render(expected), render(store.asList()));
+        assertEquals(render(expected), render(new ColumnarTaskStore(expected).asList()));
+    }
+
+    @Test
+    public void get_event_keepsDatesAndStatus() throws Exception {
+        Event e = new Event("caf\u00e9 meeting", LocalDateTime.of(2019, 12, 2, 18, 0),
+                LocalDateTime.of(2019, 12, 2, 20, 0));
+        e.setMarked();
+        ColumnarTaskStore store = new ColumnarTaskStore(List.of(e));
+
+        Event view = (Event) store.get(0);
+        assertEquals(e.getFrom(), view.getFrom());
+        assertEquals(e.getTo(), view.getTo());
+        assertEquals(e.toString(), view.toString());
+        assertEquals(1, store.getDoneCount());
+    }
+
+    @Test
+    public void asList_tasksWithIds_keepsIdsThroughInsertAndRemove() throws Exception {
+        TaskList tasks = new TaskList(new ArrayList<>(List.of(new Todo("a"), new Todo("b"), new Todo("c"))));
+        tasks.remove(1);
+        tasks.add(new Deadline("d", LocalDate.of(2019, 10, 15)));
+        ColumnarTaskStore store = new ColumnarTaskStore(tasks.asList());
+        store.add(0, new Todo("without id"));
+        store.remove(1);
+
+        List<Task> views = store.asList();
+        assertEquals(List.of(0L, 3L, 4L), List.of(views.get(0).getId(), views.get(1).getId(), views.get(2).getId()));
+        assertEquals(4, store.getId(2));
+
+        // tasks read back from the store keep their IDs, so a list rebuilt from them can still be addressed
+        TaskList rebuilt = new TaskList(new ArrayList<>(views));
+        assertEquals("[D][ ] d (by: Oct 15 2019)", rebuilt.getById(4).toString());
+        assertEquals("[T][ ] c", rebuilt.getById(3).toString());
+    }
+
+    private static Task randomTask(Random random, int i) {
+        switch (random.nextInt(3)) {
+        case 0:
+            return new Todo("todo " + i);
+        case 1:
+            return new Deadline("deadline " + i, LocalDate.of(2019, 10, 15).plusDays(random.nextInt(500)));
+        default:
+            LocalDateTime from = LocalDateTime.of(2019, 12, 2, 18, 0).plusMinutes(random.nextInt(100_000));
+            return new Event("event " + i, from, from.plusMinutes(random.nextInt(300)));
+        }
+    }
+
+    private static List<String> render(List<Task> tasks) {
+        List<String> result = new ArrayList<>();
+        for (Task t : tasks) {
+            result.add(t.toString());
+        }
+        return result;
+    }
+}
@@ -39,4 +39,23 @@ public class DateTimeUtilTest {
         assertThrows(DateTimeParseException.class, () ->
                 DateTimeUtil.parseDateTime("2019/12/02 1800"));
     }
+
+    @Test
+    public void formatDate_manyDates_matchesFormatter() {
+        LocalDate day = LocalDate.of(2000, 1, 1);
+        for (int i = 0; i < 20000; i++) {
+            assertEquals(day.format(DateTimeUtil.OUTPUT_DATE), DateTimeUtil.formatDate(day));
+            // formatted twice so that the second call is served from the cache
+            assertEquals(day.format(DateTimeUtil.OUTPUT_DATE), DateTimeUtil.formatDate(day));
+            day = day.plusDays(7919 * (i % 2 == 0 ? 1 : -1) + 1);
+        }
+    }
+
+    @Test
+    public void formatDateTime_sameMinute_ignoresSeconds() {
+        LocalDateTime dt = LocalDateTime.of(2019, 12, 2, 18, 0);
+        String expected = DateTimeUtil.formatDateTime(dt);
+        assertEquals(expected, DateTimeUtil.formatDateTime(dt.plusSeconds(59)));
+        assertEquals(expected.replace("6:00", "7:00"), DateTimeUtil.formatDateTime(dt.plusHours(1)));
+    }
 }
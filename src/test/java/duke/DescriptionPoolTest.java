@@ -0,0 +1,51 @@
+package duke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class DescriptionPoolTest {
+
+    @Test
+    public void intern_equalStrings_shareFirstAndCountSavedBytes() {
+        DescriptionPool pool = new DescriptionPool(16);
+        String first = new String("water plants");
+        String second = new String("water plants");
+
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second));
+        assertSame(first, pool.intern(first));
+        assertEquals(1, pool.getHits());
+        // 12 Latin-1 characters pad to 16 bytes, plus the String and array headers
+        assertEquals(56, pool.getBytesSaved());
+    }
+
+    @Test
+    public void intern_poolFull_evictsOneDescription() {
+        DescriptionPool pool = new DescriptionPool(2);
+        pool.intern("a");
+        pool.intern("b");
+        String c = new String("c");
+        pool.intern(c);
+        assertEquals(2, pool.size());
+
+        assertSame(c, pool.intern(new String("c")));
+        assertEquals(1, pool.getHits());
+    }
+
+    @Test
+    public void intern_manyDistinctDescriptions_staysBoundedAndKeepsNewest() {
+        DescriptionPool pool = new DescriptionPool(64);
+        for (int i = 0; i < 10_000; i++) {
+            pool.intern("task " + i);
+            assertTrue(pool.size() <= 64);
+        }
+
+        // the newest description has just been pooled and cannot have been evicted yet
+        String newest = pool.intern(new String("task 9999"));
+        assertSame(newest, pool.intern(new String("task 9999")));
+        assertEquals(64, pool.size());
+    }
+}
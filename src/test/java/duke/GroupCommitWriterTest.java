@@ -0,0 +1,72 @@
+package duke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class GroupCommitWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void submit_burstOfRecords_allDurableAfterFlush() throws Exception {
+        Storage storage = new Storage(tempDir.toString(), "Suu.txt", 1000);
+        TaskList tasks = new TaskList();
+        try (GroupCommitWriter writer = new GroupCommitWriter(storage, 5, 16)) {
+            for (int i = 0; i < 100; i++) {
+                Task t = new Todo("task " + i);
+                tasks.add(t);
+                writer.submit(Journal.add(t), tasks);
+            }
+            writer.flush().join();
+        }
+
+        assertEquals(100, new Storage(tempDir.toString(), "Suu.txt", 1000).load().size());
+    }
+
+    @Test
+    public void submit_pastThreshold_compactsSnapshotOfSubmittedVersion() throws Exception {
+        Storage storage = new Storage(tempDir.toString(), "Suu.txt", 10);
+        TaskList tasks = new TaskList();
+        try (GroupCommitWriter writer = new GroupCommitWriter(storage, 5, 16)) {
+            for (int i = 0; i < 10; i++) {
+                Task t = new Todo("task " + i);
+                tasks.add(t);
+                writer.submit(Journal.add(t), tasks);
+            }
+            // a change after the compaction was queued must not reach its snapshot
+            tasks.get(0).setMarked();
+            writer.flush().join();
+        }
+
+        ArrayList<Task> loaded = new Storage(tempDir.toString(), "Suu.txt", 10).load();
+        assertEquals(10, loaded.size());
+        assertFalse(loaded.get(0).isMarked());
+        assertEquals(0, storage.getJournalSize());
+    }
+
+    @Test
+    public void getResponse_deferredWriteFails_rollsBackOnNextCommand() throws Exception {
+        // a directory in place of the journal file makes every append fail
+        Files.createDirectories(tempDir.resolve("Suu.txt.journal"));
+        Suu suu = new Suu(new Storage(tempDir.toString(), "Suu.txt", 1000), true);
+
+        assertTrue(suu.getResponse("todo read book").startsWith("Got it."));
+        assertThrows(CompletionException.class, () -> suu.whenDurable().join());
+
+        String response = suu.getResponse("list");
+        assertTrue(response.startsWith("Oops! I had trouble saving your tasks, so I undid your last 1 change(s)."));
+        assertTrue(response.endsWith("(none)"));
+        suu.close();
+    }
+}
@@ -0,0 +1,63 @@
+package duke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+public class HistogramTest {
+
+    @Test
+    public void getPercentile_randomValues_withinOneSubBucketOfExact() {
+        Random random = new Random(3);
+        Histogram histogram = new Histogram();
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 30);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(values.length * p / 100) - 1];
+            long estimate = histogram.getPercentile(p);
+            assertTrue(estimate >= exact && estimate <= exact + exact / Histogram.SUB_BUCKETS,
+                    "p" + p + ": " + estimate + " vs " + exact);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values.length, histogram.getCount());
+    }
+
+    @Test
+    public void bucketOf_boundaries_roundTripThroughUpperBound() {
+        for (long v : new long[]{0, 7, 8, 15, 16, 17, 1_000_000, Long.MAX_VALUE}) {
+            int bucket = Histogram.bucketOf(v);
+            assertTrue(Histogram.upperBoundOf(bucket) >= v);
+            assertTrue(bucket == 0 || Histogram.upperBoundOf(bucket - 1) < v);
+        }
+    }
+
+    @Test
+    public void record_manyValues_allocatesNothing() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Metrics metrics = new Metrics();
+        for (int i = 0; i < 10_000; i++) {
+            metrics.recordCommand(CommandType.MARK, i);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            metrics.recordCommand(CommandType.MARK, i);
+            metrics.recordSave(i, i, i);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 10_000, allocated + " bytes allocated");
+        assertEquals(110_000L, (long) metrics.getCounts().get("command.mark"));
+    }
+}
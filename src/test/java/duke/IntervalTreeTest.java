@@ -0,0 +1,58 @@
+package duke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class IntervalTreeTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2019, 12, 2, 0, 0);
+
+    @Test
+    public void overlapping_randomEventsWithRemovals_matchesBruteForce() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            LocalDateTime from = BASE.plusMinutes(random.nextInt(10_000));
+            Event e = new Event("event " + i, from, from.plusMinutes(random.nextInt(300)));
+            events.add(e);
+            tree.add(e);
+        }
+        for (int i = 0; i < 200; i++) {
+            tree.remove(events.remove(random.nextInt(events.size())));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            LocalDateTime from = BASE.plusMinutes(random.nextInt(10_000));
+            LocalDateTime to = from.plusMinutes(random.nextInt(600));
+            List<Event> expected = new ArrayList<>();
+            for (Event e : events) {
+                if (e.getFrom().isBefore(to) && e.getTo().isAfter(from)) {
+                    expected.add(e);
+                }
+            }
+            expected.sort((a, b) -> a.getFrom().compareTo(b.getFrom()));
+
+            List<Event> actual = tree.overlapping(from, to);
+            assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < actual.size(); j++) {
+                assertEquals(expected.get(j).getFrom(), actual.get(j).getFrom());
+            }
+        }
+        assertEquals(300, tree.size());
+    }
+
+    @Test
+    public void overlapping_touchingEndpoints_doNotClash() {
+        IntervalTree tree = new IntervalTree();
+        tree.add(new Event("morning", BASE.withHour(10), BASE.withHour(12)));
+
+        assertEquals(0, tree.overlapping(BASE.withHour(12), BASE.withHour(14)).size());
+        assertEquals(1, tree.overlapping(BASE.withHour(11), BASE.withHour(14)).size());
+    }
+}
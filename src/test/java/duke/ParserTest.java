@@ -1,6 +1,8 @@
 package duke;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -34,4 +36,107 @@ public class ParserTest {
                 Parser.parseTaskIndex("mark 10", 5, "mark"));
         assertTrue(e.getMessage().toLowerCase().contains("does not exist"));
     }
+
+    @Test
+    public void parseTaskSelection_listsAndRanges_returnsSortedDistinctIndices() throws Exception {
+        TaskList tasks = todos(12);
+        assertArrayEquals(new int[]{2, 6, 8, 9, 10, 11}, Parser.parseTaskSelection("delete 3,7,9-12, 10", tasks,
+                "delete"));
+        assertArrayEquals(new int[]{0, 1, 2}, Parser.parseTaskSelection("mark 3, 1-2", todos(3), "mark"));
+    }
+
+    @Test
+    public void parseTaskSelection_keywords_selectByStatus() throws Exception {
+        TaskList tasks = todos(4);
+        tasks.get(1).setMarked();
+        tasks.get(3).setMarked();
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Parser.parseTaskSelection("delete all", tasks, "delete"));
+        assertArrayEquals(new int[]{1, 3}, Parser.parseTaskSelection("unmark done", tasks, "unmark"));
+        assertArrayEquals(new int[]{0, 2}, Parser.parseTaskSelection("mark undone", tasks, "mark"));
+    }
+
+    @Test
+    public void parseTaskSelection_invalidSelection_throwsException() {
+        TaskList tasks = todos(5);
+        assertThrows(SuuException.class, () -> Parser.parseTaskSelection("mark 2-9", tasks, "mark"));
+        assertThrows(SuuException.class, () -> Parser.parseTaskSelection("mark 4-2", tasks, "mark"));
+        assertThrows(SuuException.class, () -> Parser.parseTaskSelection("mark 1,,2", tasks, "mark"));
+        SuuException e = assertThrows(SuuException.class, () ->
+                Parser.parseTaskSelection("unmark done", tasks, "unmark"));
+        assertEquals("There are no done tasks to unmark.", e.getMessage());
+    }
+
+    @Test
+    public void parseTaskSelection_allOnEmptyListOrNegativeNumber_explainsProblem() {
+        SuuException e = assertThrows(SuuException.class, () ->
+                Parser.parseTaskSelection("mark all", new TaskList(), "mark"));
+        assertEquals("You have no tasks to mark yet.", e.getMessage());
+
+        TaskList tasks = todos(5);
+        for (String selection : new String[]{"-1", " -1", "-1-3", "0"}) {
+            e = assertThrows(SuuException.class, () -> Parser.parseTaskSelection("delete " + selection, tasks,
+                    "delete"));
+            assertEquals("That task number does not exist.", e.getMessage(), selection);
+        }
+        e = assertThrows(SuuException.class, () -> Parser.parseTaskSelection("delete 3--1", tasks, "delete"));
+        assertTrue(e.getMessage().startsWith("A range must go"));
+    }
+
+    @Test
+    public void parseTaskSelection_taskIds_followTasksAcrossDeletes() throws Exception {
+        TaskList tasks = todos(5);
+        long id = tasks.get(3).getId();
+        tasks.remove(0);
+        assertArrayEquals(new int[]{1, 2}, Parser.parseTaskSelection("delete #" + id + ", 2", tasks, "delete"));
+        SuuException e = assertThrows(SuuException.class, () ->
+                Parser.parseTaskSelection("mark #99", tasks, "mark"));
+        assertEquals("There is no task with ID #99.", e.getMessage());
+        assertThrows(SuuException.class, () -> Parser.parseTaskSelection("mark #x", tasks, "mark"));
+    }
+
+    @Test
+    public void parseListRange_pageAndRange_returnsClampedIndices() throws Exception {
+        assertNull(Parser.parseListRange("list", 120, 50));
+        assertArrayEquals(new int[]{100, 120}, Parser.parseListRange("list 3", 120, 50));
+        assertArrayEquals(new int[]{4, 120}, Parser.parseListRange("list 5 - 500", 120, 50));
+    }
+
+    @Test
+    public void parseListRange_pageOutOfRange_throwsException() {
+        SuuException e = assertThrows(SuuException.class, () ->
+                Parser.parseListRange("list 4", 120, 50));
+        assertEquals("Page 4 does not exist. You have 3 page(s) of tasks.", e.getMessage());
+        assertThrows(SuuException.class, () -> Parser.parseListRange("list 9-3", 120, 50));
+        assertThrows(SuuException.class, () -> Parser.parseListRange("list two", 120, 50));
+    }
+
+    @Test
+    public void parseEvent_markersWithExtraSpaces_returnsTrimmedParts() throws Exception {
+        assertArrayEquals(new String[]{"team meeting", "2019-12-02 1800", "2019-12-02 2000"},
+                Parser.parseEvent("  event  team meeting /from  2019-12-02 1800 /to 2019-12-02 2000 "));
+    }
+
+    @Test
+    public void parseEvent_missingTo_throwsFormatMessage() {
+        SuuException e = assertThrows(SuuException.class, () ->
+                Parser.parseEvent("event talk /from 2019-12-02 1800 /to "));
+        assertEquals("Use this format: event <task> /from <start> /to <end>", e.getMessage());
+    }
+
+    @Test
+    public void parsedCommand_reused_readsEachCommandWord() {
+        ParsedCommand command = new ParsedCommand();
+        assertEquals(CommandType.DEADLINE, command.parse("DeadLine x /by 2019-10-15").getType());
+        assertEquals(CommandType.UNKNOWN, command.parse("lists").getType());
+        assertEquals(CommandType.LIST, command.parse("\tlist\t2").getType());
+        assertEquals("2", command.argument());
+    }
+
+    private static TaskList todos(int count) {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        return tasks;
+    }
 }
@@ -0,0 +1,66 @@
+package duke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class SearchIndexTest {
+    private static final String[] WORDS = {
+        "read", "book", "bread", "aaaa", "Report", "\u0000\u0000\u0000", "caf\u00e9",
+    };
+
+    @Test
+    public void addAndRemove_randomTasks_matchScan() {
+        Random random = new Random(5);
+        SearchIndex index = new SearchIndex();
+        List<Task> live = new ArrayList<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            if (!live.isEmpty() && random.nextInt(3) == 0) {
+                index.remove(live.remove(random.nextInt(live.size())));
+            } else {
+                Task t = new Todo(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                        + " " + random.nextInt(100));
+                t.orderKey = i;
+                index.add(t);
+                live.add(t);
+            }
+        }
+
+        for (String keyword : List.of("rea", "read book", "aaa", "aaaaa", "\u0000\u0000\u0000", "report 4",
+                "caf\u00e9", "not there")) {
+            List<Task> expected = new ArrayList<>();
+            for (Task t : live) {
+                if (t.getDescription().toLowerCase().contains(keyword)) {
+                    expected.add(t);
+                }
+            }
+            expected.sort((a, b) -> Long.compare(a.orderKey, b.orderKey));
+            assertEquals(expected, index.find(keyword), keyword);
+        }
+    }
+
+    @Test
+    public void remove_everyTask_leavesNothingToFind() {
+        SearchIndex index = new SearchIndex();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            Task t = new Todo("water plants " + i);
+            index.add(t);
+            tasks.add(t);
+        }
+        for (Task t : tasks) {
+            index.remove(t);
+        }
+        // removing a task that is not indexed is a no-op
+        index.remove(new Todo("water plants"));
+
+        assertTrue(index.find("water").isEmpty());
+        assertTrue(index.find("nts 5").isEmpty());
+    }
+}
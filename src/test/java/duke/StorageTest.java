@@ -0,0 +1,449 @@
+package duke;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void load_journaled_replaysRecordsOnTopOfSnapshot() throws Exception {
+        Storage storage = new Storage(tempDir.toString(), "Suu.txt", 100);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read book"));
+        storage.save(tasks);
+
+        Task deadline = new Deadline("return book", LocalDate.of(2019, 10, 15));
+        tasks.add(deadline);
+        storage.commit(tasks, Journal.add(deadline));
+        tasks.get(0).setMarked();
+        storage.commit(tasks, Journal.mark(0));
+        Task removed = tasks.remove(0);
+        storage.commit(tasks, Journal.remove(0));
+        tasks.add(0, removed);
+        storage.commit(tasks, Journal.insert(0, removed));
+
+        ArrayList<Task> loaded = new Storage(tempDir.toString(), "Suu.txt", 100).load();
+        assertEquals(2, loaded.size());
+        assertEquals("[T][X] read book", loaded.get(0).toString());
+        assertEquals(deadline.toString(), loaded.get(1).toString());
+    }
+
+    @Test
+    public void load_bulkRecords_replaysIndexLists() throws Exception {
+        Storage storage = new Storage(tempDir.toString(), "Suu.txt", 100);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        storage.save(tasks);
+
+        storage.commit(tasks, List.of(Journal.mark(new int[]{0, 1, 2, 3})));
+        storage.commit(tasks, List.of(Journal.remove(new int[]{2, 6, 8, 9, 10, 11})));
+
+        ArrayList<Task> loaded = new Storage(tempDir.toString(), "Suu.txt", 100).load();
+        assertEquals(6, loaded.size());
+        assertEquals("[T][X] task 1", loaded.get(1).toString());
+        assertEquals("[T][X] task 3", loaded.get(2).toString());
+        assertEquals("[T][ ] task 7", loaded.get(5).toString());
+    }
+
+    @Test
+    public void load_tornLastRecord_dropsItAndKeepsEarlierRecords() throws Exception {
+        Storage storage = new Storage(tempDir.toString(), "Suu.txt", 100);
+        ArrayList<Task> tasks = todos("task", 2);
+        storage.save(tasks);
+        tasks.add(new Todo("task 2"));
+        storage.commit(tasks, Journal.add(tasks.get(2)));
+        Path journal = tempDir.resolve("Suu.txt.journal");
+        long goodLength = Files.size(journal);
+
+        Files.writeString(journal, "A | T | 0 | half-writ", StandardOpenOption.APPEND);
+        assertEquals(3, new Storage(tempDir.toString(), "Suu.txt", 100).load().size());
+        assertEquals(goodLength, Files.size(journal));
+
+        Storage reopened = new Storage(tempDir.toString(), "Suu.txt", 100);
+        ArrayList<Task> loaded = reopened.load();
+        loaded.add(new Todo("task 3"));
+        reopened.commit(loaded, Journal.add(loaded.get(3)));
+        assertEquals("[T][ ] task 3", new Storage(tempDir.toString(), "Suu.txt", 100).load().get(3).toString());
+    }
+
+    @Test
+    public void load_corruptedCompleteRecord_refusesToOverwrite() throws Exception {
+        Storage storage = new Storage(tempDir.toString(), "Suu.txt", 100);
+        storage.save(todos("task", 2));
+        Files.writeString(tempDir.resolve("Suu.txt.journal"), "M | 0\nM | 99\nM | 1\n");
+        byte[] before = Files.readAllBytes(tempDir.resolve("Suu.txt"));
+
+        Storage reopened = new Storage(tempDir.toString(), "Suu.txt", 100);
+        assertThrows(SuuException.class, reopened::load);
+        assertThrows(SuuException.class, () -> reopened.save(new ArrayList<>()));
+        assertThrows(SuuException.class, () -> reopened.commit(new ArrayList<>(), Journal.mark(0)));
+        assertArrayEquals(before, Files.readAllBytes(tempDir.resolve("Suu.txt")));
+        assertEquals("M | 0\nM | 99\nM | 1\n", Files.readString(tempDir.resolve("Suu.txt.journal")));
+
+        // a complete last record was fully written, so failing to apply it is corruption, not a torn tail
+        Files.writeString(tempDir.resolve("Suu.txt.journal"), "M | 0\nM | 99\n");
+        Storage last = new Storage(tempDir.toString(), "Suu.txt", 100);
+        assertThrows(SuuException.class, last::load);
+        assertThrows(SuuException.class, () -> last.save(new ArrayList<>()));
+        assertEquals("M | 0\nM | 99\n", Files.readString(tempDir.resolve("Suu.txt.journal")));
+    }
+
+    @Test
+    public void load_journalLeftBehindBySave_isNotReplayedAgain() throws Exception {
+        for (StorageFormat format : StorageFormat.values()) {
+            Path dir = Files.createDirectory(tempDir.resolve(format.name()));
+            Storage storage = new Storage(dir.toString(), "Suu.txt", 100);
+            storage.convertTo(format);
+            TaskList tasks = new TaskList(todos("task", 4));
+            storage.save(tasks.asList());
+            tasks.add(new Todo("task 4"));
+            storage.commit(tasks.asList(), Journal.add(tasks.get(4)));
+            tasks.removeAll(new int[]{0, 2});
+            storage.commit(tasks.asList(), Journal.remove(new int[]{0, 2}));
+            tasks.setStatusAll(new int[]{0}, true);
+            storage.commit(tasks.asList(), Journal.mark(0));
+            byte[] journal = Files.readAllBytes(dir.resolve("Suu.txt.journal"));
+
+            // as if Suu crashed after moving the snapshot into place but before deleting the journal
+            storage.save(tasks.asList());
+            Files.write(dir.resolve("Suu.txt.journal"), journal);
+
+            Storage reopened = new Storage(dir.toString(), "Suu.txt", 100);
+            ArrayList<Task> loaded = reopened.load();
+            assertEquals(tasks.asList().toString(), loaded.toString());
+            assertEquals(0, reopened.getJournalSize());
+
+            loaded.add(new Todo("task 5"));
+            reopened.commit(loaded, Journal.add(loaded.get(3)));
+            assertEquals(loaded.toString(), new Storage(dir.toString(), "Suu.txt", 100).load().toString());
+        }
+    }
+
+    @Test
+    public void commit_pastThreshold_compactsJournalIntoSnapshot() throws Exception {
+        Storage storage = new Storage(tempDir.toString(), "Suu.txt", 3);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Task t = new Todo("task " + i);
+            tasks.add(t);
+            storage.commit(tasks, Journal.add(t));
+        }
+
+        assertFalse(new File(tempDir.toFile(), "Suu.txt.journal").exists());
+        assertTrue(new File(tempDir.toFile(), "Suu.txt").exists());
+        assertEquals(3, new Storage(tempDir.toString(), "Suu.txt").load().size());
+    }
+
+    @Test
+    public void convertTo_binaryAndBack_preservesTasks() throws Exception {
+        Storage storage = new Storage(tempDir.toString(), "Suu.txt");
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("return book", LocalDate.of(2019, 10, 15)));
+        tasks.add(new Event("meeting", LocalDateTime.of(2019, 12, 2, 14, 0), LocalDateTime.of(2019, 12, 2, 16, 0)));
+        tasks.get(1).setMarked();
+        storage.save(tasks);
+
+        storage.convertTo(StorageFormat.BINARY);
+        Storage reopened = new Storage(tempDir.toString(), "Suu.txt");
+        ArrayList<Task> loaded = reopened.load();
+        assertEquals(StorageFormat.BINARY, reopened.getFormat());
+        assertEquals(tasks.toString(), loaded.toString());
+
+        reopened.convertTo(StorageFormat.TEXT);
+        assertEquals("D | 1 | return book | 2019-10-15",
+                Files.readAllLines(tempDir.resolve("Suu.txt")).get(2));
+    }
+
+    @Test
+    public void convertTo_compressed_preservesTasksInFewerBytes() throws Exception {
+        Storage storage = new Storage(tempDir.toString(), "Suu.txt");
+        ArrayList<Task> tasks = todos("read book", 50_000);
+        tasks.add(new Deadline("return book", LocalDate.of(2019, 10, 15)));
+        tasks.add(new Event("meeting", LocalDateTime.of(2019, 12, 2, 14, 0), LocalDateTime.of(2019, 12, 2, 16, 0)));
+        tasks.get(7).setMarked();
+        storage.save(tasks);
+        long textBytes = Files.size(tempDir.resolve("Suu.txt"));
+
+        storage.convertTo(StorageFormat.COMPRESSED);
+        assertTrue(Files.size(tempDir.resolve("Suu.txt")) * 4 < textBytes);
+        Storage reopened = new Storage(tempDir.toString(), "Suu.txt");
+        assertEquals(tasks.toString(), reopened.load().toString());
+        assertEquals(StorageFormat.COMPRESSED, reopened.getFormat());
+    }
+
+    @Test
+    public void load_binaryWithOversizedCount_throwsBeforeAllocating() throws Exception {
+        File file = tempDir.resolve("Suu.txt").toFile();
+        BinarySnapshot.write(todos("read book", 2), 1, file);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+
+        // header: magic, version, generation, then the task count
+        ByteBuffer.wrap(bytes).putInt(16, Integer.MAX_VALUE);
+        Files.write(file.toPath(), bytes);
+        SuuException e = assertThrows(SuuException.class, () -> new Storage(tempDir.toString(), "Suu.txt").load());
+        assertTrue(e.getMessage().contains("does not fit"));
+
+        // first record: flags, ID, then the description length
+        ByteBuffer.wrap(bytes).putInt(16, 2).putInt(20 + 1 + 8, Integer.MAX_VALUE - 1);
+        Files.write(file.toPath(), bytes);
+        e = assertThrows(SuuException.class, () -> new Storage(tempDir.toString(), "Suu.txt").load());
+        assertTrue(e.getMessage().contains("does not fit"));
+    }
+
+    @Test
+    public void load_damagedCompressedSnapshot_throws() throws Exception {
+        Storage storage = new Storage(tempDir.toString(), "Suu.txt");
+        storage.save(todos("read book", 50_000));
+        storage.convertTo(StorageFormat.COMPRESSED);
+        byte[] bytes = Files.readAllBytes(tempDir.resolve("Suu.txt"));
+
+        byte[] flipped = bytes.clone();
+        flipped[bytes.length / 2] ^= 0x55;
+        Files.write(tempDir.resolve("Suu.txt"), flipped);
+        assertThrows(SuuException.class, () -> new Storage(tempDir.toString(), "Suu.txt").load());
+
+        Files.write(tempDir.resolve("Suu.txt"), Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(SuuException.class, () -> new Storage(tempDir.toString(), "Suu.txt").load());
+
+        // header: magic, version, generation, then the uncompressed length of the first block
+        byte[] oversized = bytes.clone();
+        ByteBuffer.wrap(oversized).putInt(16, CompressedSnapshot.MAX_BLOCK_BYTES + 1);
+        Files.write(tempDir.resolve("Suu.txt"), oversized);
+        assertThrows(SuuException.class, () -> new Storage(tempDir.toString(), "Suu.txt").load());
+    }
+
+    @Test
+    public void write_compressedNonAsciiDescriptions_readBackWhateverTheDefaultCharset() throws Exception {
+        File file = tempDir.resolve("Suu.txt").toFile();
+        List<Task> tasks = List.of(new Todo("caf\u00e9 \u2615"), new Todo("\u8aad\u66f8"));
+        CompressedSnapshot.write(tasks, 1, file);
+
+        assertEquals(tasks.toString(), CompressedSnapshot.read(file).toString());
+    }
+
+    @Test
+    public void save_tasksWithIds_keepsIdsInEveryFormat() throws Exception {
+        Storage storage = new Storage(tempDir.toString(), "Suu.txt", 100);
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("return book", LocalDate.of(2019, 10, 15)));
+        tasks.remove(0);
+        Task event = new Event("meeting", LocalDateTime.of(2019, 12, 2, 14, 0), LocalDateTime.of(2019, 12, 2, 16, 0));
+        tasks.add(event);
+        storage.save(tasks.asList());
+        storage.commit(tasks.asList(), Journal.add(new Todo("without id")));
+
+        assertEquals("D | 0 | return book | 2019-10-15 | #2", Files.readAllLines(tempDir.resolve("Suu.txt")).get(1));
+        TaskList loaded = new TaskList(storage.load());
+        assertEquals(3, loaded.get(1).getId());
+        assertEquals(4, loaded.get(2).getId());
+        assertTrue(loaded.hadMissingIds());
+
+        storage.convertTo(StorageFormat.BINARY);
+        ArrayList<Task> binary = new Storage(tempDir.toString(), "Suu.txt").load();
+        assertEquals(2, binary.get(0).getId());
+        assertEquals(3, binary.get(1).getId());
+    }
+
+    @Test
+    public void load_tasksWithoutIds_assignsIdsAboveSavedOnes() throws Exception {
+        Files.writeString(tempDir.resolve("Suu.txt"), "T | 0 | old\nT | 0 | new | #5\nT | 0 | copy | #5\n");
+
+        TaskList loaded = new TaskList(new Storage(tempDir.toString(), "Suu.txt").load());
+        assertTrue(loaded.hadMissingIds());
+        assertEquals(6, loaded.get(0).getId());
+        assertEquals(5, loaded.get(1).getId());
+        assertEquals(7, loaded.get(2).getId());
+        assertEquals(1, loaded.indexOfId(5));
+        assertThrows(SuuException.class, () -> Storage.parseLine("T | 0 | bad | #-1"));
+    }
+
+    @Test
+    public void save_failureMidWrite_keepsPreviousSnapshot() throws Exception {
+        for (StorageFormat format : StorageFormat.values()) {
+            Path dir = Files.createDirectory(tempDir.resolve(format.name()));
+            Storage storage = new Storage(dir.toString(), "Suu.txt");
+            storage.save(todos("old", 1_000));
+            storage.convertTo(format);
+            byte[] before = Files.readAllBytes(dir.resolve("Suu.txt"));
+
+            ArrayList<Task> broken = todos("new", 1_000);
+            broken.add(500, new Task("not a known task type"));
+            assertThrows(SuuException.class, () -> storage.save(broken));
+
+            assertArrayEquals(before, Files.readAllBytes(dir.resolve("Suu.txt")));
+            assertFalse(Files.exists(dir.resolve("Suu.txt" + Storage.TEMP_SUFFIX)));
+        }
+    }
+
+    @Test
+    public void save_failureBetweenSteps_leavesSnapshotAndJournalConsistent() throws Exception {
+        for (StorageFormat format : StorageFormat.values()) {
+            for (Storage.SaveStep step : Storage.SaveStep.values()) {
+                for (Durability durability : Durability.values()) {
+                    String name = format + "-" + step + "-" + durability;
+                    Path dir = Files.createDirectory(tempDir.resolve(name));
+                    Storage storage = new Storage(dir.toString(), "Suu.txt", 100);
+                    storage.convertTo(format);
+                    storage.setDurability(durability);
+                    ArrayList<Task> tasks = todos("task", 3);
+                    storage.save(tasks);
+                    tasks.add(new Todo("task 3"));
+                    storage.commit(tasks, Journal.add(tasks.get(3)));
+                    byte[] before = Files.readAllBytes(dir.resolve("Suu.txt"));
+
+                    storage.setSaveHook(reached -> {
+                        if (reached == step) {
+                            throw new IOException("failed after " + reached);
+                        }
+                    });
+                    assertThrows(SuuException.class, () -> storage.save(tasks), name);
+
+                    // either the old snapshot with the journal on top, or the new one with the journal left behind
+                    boolean isMoved = !Arrays.equals(before, Files.readAllBytes(dir.resolve("Suu.txt")));
+                    assertEquals(step == Storage.SaveStep.MOVED, isMoved, name);
+                    assertTrue(Files.exists(dir.resolve("Suu.txt.journal")), name);
+                    assertFalse(Files.exists(dir.resolve("Suu.txt" + Storage.TEMP_SUFFIX)), name);
+
+                    Storage reopened = new Storage(dir.toString(), "Suu.txt", 100);
+                    ArrayList<Task> loaded = reopened.load();
+                    assertEquals(tasks.toString(), loaded.toString(), name);
+                    loaded.add(new Todo("task 4"));
+                    reopened.commit(loaded, Journal.add(loaded.get(4)));
+                    assertEquals(loaded.toString(), new Storage(dir.toString(), "Suu.txt", 100).load().toString(),
+                            name);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void save_processKilledMidWrite_leavesWholeSnapshot() throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Random random = new Random(11);
+        for (int i = 0; i < 8; i++) {
+            Process writer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    SaveLoop.class.getName(), tempDir.toString()).redirectErrorStream(true).start();
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(writer.getInputStream()))) {
+                assertEquals("saving", out.readLine());
+                Thread.sleep(random.nextInt(200));
+            } finally {
+                writer.destroyForcibly().waitFor();
+            }
+
+            ArrayList<Task> loaded = new Storage(tempDir.toString(), "Suu.txt").load();
+            assertEquals(SaveLoop.SIZE, loaded.size());
+            String first = loaded.get(0).getDescription().substring(0, 3);
+            for (Task t : loaded) {
+                assertTrue(t.getDescription().startsWith(first), "torn snapshot: " + first + " and " + t);
+            }
+        }
+    }
+
+    @Test
+    public void sync_intervalDurability_forcesPendingWrites() throws Exception {
+        Storage storage = new Storage(tempDir.toString(), "Suu.txt", 100);
+        assertEquals(Durability.INTERVAL, storage.getDurability());
+        storage.setDurability(Durability.fromWord("Every-Commit"));
+        storage.save(todos("a", 10));
+        storage.commit(todos("a", 11), Journal.add(new Todo("a 10")));
+        storage.setDurability(Durability.INTERVAL);
+        storage.commit(todos("a", 12), Journal.add(new Todo("a 11")));
+        storage.sync();
+
+        assertEquals(todos("a", 12).toString(), new Storage(tempDir.toString(), "Suu.txt", 100).load().toString());
+        assertThrows(SuuException.class, () -> Durability.fromWord("sometimes"));
+    }
+
+    @Test
+    public void commit_intervalDurabilityThenIdle_forcesPendingWritesOnTimer() throws Exception {
+        Storage storage = new Storage(tempDir.toString(), "Suu.txt", 100);
+        storage.save(todos("a", 10));
+        storage.commit(todos("a", 11), Journal.add(new Todo("a 10")));
+        assertTrue(storage.hasUnsyncedWrites());
+
+        long deadline = System.currentTimeMillis() + Storage.SYNC_INTERVAL_MILLIS * 5;
+        while (storage.hasUnsyncedWrites() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertFalse(storage.hasUnsyncedWrites());
+    }
+
+    @Test
+    public void load_textWithIrregularSpacing_parsesLikeLineFormat() throws Exception {
+        Files.writeString(tempDir.resolve("Suu.txt"), "T|1|read book\r\n"
+                + "  D | 0 |return book|  2019-10-15  \n"
+                + "E | 0 | meeting | 2019-12-02T14:00 | 2019-12-02T16:00:30\n");
+
+        ArrayList<Task> loaded = new Storage(tempDir.toString(), "Suu.txt").load();
+        assertEquals(3, loaded.size());
+        assertEquals("[T][X] read book", loaded.get(0).toString());
+        assertEquals(LocalDate.of(2019, 10, 15), ((Deadline) loaded.get(1)).getBy());
+        assertEquals(LocalDateTime.of(2019, 12, 2, 16, 0, 30), ((Event) loaded.get(2)).getTo());
+    }
+
+    @Test
+    public void load_corruptedLine_reportsFirstBadLine() throws Exception {
+        Files.writeString(tempDir.resolve("Suu.txt"), "T | 0 | ok\nD | 0 | no date\nX | 0 | bad type\n");
+
+        SuuException e = assertThrows(SuuException.class, () ->
+                new Storage(tempDir.toString(), "Suu.txt").load());
+        assertEquals("Save file is corrupted: D | 0 | no date", e.getMessage());
+    }
+
+    private static ArrayList<Task> todos(String prefix, int count) {
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Todo(prefix + " " + i));
+        }
+        return tasks;
+    }
+
+    /**
+     * Saves two different lists in turn until it is killed, for
+     * {@link #save_processKilledMidWrite_leavesWholeSnapshot()}.
+     */
+    public static class SaveLoop {
+        static final int SIZE = 50_000;
+
+        public static void main(String[] args) throws SuuException {
+            Storage storage = new Storage(args[0], "Suu.txt");
+            storage.setDurability(Durability.NONE);
+            ArrayList<Task> even = todos("aaa", SIZE);
+            ArrayList<Task> odd = todos("bbb", SIZE);
+            storage.save(even);
+            System.out.println("saving");
+            System.out.flush();
+            for (int i = 1; ; i++) {
+                storage.save(i % 2 == 0 ? even : odd);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package duke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskHistoryTest {
+
+    @Test
+    public void undoRedo_randomChanges_restoreEveryVersion() {
+        Random random = new Random(42);
+        TaskList tasks = new TaskList();
+        TaskHistory history = new TaskHistory(tasks);
+        List<List<String>> versions = new ArrayList<>();
+        versions.add(render(tasks));
+
+        for (int i = 0; i < 2_000; i++) {
+            int choice = random.nextInt(3);
+            if (tasks.size() == 0 || choice == 0) {
+                history.add(new Todo("task " + i));
+            } else if (choice == 1) {
+                history.remove(random.nextInt(tasks.size()));
+            } else {
+                int index = random.nextInt(tasks.size());
+                history.setStatus(index, !tasks.get(index).isMarked());
+            }
+            versions.add(render(tasks));
+        }
+
+        for (int i = versions.size() - 2; i >= 0; i--) {
+            history.undo();
+            assertEquals(versions.get(i), render(tasks));
+            assertEquals(tasks.size(), tasks.getStats().getTodoCount());
+        }
+        assertNull(history.undo());
+        for (int i = 1; i < versions.size(); i++) {
+            history.redo();
+            assertEquals(versions.get(i), render(tasks));
+        }
+        assertNull(history.redo());
+    }
+
+    @Test
+    public void rollBack_undoneChange_keepsItUndoable() throws Exception {
+        TaskList tasks = new TaskList();
+        TaskHistory history = new TaskHistory(tasks);
+        Task kept = new Todo("kept");
+        history.add(kept);
+        history.setStatus(0, true);
+
+        TaskHistory.Step undo = history.undo();
+        assertEquals(TaskHistory.Kind.UNMARK, undo.getKind());
+        assertEquals(List.of("U | 0"), undo.records());
+        TaskHistory.Step added = history.add(new Todo("dropped"));
+        assertEquals(0, history.redoDepth());
+
+        history.rollBack(added);
+        history.rollBack(undo);
+        assertEquals(2, history.undoDepth());
+        assertEquals(List.of("[T][X] kept"), render(tasks));
+
+        TaskHistory.Step delete = history.remove(0);
+        assertSame(kept, delete.getTask());
+        history.undo();
+        assertEquals(List.of("[T][X] kept"), render(tasks));
+        assertEquals(1, tasks.getStats().getDoneCount());
+    }
+
+    @Test
+    public void removeAll_bulkDelete_undoesAsOneChange() throws Exception {
+        TaskList tasks = new TaskList();
+        TaskHistory history = new TaskHistory(tasks);
+        for (int i = 0; i < 12; i++) {
+            history.add(new Todo("task " + i));
+        }
+        List<String> before = render(tasks);
+
+        TaskHistory.Step delete = history.removeAll(new int[]{2, 6, 8, 9, 10, 11});
+        assertEquals(6, delete.getCount());
+        assertEquals(List.of("R | 2,6,8-11"), delete.records());
+        assertEquals(List.of("[T][ ] task 0", "[T][ ] task 1", "[T][ ] task 3", "[T][ ] task 4",
+                "[T][ ] task 5", "[T][ ] task 7"), render(tasks));
+
+        TaskHistory.Step undo = history.undo();
+        assertEquals(TaskHistory.Kind.ADD, undo.getKind());
+        assertEquals("I | 2 | T | 0 | task 2 | #3", undo.records().get(0));
+        assertEquals(before, render(tasks));
+        assertEquals(12, tasks.getStats().getTodoCount());
+
+        history.redo();
+        history.setStatusAll(new int[]{0, 1, 5}, true);
+        assertEquals(3, tasks.getStats().getDoneCount());
+        history.undo();
+        assertEquals(0, tasks.getStats().getDoneCount());
+    }
+
+    private static List<String> render(TaskList tasks) {
+        List<String> result = new ArrayList<>();
+        for (Task t : tasks.asList()) {
+            result.add(t.toString());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,39 @@
+package duke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskIdMapTest {
+
+    @Test
+    public void putAndRemove_randomIds_matchHashMap() {
+        Random random = new Random(7);
+        TaskIdMap map = new TaskIdMap();
+        Map<Long, Task> expected = new HashMap<>();
+
+        for (int i = 0; i < 50_000; i++) {
+            long id = 1 + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                map.remove(id);
+                expected.remove(id);
+            } else {
+                Task t = new Todo("task " + i);
+                map.put(id, t);
+                expected.put(id, t);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long id = 1; id <= 2_000; id++) {
+            assertSame(expected.get(id), map.get(id));
+        }
+        assertNull(map.get(0));
+    }
+}
@@ -0,0 +1,204 @@
+package duke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskListTest {
+
+    @Test
+    public void find_indexedKeyword_returnsMatchesInListOrder() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Todo("write report"));
+        tasks.add(new Todo("return Book to library"));
+        tasks.add(0, new Todo("buy notebook"));
+
+        assertEquals(List.of("buy notebook", "read book", "return Book to library"),
+                descriptions(tasks.find("BOOK")));
+        assertEquals(List.of("return Book to library"), descriptions(tasks.find("k to l")));
+        assertEquals(List.of(), descriptions(tasks.find("books")));
+    }
+
+    @Test
+    public void find_afterRemoveAndRollbackInsert_staysInSync() {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 5; i++) {
+            tasks.add(new Todo("book " + i));
+        }
+        Task removed = tasks.remove(2);
+        assertEquals(List.of("book 0", "book 1", "book 3", "book 4"), descriptions(tasks.find("book")));
+
+        tasks.add(2, removed);
+        tasks.add(1, new Todo("book x"));
+        assertEquals(List.of("book 0", "book x", "book 1", "book 2", "book 3", "book 4"),
+                descriptions(tasks.find("book")));
+    }
+
+    @Test
+    public void toString_afterMarkAndUnmark_showsCurrentStatus() {
+        Deadline deadline = new Deadline("return book", LocalDate.of(2019, 10, 15));
+        String unmarked = deadline.toString();
+        assertEquals(unmarked, deadline.toString());
+
+        deadline.setMarked();
+        assertEquals(unmarked.replace("[ ]", "[X]"), deadline.toString());
+        deadline.unmark();
+        assertEquals(unmarked, deadline.toString());
+    }
+
+    @Test
+    public void dueByAndBetween_afterChanges_returnDateOrder() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Deadline("late", LocalDate.of(2019, 10, 20)));
+        tasks.add(new Event("talk", LocalDateTime.of(2019, 10, 12, 10, 0), LocalDateTime.of(2019, 10, 12, 11, 0)));
+        tasks.add(new Deadline("early", LocalDate.of(2019, 10, 10)));
+        assertEquals(List.of("early"), descriptions(tasks.dueBy(LocalDate.of(2019, 10, 15))));
+
+        tasks.add(new Deadline("same day", LocalDate.of(2019, 10, 12)));
+        tasks.remove(0);
+        assertEquals(List.of("early", "same day", "talk"),
+                descriptions(tasks.between(LocalDate.of(2019, 10, 1), LocalDate.of(2019, 10, 31))));
+        assertEquals(List.of("same day", "talk"),
+                descriptions(tasks.between(LocalDate.of(2019, 10, 12), LocalDate.of(2019, 10, 12))));
+    }
+
+    @Test
+    public void stats_afterMarkUnmarkAndRemove_matchList() {
+        Deadline report = new Deadline("report", LocalDate.of(2019, 10, 20));
+        report.setMarked();
+        ArrayList<Task> loaded = new ArrayList<>(List.of(new Todo("read"), report));
+        TaskList tasks = new TaskList(loaded);
+        tasks.add(new Event("talk", LocalDateTime.of(2019, 11, 2, 10, 0), LocalDateTime.of(2019, 11, 2, 11, 0)));
+        TaskStats stats = tasks.getStats();
+        assertEquals(1, stats.getDoneCount());
+
+        tasks.get(0).setMarked();
+        tasks.get(0).setMarked();
+        report.unmark();
+        assertEquals(1, stats.getDoneCount());
+
+        Task removed = tasks.remove(0);
+        removed.unmark();
+        assertEquals(0, stats.getDoneCount());
+        assertEquals(0, stats.getTodoCount());
+        assertEquals(1, stats.getDeadlineCount());
+        assertEquals(1, stats.getEventCount());
+        assertEquals(Map.of(YearMonth.of(2019, 10), 1, YearMonth.of(2019, 11), 1), stats.getMonthHistogram());
+
+        tasks.remove(0);
+        assertEquals(Map.of(LocalDate.of(2019, 11, 2), 1), stats.getDayHistogram());
+    }
+
+    @Test
+    public void busiestDay_afterAddAndRemove_isEarliestDayWithMostTasks() {
+        TaskList tasks = new TaskList();
+        assertNull(tasks.getStats().getBusiestDay());
+        tasks.add(new Deadline("a", LocalDate.of(2019, 10, 21)));
+        tasks.add(new Deadline("b", LocalDate.of(2019, 10, 20)));
+        tasks.add(new Event("c", LocalDateTime.of(2019, 10, 21, 9, 0), LocalDateTime.of(2019, 10, 21, 10, 0)));
+        TaskStats stats = tasks.getStats();
+        assertEquals(LocalDate.of(2019, 10, 21), stats.getBusiestDay());
+        assertEquals(2, stats.getBusiestDayCount());
+
+        TaskStats copy = new TaskStats(stats);
+        tasks.remove(2);
+        assertEquals(LocalDate.of(2019, 10, 20), stats.getBusiestDay());
+        assertEquals(1, stats.getBusiestDayCount());
+        assertEquals(LocalDate.of(2019, 10, 21), copy.getBusiestDay());
+
+        tasks.removeAll(new int[]{0, 1});
+        assertNull(stats.getBusiestDay());
+        assertEquals(0, stats.getBusiestDayCount());
+    }
+
+    @Test
+    public void descriptionCount_afterAddAndRemove_countsDuplicates() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("water plants"));
+        tasks.add(new Deadline("water plants", LocalDate.of(2019, 10, 20)));
+        tasks.add(new Todo("read"));
+        assertEquals(2, tasks.getStats().getDescriptionCount("water plants"));
+
+        tasks.remove(0);
+        tasks.remove(0);
+        assertEquals(0, tasks.getStats().getDescriptionCount("water plants"));
+        assertEquals(1, tasks.getStats().getDescriptionCount("read"));
+    }
+
+    @Test
+    public void snapshot_whileWriterAddsAndMarks_alwaysConsistent() throws Exception {
+        TaskList tasks = new TaskList();
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                try {
+                    long lastVersion = -1;
+                    while (isWriting.get()) {
+                        TaskList.Snapshot snapshot = tasks.snapshot();
+                        assertTrue(snapshot.getVersion() >= lastVersion, "Versions must not go back");
+                        lastVersion = snapshot.getVersion();
+
+                        // the writer adds task i, then marks task i - 1, so the done tasks form a prefix
+                        List<Task> seen = snapshot.getTasks();
+                        int done = 0;
+                        while (done < seen.size() && seen.get(done).isMarked()) {
+                            done++;
+                        }
+                        for (int i = done; i < seen.size(); i++) {
+                            assertFalse(seen.get(i).isMarked(), "Done tasks must form a prefix");
+                        }
+                        assertTrue(done >= seen.size() - 2 && done <= Math.max(0, seen.size() - 1));
+                        assertEquals(done, snapshot.getStats().getDoneCount());
+                        assertEquals(seen.size(), snapshot.getStats().getTodoCount());
+                        tasks.find("task 1");
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            readers[r].start();
+        }
+
+        for (int i = 0; i < 20_000; i++) {
+            tasks.add(new Todo("task " + i));
+            if (i > 0) {
+                tasks.get(i - 1).setMarked();
+            }
+        }
+        isWriting.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        TaskList.Snapshot last = tasks.snapshot();
+        assertEquals(20_000, last.getTasks().size());
+        assertEquals(19_999, last.getStats().getDoneCount());
+        assertSame(last, tasks.snapshot());
+    }
+
+    private static List<String> descriptions(ArrayList<Task> found) {
+        List<String> result = new ArrayList<>();
+        for (Task t : found) {
+            result.add(t.getDescription());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,106 @@
+package duke.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SuuServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void writeResponse_dotsAndBlankLines_readBackUnchanged() throws Exception {
+        String response = ".hidden\n\n..\nlast line";
+        StringWriter out = new StringWriter();
+        SuuServer.writeResponse(out, response);
+        SuuServer.writeResponse(out, "");
+
+        BufferedReader in = new BufferedReader(new StringReader(out.toString()));
+        assertEquals(response, SuuServer.readResponse(in));
+        assertEquals("", SuuServer.readResponse(in));
+        assertNull(SuuServer.readResponse(in));
+    }
+
+    @Test
+    public void serve_twoUsers_keepSeparateTasks() throws Exception {
+        try (SuuServer server = new SuuServer(0, new SessionPool(tempDir.toString(), 60_000))) {
+            server.start();
+            try (Connection alice = new Connection(server); Connection bob = new Connection(server)) {
+                assertTrue(alice.send("user alice").startsWith("Hello! I'm Suu"));
+                bob.send("user bob");
+                alice.send("todo read book");
+                bob.send("todo buy milk");
+
+                assertEquals("Here are the tasks in your list:\n1. [T][ ] read book", alice.send("list"));
+                assertEquals("Here are the tasks in your list:\n1. [T][ ] buy milk", bob.send("list"));
+                assertEquals("Bye. Hope to see you again soon!", alice.send("bye"));
+                assertNull(SuuServer.readResponse(alice.in));
+            }
+        }
+    }
+
+    @Test
+    public void serve_invalidUser_refused() throws Exception {
+        try (SuuServer server = new SuuServer(0, new SessionPool(tempDir.toString(), 60_000));
+                Connection connection = new Connection(server)) {
+            server.start();
+            assertTrue(connection.send("user ../etc").startsWith("Oops!"));
+            assertNull(SuuServer.readResponse(connection.in));
+        }
+    }
+
+    @Test
+    public void evictIdle_idleSession_reloadedFromDisk() {
+        try (SessionPool pool = new SessionPool(tempDir.toString(), 60_000)) {
+            pool.getResponse("carol", "todo read book");
+            assertEquals(0, pool.evictIdle(System.nanoTime()));
+            assertEquals(1, pool.size());
+
+            assertEquals(1, pool.evictIdle(System.nanoTime() + 61_000_000_000L));
+            assertEquals(0, pool.size());
+            assertEquals("Here are the tasks in your list:\n1. [T][ ] read book", pool.getResponse("carol", "list"));
+        }
+    }
+
+    /**
+     * A client connection that sends one line at a time and waits for the response.
+     */
+    private static class Connection implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final Writer out;
+
+        Connection(SuuServer server) throws Exception {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        }
+
+        String send(String line) throws Exception {
+            out.write(line + "\n");
+            out.flush();
+            return SuuServer.readResponse(in);
+        }
+
+        @Override
+        public void close() throws Exception {
+            socket.close();
+        }
+    }
+}
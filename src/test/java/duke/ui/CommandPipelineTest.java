@@ -0,0 +1,48 @@
+package duke.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import duke.Storage;
+import duke.Suu;
+
+public class CommandPipelineTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void submit_commandsAfterBye_answeredInOrderThenSkipped() throws Exception {
+        Suu suu = new Suu(new Storage(tempDir.toString(), "Suu.txt"), false);
+        List<String> responses = new ArrayList<>();
+        List<Boolean> exits = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(4);
+
+        try (CommandPipeline pipeline = new CommandPipeline(suu, Runnable::run)) {
+            for (String input : List.of("todo read book", "list", "bye", "todo too late")) {
+                pipeline.submit(input, (response, isExit) -> {
+                    responses.add(response);
+                    exits.add(isExit);
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        }
+
+        assertTrue(responses.get(0).startsWith("Got it."));
+        assertTrue(responses.get(1).endsWith("1. [T][ ] read book"));
+        assertEquals("Bye. Hope to see you again soon!", responses.get(2));
+        assertNull(responses.get(3));
+        assertEquals(List.of(false, false, true, true), exits);
+    }
+}